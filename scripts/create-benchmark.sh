@@ -0,0 +1,77 @@
+#!/usr/bin/env bash
+#
+# create-benchmark.sh - Store creates per second, with and without client ids
+#
+# Runs POST /api/store at increasing concurrency twice:
+#   server-id  body without storeId (the server assigns a random UUID)
+#   client-id  body with a fresh storeId per request
+# Both should now be a single INSERT per create. Before Store implemented
+# Persistable, a client-supplied id made save() SELECT first and then merge.
+#
+# Both runs use the same tool, concurrency and keep-alive connections - only
+# the body differs. hey sends the same body on every request, so this uses
+# wrk, whose Lua hook builds each request (and a fresh UUID for client-id).
+#
+# Usage:
+#   TOKEN=... scripts/create-benchmark.sh [base-url] [duration]
+#
+# Needs `wrk` (https://github.com/wg/wrk) on the PATH.
+# Creates one store per request for the user behind TOKEN, use a dedicated test user
+# (DELETE /api/user/me cleans up afterwards).
+
+set -euo pipefail
+
+BASE="${1:-http://localhost:8080}"
+DURATION="${2:-20s}"
+: "${TOKEN:?TOKEN must hold an Auth0 access token}"
+
+SCRIPT="$(mktemp --suffix=.lua)"
+trap 'rm -f "$SCRIPT"' EXIT
+
+cat > "$SCRIPT" <<'LUA'
+local clientId = os.getenv("CLIENT_ID") == "1"
+local headers = {
+    ["Authorization"] = "Bearer " .. os.getenv("TOKEN"),
+    ["Content-Type"] = "application/json",
+}
+
+-- setup() runs once per thread in the main state: give every thread its own seed
+local threads = 0
+function setup(thread)
+    threads = threads + 1
+    thread:set("id", threads)
+end
+
+function init(args)
+    math.randomseed(os.time() * 1000 + id)
+end
+
+local function uuid()
+    return (string.gsub("xxxxxxxx-xxxx-4xxx-yxxx-xxxxxxxxxxxx", "[xy]", function(c)
+        local v = (c == "x") and math.random(0, 15) or math.random(8, 11)
+        return string.format("%x", v)
+    end))
+end
+
+function request()
+    local body
+    if clientId then
+        body = '{"storeId":"' .. uuid() .. '","storeName":"Bench","storeLocation":"Bench City"}'
+    else
+        body = '{"storeName":"Bench","storeLocation":"Bench City"}'
+    end
+    return wrk.format("POST", "/api/store", headers, body)
+end
+LUA
+
+export TOKEN
+for concurrency in 8 32 128; do
+    for mode in server-id client-id; do
+        echo "== $mode  concurrency=$concurrency  duration=$DURATION"
+        CLIENT_ID="$([ "$mode" = client-id ] && echo 1 || echo 0)" \
+            wrk -t "$(( concurrency < 8 ? concurrency : 8 ))" -c "$concurrency" -d "$DURATION" \
+                --latency -s "$SCRIPT" "$BASE" \
+            | grep -E 'Requests/sec|50%|90%|99%|Non-2xx'
+        echo
+    done
+done
@@ -0,0 +1,37 @@
+-- dedupe-store-natural-key.sql - Remove duplicate stores before migration V5
+--
+-- V5 refuses to run while a user has two stores with the same name and location.
+-- This script is the explicit, opt-in way out: it keeps the OLDEST store of each
+-- duplicate group (by store_created_at, then store_id) and deletes the others.
+-- The deleted stores are copied to stores_dedupe_backup first.
+--
+-- Usage (review the SELECT output before committing):
+--   psql "$DATABASE_URL" -v ON_ERROR_STOP=1 -f scripts/dedupe-store-natural-key.sql
+-- With sharding, run it on every shard.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS stores_dedupe_backup (LIKE stores INCLUDING DEFAULTS);
+
+WITH doomed AS (
+    SELECT s.*
+    FROM stores s
+    JOIN stores keep
+      ON s.user_id = keep.user_id
+     AND s.store_name = keep.store_name
+     AND s.store_location = keep.store_location
+     AND (s.store_created_at, s.store_id) > (keep.store_created_at, keep.store_id)
+)
+INSERT INTO stores_dedupe_backup
+SELECT DISTINCT * FROM doomed;
+
+DELETE FROM stores s
+USING stores_dedupe_backup b
+WHERE s.store_id = b.store_id;
+
+SELECT user_id, store_name, store_location, count(*) AS removed
+FROM stores_dedupe_backup
+GROUP BY user_id, store_name, store_location
+ORDER BY removed DESC;
+
+COMMIT;
@@ -0,0 +1,123 @@
+#!/usr/bin/env bash
+#
+# native-smoke-test.sh - Exercise every controller endpoint against a binary
+#
+# Usage:
+#   ./gradlew -Pnative nativeSmokeTest
+#   scripts/native-smoke-test.sh build/native/nativeCompile/store
+#
+# Environment:
+#   TOKEN   Auth0 access token of a regular user, without store:admin (see TESTING_GUIDE.md Part 3) - required
+#   PORT    port to start the binary on (default 8080)
+#   plus the usual SPRING_DATASOURCE_* / auth0 settings for the app itself
+#
+# Reports:
+#   - time-to-first-request: process start until /api/auth/info answers 200
+#   - RSS after startup and after the full endpoint run
+#
+# Any unexpected status code fails the script.
+
+set -euo pipefail
+
+BINARY="${1:?usage: $0 <native-binary>}"
+PORT="${PORT:-8080}"
+BASE="http://localhost:${PORT}"
+: "${TOKEN:?TOKEN must hold an Auth0 access token}"
+
+rss_kb() {
+    awk '/VmRSS/ {print $2}' "/proc/$1/status"
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+LOG="$(mktemp)"
+START="$(now_ms)"
+"$BINARY" --server.port="$PORT" >"$LOG" 2>&1 &
+PID=$!
+trap 'kill $PID 2>/dev/null || true; rm -f "$LOG"' EXIT
+
+# --- time to first request --------------------------------------------------
+until curl -sf -o /dev/null "$BASE/api/auth/info"; do
+    if ! kill -0 "$PID" 2>/dev/null; then
+        echo "binary exited during startup:" >&2
+        tail -n 40 "$LOG" >&2
+        exit 1
+    fi
+    sleep 0.01
+done
+FIRST_REQUEST_MS=$(( $(now_ms) - START ))
+RSS_STARTUP_KB="$(rss_kb "$PID")"
+
+# --- endpoint run -----------------------------------------------------------
+FAILURES=0
+
+# call <expected-status> <method> <path> [body]   (CONTENT_TYPE defaults to application/json)
+call() {
+    local expected="$1" method="$2" path="$3" body="${4:-}"
+    local type="${CONTENT_TYPE:-application/json}"
+    local args=(-s -o /tmp/smoke-body.json -w '%{http_code}' -X "$method"
+                -H "Authorization: Bearer $TOKEN")
+    if [[ -n "$body" ]]; then
+        args+=(-H "Content-Type: $type" --data-binary "$body")
+    fi
+    local status
+    status="$(curl "${args[@]}" "$BASE$path")"
+    if [[ "$status" == "$expected" ]]; then
+        echo "  ok   $status $method $path"
+    else
+        echo "  FAIL $status $method $path (expected $expected): $(head -c 300 /tmp/smoke-body.json)"
+        FAILURES=$((FAILURES + 1))
+    fi
+}
+
+echo "AuthController"
+call 200 GET /api/auth/info
+
+echo "UserController"
+call 200 GET   /api/user/me
+call 200 GET   /api/user/all
+call 200 GET   "/api/user/all?fields=userId,email"
+call 400 GET   "/api/user/me?fields=password"
+call 403 GET   /api/user/summary                 # store:admin only
+call 200 PATCH /api/user/me '{"name":"Native Smoke"}'
+
+echo "StoreController"
+call 201 POST /api/store '{"storeName":"Native Store","storeLocation":"Smoke City"}'
+STORE_ID="$(grep -o '"storeId":"[^"]*"' /tmp/smoke-body.json | head -n 1 | cut -d'"' -f4)"
+call 409 POST /api/store "{\"storeId\":\"$STORE_ID\",\"storeName\":\"Duplicate\",\"storeLocation\":\"Smoke City\"}"
+call 200 GET    /api/store/all
+call 200 GET    "/api/store/$STORE_ID"
+call 200 GET    "/api/store/all?fields=storeId,storeName"
+call 200 GET    "/api/store/$STORE_ID?fields=storeId,userId"
+call 200 GET    "/api/store/facets/location?top=5"
+call 400 GET    "/api/store/facets/location?top=0"
+call 200 GET    "/api/store/stats/created?bucket=hour"
+call 400 GET    "/api/store/stats/created?bucket=week"
+call 200 POST   /api/store/lookup "{\"ids\":[\"$STORE_ID\"]}"
+call 201 PUT    /api/store/upsert '{"storeName":"Upsert Store","storeLocation":"Smoke City"}'
+call 200 PUT    /api/store/upsert '{"storeName":"Upsert Store","storeLocation":"Smoke City","storeCreatedAt":"2024-01-01T00:00:00Z"}'
+call 200 PUT    /api/store/upsert/batch '[{"storeName":"Upsert Store","storeLocation":"Smoke City"},{"storeName":"Batch Store","storeLocation":"Smoke City"}]'
+CONTENT_TYPE=text/csv call 200 POST /api/store/import $'storeName,storeLocation\nCsv Store,Smoke City\n,missing name\n'
+call 200 PUT    "/api/store/$STORE_ID" '{"storeName":"Native Store 2","storeLocation":"Smoke City"}'
+call 200 PATCH  "/api/store/$STORE_ID" '{"storeLocation":"Smoke Town"}'
+call 200 DELETE "/api/store/$STORE_ID"
+CONTENT_TYPE=text/csv call 400 PUT /api/store/reconcile $'storeName,storeLocation\n,missing name\n'
+CONTENT_TYPE=text/csv call 400 PUT /api/store/reconcile $'storeName,storeLocation\n'
+CONTENT_TYPE=text/csv call 200 PUT /api/store/reconcile $'storeName,storeLocation\nReconciled Store,Smoke City\n'
+
+echo "UserController (cleanup)"
+call 200 DELETE /api/user/me
+
+RSS_AFTER_KB="$(rss_kb "$PID")"
+
+echo
+echo "time-to-first-request: ${FIRST_REQUEST_MS} ms"
+echo "RSS after startup:     $((RSS_STARTUP_KB / 1024)) MB"
+echo "RSS after smoke run:   $((RSS_AFTER_KB / 1024)) MB"
+
+if (( FAILURES > 0 )); then
+    echo "$FAILURES endpoint call(s) failed" >&2
+    exit 1
+fi
@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+#
+# read-path-benchmark.sh - Servlet/JPA vs reactive/R2DBC store reads
+#
+# Runs the same load against
+#   GET /api/store/all           (blocking JPA)
+#   GET /api/store/reactive/all  (R2DBC, store.reactive.enabled=true)
+# at increasing concurrency and prints requests/sec and latency percentiles.
+#
+# Usage:
+#   TOKEN=... scripts/read-path-benchmark.sh [base-url] [duration]
+#
+# Needs `hey` (https://github.com/rakyll/hey) on the PATH. The user behind
+# TOKEN should own a realistic number of stores. Use page=2 so the
+# StorePageCache (page 1 only) doesn't hide the database work.
+
+set -euo pipefail
+
+BASE="${1:-http://localhost:8080}"
+DURATION="${2:-20s}"
+: "${TOKEN:?TOKEN must hold an Auth0 access token}"
+
+QUERY="page=2&size=50"
+
+for concurrency in 16 64 256; do
+    for path in /api/store/all /api/store/reactive/all; do
+        echo "== $path  concurrency=$concurrency  duration=$DURATION"
+        hey -z "$DURATION" -c "$concurrency" \
+            -H "Authorization: Bearer $TOKEN" \
+            "$BASE$path?$QUERY" \
+            | grep -E 'Requests/sec|50% in|95% in|99% in|\[[0-9]{3}\]'
+        echo
+    done
+done
@@ -0,0 +1,78 @@
+#!/usr/bin/env bash
+#
+# startup-benchmark.sh - Compare time-to-ready of the launch profiles
+#
+# Profiles:
+#   jar      java -jar build/libs/store-*.jar           (plain fat jar)
+#   cds      extracted jar + build/cds/application.jsa  (class data sharing)
+#   aot-cds  same as cds plus -Dspring.aot.enabled=true (needs a -Paot build)
+#
+# Each run starts the app, waits for the "Application ready" log line from
+# StartupTimeLogger, records its startupMillis field and stops the process.
+#
+# Usage:
+#   ./gradlew -Paot bootJar cdsArchive
+#   scripts/startup-benchmark.sh [runs]
+#
+# The app needs the same environment as a normal start (database URL,
+# auth0 settings), e.g. exported SPRING_DATASOURCE_* variables.
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$(ls "$ROOT"/build/libs/store-*-SNAPSHOT.jar | grep -v plain | head -n 1)"
+CDS_DIR="$ROOT/build/cds"
+CDS_JAR="$(ls "$CDS_DIR"/store-*.jar | head -n 1)"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+run_once() {
+    local log
+    log="$(mktemp)"
+    "$@" >"$log" 2>&1 &
+    local pid=$!
+
+    local millis=""
+    for _ in $(seq 1 600); do
+        millis="$(grep -o '"startupMillis":[0-9]*' "$log" | head -n 1 | cut -d: -f2 || true)"
+        if [[ -n "$millis" ]] || ! kill -0 "$pid" 2>/dev/null; then
+            break
+        fi
+        sleep 0.1
+    done
+
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+
+    if [[ -z "$millis" ]]; then
+        echo "startup failed, last log lines:" >&2
+        tail -n 20 "$log" >&2
+        rm -f "$log"
+        return 1
+    fi
+    rm -f "$log"
+    echo "$millis"
+}
+
+bench() {
+    local name="$1"; shift
+    local total=0 best=999999 value
+    for i in $(seq 1 "$RUNS"); do
+        value="$(run_once "$@")"
+        total=$((total + value))
+        (( value < best )) && best=$value
+        echo "  $name run $i: ${value} ms"
+    done
+    printf '%-8s avg %6d ms   best %6d ms\n' "$name" $((total / RUNS)) "$best" >>"$SUMMARY"
+}
+
+SUMMARY="$(mktemp)"
+
+bench jar     "$JAVA" -jar "$JAR"
+bench cds     "$JAVA" -XX:SharedArchiveFile="$CDS_DIR/application.jsa" -jar "$CDS_JAR"
+bench aot-cds "$JAVA" -XX:SharedArchiveFile="$CDS_DIR/application.jsa" -Dspring.aot.enabled=true -jar "$CDS_JAR"
+
+echo
+echo "Time to ApplicationReadyEvent over $RUNS runs:"
+cat "$SUMMARY"
+rm -f "$SUMMARY"
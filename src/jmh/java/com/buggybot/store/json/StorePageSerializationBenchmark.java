@@ -0,0 +1,97 @@
+package com.buggybot.store.json;
+
+import com.buggybot.store.controller.common.ApiResponse;
+import com.buggybot.store.controller.common.PaginatedResponse;
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.store.responseEntity.Store;
+import com.buggybot.store.controller.user.entity.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing one 1,000-row store page the way GET /api/store/all does.
+ *
+ * mapper:
+ * - reflective: plain Jackson (what we had before StoreJsonModule)
+ * - blackbird:  Jackson + Blackbird only
+ * - module:     Jackson + StoreJsonModule + Blackbird (the application's setup)
+ *
+ * Run: ./gradlew jmh   (results in build/results/jmh/results.json)
+ * Compare ops/s and gc.alloc.rate.norm (bytes allocated per page).
+ *
+ * Note: the reflective entityPage case serializes a plain User without stores;
+ * in the application the lazy user proxy recursed, so it had no working baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorePageSerializationBenchmark {
+
+	private static final int ROWS = 1_000;
+
+	@Param({"reflective", "blackbird", "module"})
+	public String mapper;
+
+	private ObjectMapper objectMapper;
+	private ApiResponse<PaginatedResponse<StoreDTO>> dtoPage;
+	private ApiResponse<PaginatedResponse<Store>> entityPage;
+	private final OutputStream sink = OutputStream.nullOutputStream();
+
+	@Setup
+	public void setup() {
+		objectMapper = new ObjectMapper()
+				.registerModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		// The sink is reused, writeValue must not close it
+		objectMapper.getFactory().configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+		if (!mapper.equals("reflective")) {
+			objectMapper.registerModule(new BlackbirdModule());
+		}
+		if (mapper.equals("module")) {
+			objectMapper.registerModule(new StoreJsonModule());
+		}
+
+		User user = new User("auth0|bench", "bench@example.com", "Bench");
+		user.setUserId(UUID.randomUUID());
+		Instant now = Instant.now();
+
+		List<StoreDTO> dtos = new ArrayList<>(ROWS);
+		List<Store> stores = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			UUID id = UUID.randomUUID();
+			Instant createdAt = now.minusSeconds(i);
+			dtos.add(new StoreDTO(id, "Store " + i, "Location " + (i % 20), createdAt, user.getUserId()));
+			Store store = new Store("Store " + i, "Location " + (i % 20), user);
+			store.setStoreId(id);
+			store.setStoreCreatedAt(createdAt);
+			stores.add(store);
+		}
+		dtoPage = new ApiResponse<>(true, null, new PaginatedResponse<>(dtos, 1, ROWS, 50_000, 50, true, false));
+		entityPage = new ApiResponse<>(true, null, new PaginatedResponse<>(stores, 1, ROWS, 50_000, 50, true, false));
+	}
+
+	@Benchmark
+	public void dtoPage() throws IOException {
+		objectMapper.writeValue(sink, dtoPage);
+	}
+
+	@Benchmark
+	public void entityPage() throws IOException {
+		objectMapper.writeValue(sink, entityPage);
+	}
+}
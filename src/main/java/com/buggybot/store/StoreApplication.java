@@ -2,8 +2,19 @@ package com.buggybot.store;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+/**
+ * R2DBC auto-configuration is excluded on purpose:
+ * - JPA stays the main data access stack (and owns the only transaction manager)
+ * - The optional reactive read path creates its own connection pool,
+ *   see controller/store/reactive/ReactiveReadConfig
+ */
+@SpringBootApplication(exclude = {
+		R2dbcAutoConfiguration.class,
+		R2dbcTransactionManagerAutoConfiguration.class
+})
 public class StoreApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,21 @@
+package com.buggybot.store.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * AsyncConfig - Enables @Async and @Scheduled methods
+ *
+ * @Async methods run on Spring Boot's "applicationTaskExecutor" thread pool
+ * (configurable with spring.task.execution.*), so the HTTP request can return
+ * while long jobs like the user purge keep running.
+ *
+ * @Scheduled methods (e.g. ShardRouter reloading shard overrides) run on the
+ * "taskScheduler" pool (spring.task.scheduling.*).
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+}
@@ -0,0 +1,16 @@
+package com.buggybot.store.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * DefaultsConfig - Loads store-defaults.properties
+ *
+ * Property sources added with @PropertySource have the lowest precedence,
+ * so every value in that file is only a default: application properties,
+ * environment variables and command line arguments always win.
+ */
+@Configuration
+@PropertySource("classpath:store-defaults.properties")
+public class DefaultsConfig {
+}
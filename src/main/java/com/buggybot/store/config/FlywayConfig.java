@@ -0,0 +1,27 @@
+package com.buggybot.store.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * FlywayConfig - Schema migrations
+ *
+ * Migrations live in src/main/resources/db/migration (V1__..., V2__..., ...)
+ * and run automatically on startup, before Hibernate is initialized.
+ *
+ * Existing databases:
+ * - Before migrations, Hibernate created the tables itself
+ * - baselineOnMigrate marks such a database as "version 1" (the baseline schema)
+ *   the first time Flyway sees it, so only the later migrations run
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayConfigurationCustomizer baselineExistingSchema() {
+        return configuration -> configuration
+                .baselineOnMigrate(true)
+                .baselineVersion("1");
+    }
+}
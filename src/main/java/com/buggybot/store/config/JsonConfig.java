@@ -0,0 +1,38 @@
+package com.buggybot.store.config;
+
+import com.buggybot.store.json.StoreJsonModule;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+
+/**
+ * JsonConfig - Faster JSON for the API
+ *
+ * Spring Boot adds every Module bean to its ObjectMapper:
+ * - StoreJsonModule: hand-written serializers for the response records and
+ *   Store (the big store pages)
+ * - Blackbird: replaces reflection with generated lambdas for every other
+ *   (de)serialized type, e.g. request bodies
+ *
+ * Blackbird generates classes at runtime, which a native image can't do -
+ * there it is left out and Jackson falls back to reflection.
+ */
+@Configuration(proxyBeanMethods = false)
+public class JsonConfig {
+
+    @Bean
+    public Module storeJsonModule() {
+        return new StoreJsonModule();
+    }
+
+    @Bean
+    public Module blackbirdModule() {
+        if (NativeDetector.inNativeImage()) {
+            return new SimpleModule("blackbird-disabled-in-native-image");
+        }
+        return new BlackbirdModule();
+    }
+}
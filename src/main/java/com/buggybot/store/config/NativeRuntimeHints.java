@@ -0,0 +1,133 @@
+package com.buggybot.store.config;
+
+import com.buggybot.store.controller.common.ApiResponse;
+import com.buggybot.store.controller.common.PaginatedResponse;
+import com.buggybot.store.controller.store.dto.StoreCreatedStats;
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.store.dto.StoreImportReport;
+import com.buggybot.store.controller.store.dto.StoreLocationFacets;
+import com.buggybot.store.controller.store.dto.StoreLookupRequest;
+import com.buggybot.store.controller.store.dto.StoreLookupResponse;
+import com.buggybot.store.controller.store.dto.StoreReconcileReport;
+import com.buggybot.store.controller.store.dto.StoreUpsertBatchResponse;
+import com.buggybot.store.controller.store.dto.StoreUpsertResult;
+import com.buggybot.store.controller.store.dto.UserStoreStats;
+import com.buggybot.store.controller.store.repository.StoreRepository;
+import com.buggybot.store.controller.store.responseEntity.Store;
+import com.buggybot.store.controller.store.stats.StoreRollupBackfill;
+import com.buggybot.store.controller.store.stats.StoreRollupEndpoint;
+import com.buggybot.store.controller.user.dto.UserDTO;
+import com.buggybot.store.controller.user.dto.UserSummaryDTO;
+import com.buggybot.store.controller.user.entity.User;
+import com.buggybot.store.controller.user.repository.UserRepository;
+import com.buggybot.store.sharding.ShardEndpoint;
+import com.buggybot.store.sharding.ShardRebalancer;
+import com.buggybot.store.sharding.ShardingProperties;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.interceptor.TransactionalProxy;
+
+import java.util.List;
+
+/**
+ * NativeRuntimeHints - Reachability metadata for the GraalVM native image
+ *
+ * What is this for?
+ * - A native image only contains code that is reachable at build time
+ * - Anything used through reflection or dynamic proxies must be declared up front
+ * - Spring AOT infers most of it, this class covers the rest explicitly
+ *
+ * What we register:
+ * - Entities (Store, User): Lombok getters/setters used by Hibernate and Jackson
+ * - Response records (ApiResponse, PaginatedResponse, StoreDTO, UserDTO, shard endpoint): Jackson
+ * - Repository proxies (StoreRepository, UserRepository): Spring Data JDK proxies
+ * - Nimbus JOSE types used while decoding Auth0 JWTs and their key set
+ *
+ * Only has an effect in a native build (./gradlew -Pnative nativeCompile).
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeRuntimeHints.Registrar.class)
+public class NativeRuntimeHints {
+
+    static final List<Class<?>> ENTITY_TYPES = List.of(Store.class, User.class);
+
+    static final List<Class<?>> RESPONSE_TYPES = List.of(
+            ApiResponse.class, PaginatedResponse.class, StoreDTO.class, UserDTO.class,
+            StoreLookupRequest.class, StoreLookupResponse.class,
+            StoreImportReport.class, StoreImportReport.RejectedLine.class,
+            UserSummaryDTO.class, UserStoreStats.class,
+            StoreUpsertResult.class, StoreUpsertBatchResponse.class, StoreReconcileReport.class,
+            StoreLocationFacets.class, StoreLocationFacets.LocationCount.class,
+            StoreCreatedStats.class, StoreCreatedStats.BucketCount.class, StoreRollupBackfill.BackfillReport.class,
+            StoreRollupEndpoint.BackfillStatus.class,
+            ShardEndpoint.ShardStatus.class, ShardEndpoint.UserShard.class, ShardRebalancer.RebalanceReport.class,
+            ShardingProperties.class, ShardingProperties.Shard.class);
+
+    static final List<Class<?>> REPOSITORY_TYPES = List.of(StoreRepository.class, UserRepository.class);
+
+    static final List<String> NIMBUS_TYPES = List.of(
+            "com.nimbusds.jwt.SignedJWT",
+            "com.nimbusds.jwt.JWTClaimsSet",
+            "com.nimbusds.jose.JWSHeader",
+            "com.nimbusds.jose.JWSAlgorithm",
+            "com.nimbusds.jose.jwk.JWKSet",
+            "com.nimbusds.jose.jwk.RSAKey",
+            "com.nimbusds.jose.jwk.source.RemoteJWKSet",
+            "com.nimbusds.jose.crypto.RSASSAVerifier",
+            "com.nimbusds.jose.shaded.gson.internal.LinkedTreeMap");
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Entities: Hibernate instantiates them and accesses fields,
+            // Jackson calls the Lombok generated getters
+            for (Class<?> type : ENTITY_TYPES) {
+                hints.reflection().registerType(type,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+
+            // Records: Jackson needs the canonical constructor and accessors
+            for (Class<?> type : RESPONSE_TYPES) {
+                hints.reflection().registerType(type,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+
+            // Spring Data creates JDK proxies with exactly this interface list
+            for (Class<?> repository : REPOSITORY_TYPES) {
+                hints.proxies().registerJdkProxy(
+                        repository,
+                        Repository.class,
+                        TransactionalProxy.class,
+                        Advised.class,
+                        DecoratingProxy.class);
+                hints.proxies().registerJdkProxy(
+                        repository,
+                        SpringProxy.class,
+                        Advised.class,
+                        DecoratingProxy.class);
+                hints.reflection().registerType(repository, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+
+            // Nimbus JWT decoder: parsing, key set handling and signature verification
+            for (String type : NIMBUS_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS,
+                        MemberCategory.DECLARED_FIELDS);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.buggybot.store.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,6 +26,12 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity  // Enables Spring Security
 public class SecurityConfig {
 
+    /**
+     * Authority for operational endpoints (JFR dumps, shard rebalancing, ...)
+     * Auth0 puts granted scopes in the "scope" claim, Spring maps them to SCOPE_*
+     */
+    public static final String ADMIN_AUTHORITY = "SCOPE_store:admin";
+
     @Value("${auth0.audience}")
     private String audience;
 
@@ -44,6 +51,19 @@ public class SecurityConfig {
         http
             // Configure authorization rules
             .authorizeHttpRequests(authorize -> authorize
+                // Async dispatches only write the result of a request that was
+                // already authorized (Mono/Flux responses of the reactive read path)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
+                // Operational actuator endpoints - admin token only
+                .requestMatchers("/actuator/jfr*", "/actuator/jfr*/**", "/actuator/shards", "/actuator/shards/**",
+                                 "/actuator/storerollups",
+                                 "/actuator/metrics", "/actuator/metrics/**")
+                    .hasAuthority(ADMIN_AUTHORITY)
+
+                // Admin dashboard - lists every user's email and auth0Id
+                .requestMatchers("/api/user/summary").hasAuthority(ADMIN_AUTHORITY)
+
                 // Public endpoints - anyone can access (no token needed)
                 .requestMatchers("/actuator/**").permitAll()
                 .requestMatchers("/public/**").permitAll()
@@ -73,9 +93,18 @@ public class SecurityConfig {
      * 3. Checks issuer (who created the token)
      * 4. Checks audience (is this token meant for our API?)
      * 5. Checks expiration (is the token still valid?)
+     *
+     * Lazy initialization:
+     * - Building the decoder calls Auth0's discovery endpoint (network round trip)
+     * - SupplierJwtDecoder defers that to the first token we have to decode,
+     *   so startup (and the CDS training run) doesn't wait on Auth0
      */
     @Bean
     public JwtDecoder jwtDecoder() {
+        return new SupplierJwtDecoder(this::createAuth0JwtDecoder);
+    }
+
+    private JwtDecoder createAuth0JwtDecoder() {
         // Create default decoder from Auth0 issuer
         NimbusJwtDecoder jwtDecoder = JwtDecoders.fromOidcIssuerLocation(issuer);
 
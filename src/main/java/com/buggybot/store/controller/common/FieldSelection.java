@@ -0,0 +1,156 @@
+package com.buggybot.store.controller.common;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.*;
+
+/**
+ * FieldSelection - The validated fields= parameter of a read endpoint
+ *
+ * Why?
+ * - Most list consumers only need a couple of fields (storeId, storeName)
+ * - Loading the whole entity and dropping fields in JSON still reads and
+ *   transfers every column
+ *
+ * What it does:
+ * - fields=storeId,storeName becomes SELECT store_id, store_name ... (Criteria tuple query)
+ * - Every row becomes a map with exactly those keys, in the requested order,
+ *   so the JSON only contains what was asked for
+ *
+ * Each endpoint passes its allowed fields as JSON name -> entity attribute path
+ * (e.g. "userId" -> "user.userId", which reads the foreign key column without a join).
+ */
+public final class FieldSelection {
+
+    private final List<String> fields;
+    private final List<String> paths;
+
+    private FieldSelection(List<String> fields, List<String> paths) {
+        this.fields = fields;
+        this.paths = paths;
+    }
+
+    /**
+     * @param raw     comma separated field names, null/blank = no selection
+     * @param allowed JSON field name -> entity attribute path
+     * @return null if no fields were requested (full entity)
+     * @throws IllegalArgumentException unknown field (400)
+     */
+    public static FieldSelection parse(String raw, Map<String, String> allowed) {
+        if (raw == null || raw.isBlank()) {
+            return null;
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : raw.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', allowed: " + new TreeSet<>(allowed.keySet()));
+            }
+            fields.add(name);
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one of " + new TreeSet<>(allowed.keySet()));
+        }
+        List<String> paths = fields.stream().map(allowed::get).toList();
+        return new FieldSelection(List.copyOf(fields), paths);
+    }
+
+    public List<String> fields() {
+        return fields;
+    }
+
+    /**
+     * One page of rows, with the count query only when the page isn't obviously the last one
+     */
+    public <T> Page<Map<String, Object>> findPage(EntityManager entityManager, Class<T> type,
+                                                  Specification<T> spec, Pageable pageable) {
+        List<Map<String, Object>> rows = find(entityManager, type, spec, pageable.getSort(),
+                (int) pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(rows, pageable, () -> count(entityManager, type, spec));
+    }
+
+    /**
+     * Rows matching spec (null = all), limit < 0 = no limit
+     */
+    public <T> List<Map<String, Object>> find(EntityManager entityManager, Class<T> type,
+                                             Specification<T> spec, Sort sort, int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+
+        List<Selection<?>> selections = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            selections.add(path(root, path));
+        }
+        query.multiselect(selections);
+        where(spec, root, query, cb);
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        TypedQuery<Tuple> typed = entityManager.createQuery(query).setFirstResult(offset);
+        if (limit >= 0) {
+            typed.setMaxResults(limit);
+        }
+        List<Tuple> tuples = typed.getResultList();
+
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                row.put(fields.get(i), tuple.get(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Trim an already loaded object (e.g. the current user) to the selected fields
+     *
+     * @param values JSON field name -> value of the full object
+     */
+    public Map<String, Object> trim(Map<String, Object> values) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : fields) {
+            row.put(field, values.get(field));
+        }
+        return row;
+    }
+
+    private static <T> long count(EntityManager entityManager, Class<T> type, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(cb.count(root));
+        where(spec, root, query, cb);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static <T> void where(Specification<T> spec, Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+    }
+
+    private static Path<?> path(Root<?> root, String path) {
+        Path<?> current = root;
+        for (String attribute : path.split("\\.")) {
+            current = current.get(attribute);
+        }
+        return current;
+    }
+}
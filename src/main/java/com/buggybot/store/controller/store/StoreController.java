@@ -1,19 +1,44 @@
 package com.buggybot.store.controller.store;
 
+import com.buggybot.store.config.SecurityConfig;
 import com.buggybot.store.controller.common.ApiResponse;
+import com.buggybot.store.controller.common.FieldSelection;
 import com.buggybot.store.controller.common.PaginatedResponse;
+import com.buggybot.store.controller.store.bulk.StoreImportService;
+import com.buggybot.store.controller.store.bulk.StoreReconcileService;
+import com.buggybot.store.controller.store.coalesce.StorePatchCoalescer;
+import com.buggybot.store.controller.store.dto.StoreCreatedStats;
+import com.buggybot.store.controller.store.dto.StoreCreatedStatsQuery;
 import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.store.dto.StoreImportReport;
+import com.buggybot.store.controller.store.dto.StoreListQuery;
+import com.buggybot.store.controller.store.dto.StoreLocationFacets;
+import com.buggybot.store.controller.store.dto.StoreLookupRequest;
+import com.buggybot.store.controller.store.dto.StoreLookupResponse;
+import com.buggybot.store.controller.store.dto.StoreReconcileReport;
+import com.buggybot.store.controller.store.dto.StoreUpsertBatchResponse;
+import com.buggybot.store.controller.store.dto.StoreUpsertResult;
+import com.buggybot.store.controller.store.repository.StoreFieldsRepository;
+import com.buggybot.store.controller.store.repository.StoreUpsertRepository;
 import com.buggybot.store.controller.store.responseEntity.Store;
 import com.buggybot.store.controller.user.entity.User;
 import com.buggybot.store.controller.user.service.UserService;
+import com.buggybot.store.observability.SamplingFilter;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -33,10 +58,36 @@ public class StoreController {
     private static final Logger logger = LoggerFactory.getLogger(StoreController.class);
     private final StoreServiceImpl storeService;
     private final UserService userService;
+    private final StoreImportService storeImportService;
+    private final StoreReconcileService storeReconcileService;
+    private final StorePatchCoalescer patchCoalescer;
 
-    public StoreController(StoreServiceImpl storeService, UserService userService) {
+    /**
+     * Maximum number of ids in one POST /api/store/lookup
+     */
+    @Value("${store.lookup.max-ids:500}")
+    private int maxLookupIds;
+
+    /**
+     * Maximum number of records in one PUT /api/store/upsert/batch
+     */
+    @Value("${store.upsert.max-batch:1000}")
+    private int maxUpsertBatch;
+
+    /**
+     * Maximum top= of GET /api/store/facets/location
+     */
+    @Value("${store.facets.max-top:100}")
+    private int maxFacetTop;
+
+    public StoreController(StoreServiceImpl storeService, UserService userService,
+                           StoreImportService storeImportService, StoreReconcileService storeReconcileService,
+                           StorePatchCoalescer patchCoalescer) {
         this.storeService = storeService;
         this.userService = userService;
+        this.storeImportService = storeImportService;
+        this.storeReconcileService = storeReconcileService;
+        this.patchCoalescer = patchCoalescer;
     }
 
     /**
@@ -44,11 +95,22 @@ public class StoreController {
      *
      * Authentication parameter is automatically injected by Spring Security
      * when a valid JWT token is in the Authorization header
+     *
+     * Optional sorting / filtering (see StoreListQuery for allowed combinations):
+     * - sort=storeCreatedAt|storeLocation|storeName[,asc|desc] (default storeCreatedAt,desc)
+     * - location=...                      exact match
+     * - createdAfter=/createdBefore=...   ISO-8601 instants
+     * - fields=storeId,storeName          only these fields, selected in SQL (see FieldSelection)
      */
     @GetMapping("/all")
-    public ResponseEntity<ApiResponse<PaginatedResponse<Store>>> getStores(
+    public ResponseEntity<ApiResponse<PaginatedResponse<?>>> getStores(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String createdAfter,
+            @RequestParam(required = false) String createdBefore,
+            @RequestParam(required = false) String fields,
             Authentication authentication) {  // Auto-injected by Spring Security
         try {
             if (page < 1) {
@@ -60,14 +122,31 @@ public class StoreController {
                         .body(new ApiResponse<>(false, "Page size must be >= 1", null));
             }
 
+            // Validate sort/filters before touching the database
+            StoreListQuery listQuery = StoreListQuery.parse(sort, location, createdAfter, createdBefore);
+            FieldSelection selection = FieldSelection.parse(fields, StoreFieldsRepository.FIELDS);
+
             // Get or create user from JWT token (auto-sync from Auth0)
             User user = userService.getOrCreateUser(authentication);
 
             // Get only the authenticated user's stores
-            PaginatedResponse<Store> paginatedStores = storeService.getStoresPaginated(page, size, user);
-            logger.info("Fetching stores for user {} - page: {}, size: {}, total elements: {}",
-                    user.getUserId(), page, size, paginatedStores.totalElements());
+            PaginatedResponse<?> paginatedStores = selection != null
+                    ? storeService.getStoreFieldsPaginated(page, size, user, listQuery, selection)
+                    : storeService.getStoresPaginated(page, size, user, listQuery);
+            logger.atInfo()
+                    .addMarker(SamplingFilter.SAMPLED)
+                    .addKeyValue("userId", user.getUserId())
+                    .addKeyValue("page", page)
+                    .addKeyValue("size", size)
+                    .addKeyValue("totalElements", paginatedStores.totalElements())
+                    .log("Fetched stores");
             return ResponseEntity.ok(new ApiResponse<>(true, null, paginatedStores));
+        } catch (java.time.format.DateTimeParseException dtpe) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "Invalid date format for createdAfter/createdBefore. Use ISO-8601.", null));
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "Invalid list query: " + iae.getMessage(), null));
         } catch (Exception e) {
             logger.error("Error fetching stores", e);
             return ResponseEntity.internalServerError()
@@ -79,23 +158,35 @@ public class StoreController {
      * GET /api/store/{id} - Get a specific store
      *
      * Only allows accessing stores owned by the authenticated user
+     * Optional fields=storeId,storeName (only these fields, selected in SQL)
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Store>> getStore(
+    public ResponseEntity<ApiResponse<?>> getStore(
             @PathVariable UUID id,
+            @RequestParam(required = false) String fields,
             Authentication authentication) {
         try {
+            FieldSelection selection = FieldSelection.parse(fields, StoreFieldsRepository.FIELDS);
             User user = userService.getOrCreateUser(authentication);
 
-            logger.info("Fetching store {} for user {}", id, user.getUserId());
-            Optional<Store> maybe = storeService.getStoreById(id);
+            logger.atInfo()
+                    .addMarker(SamplingFilter.SAMPLED)
+                    .addKeyValue("userId", user.getUserId())
+                    .addKeyValue("storeId", id)
+                    .log("Fetching store");
+            Optional<?> maybe = selection != null
+                    ? storeService.getStoreFieldsById(id, user, selection)
+                    : storeService.getStoreById(id, user);
 
-            // Check if store exists AND belongs to the user
-            if (maybe.isEmpty() || !maybe.get().getUser().getUserId().equals(user.getUserId())) {
+            // Empty if the store doesn't exist or belongs to someone else
+            if (maybe.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(new ApiResponse<>(false, "Store not found or access denied", null));
             }
             return ResponseEntity.ok(new ApiResponse<>(true, null, maybe.get()));
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "Invalid fields: " + iae.getMessage(), null));
         } catch (Exception e) {
             logger.error("Error fetching store with id: {}", id, e);
             return ResponseEntity.internalServerError()
@@ -103,10 +194,211 @@ public class StoreController {
         }
     }
 
+    /**
+     * GET /api/store/facets/location - Number of stores per location
+     *
+     * Returns the top locations (top=10 by default, at most store.facets.max-top)
+     * with their counts, plus the stores in all other locations as "other".
+     * Served from pre-aggregated counts, cheap no matter how many stores the user has.
+     */
+    @GetMapping("/facets/location")
+    public ResponseEntity<ApiResponse<StoreLocationFacets>> getLocationFacets(
+            @RequestParam(defaultValue = "10") int top,
+            Authentication authentication) {
+        try {
+            if (top < 1 || top > maxFacetTop) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ApiResponse<>(false, "top must be between 1 and " + maxFacetTop, null));
+            }
+
+            User user = userService.getOrCreateUser(authentication);
+
+            StoreLocationFacets facets = storeService.getLocationFacets(top, user);
+            logger.atInfo()
+                    .addMarker(SamplingFilter.SAMPLED)
+                    .addKeyValue("userId", user.getUserId())
+                    .addKeyValue("locations", facets.locations().size())
+                    .addKeyValue("total", facets.total())
+                    .log("Fetched location facets");
+            return ResponseEntity.ok(new ApiResponse<>(true, null, facets));
+        } catch (Exception e) {
+            logger.error("Error fetching location facets", e);
+            return ResponseEntity.internalServerError()
+                    .body(new ApiResponse<>(false, "Failed to get location facets", null));
+        }
+    }
+
+    /**
+     * GET /api/store/stats/created - Number of stores created per hour / day / month
+     *
+     * - bucket=hour|day|month (default day, UTC buckets)
+     * - from=/to=...          ISO-8601 instants (default: the last 48 hours / 30 days / 12 months)
+     * - scope=user|global     the caller's stores (default) or all stores - global needs store:admin
+     *
+     * Served from rollup tables kept up to date on every write, never from the stores table.
+     */
+    @GetMapping("/stats/created")
+    public ResponseEntity<ApiResponse<StoreCreatedStats>> getCreatedStats(
+            @RequestParam(required = false) String bucket,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "user") String scope,
+            Authentication authentication) {
+        try {
+            StoreCreatedStatsQuery query = StoreCreatedStatsQuery.parse(bucket, from, to);
+
+            StoreCreatedStats stats;
+            if ("global".equals(scope)) {
+                boolean admin = authentication.getAuthorities().stream()
+                        .anyMatch(authority -> SecurityConfig.ADMIN_AUTHORITY.equals(authority.getAuthority()));
+                if (!admin) {
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                            .body(new ApiResponse<>(false, "scope=global needs the store:admin scope", null));
+                }
+                stats = storeService.getGlobalCreatedStats(query);
+            } else if ("user".equals(scope)) {
+                User user = userService.getOrCreateUser(authentication);
+                stats = storeService.getCreatedStats(query, user);
+            } else {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ApiResponse<>(false, "scope must be user or global", null));
+            }
+
+            logger.atInfo()
+                    .addMarker(SamplingFilter.SAMPLED)
+                    .addKeyValue("bucket", stats.bucket())
+                    .addKeyValue("scope", stats.scope())
+                    .addKeyValue("buckets", stats.buckets().size())
+                    .log("Fetched store creation stats");
+            return ResponseEntity.ok(new ApiResponse<>(true, null, stats));
+        } catch (java.time.format.DateTimeParseException dtpe) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "Invalid date format for from/to. Use ISO-8601.", null));
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "Invalid stats query: " + iae.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error fetching store creation stats", e);
+            return ResponseEntity.internalServerError()
+                    .body(new ApiResponse<>(false, "Failed to get store creation stats", null));
+        }
+    }
+
+    /**
+     * POST /api/store/lookup - Get many stores by id in one request
+     *
+     * Body: { "ids": [...] } (at most store.lookup.max-ids ids)
+     * Returns the user's stores among those ids plus the ids that were not found.
+     * Replaces one GET /api/store/{id} per id with a single query.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<ApiResponse<StoreLookupResponse>> lookupStores(
+            @Valid @RequestBody StoreLookupRequest request,
+            Authentication authentication) {
+        try {
+            if (request.ids().size() > maxLookupIds) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ApiResponse<>(false, "At most " + maxLookupIds + " ids per lookup", null));
+            }
+
+            User user = userService.getOrCreateUser(authentication);
+
+            StoreLookupResponse result = storeService.lookupStores(request.ids(), user);
+            logger.atInfo()
+                    .addMarker(SamplingFilter.SAMPLED)
+                    .addKeyValue("userId", user.getUserId())
+                    .addKeyValue("requested", request.ids().size())
+                    .addKeyValue("found", result.found().size())
+                    .log("Looked up stores");
+            return ResponseEntity.ok(new ApiResponse<>(true, null, result));
+        } catch (Exception e) {
+            logger.error("Error looking up stores", e);
+            return ResponseEntity.internalServerError()
+                    .body(new ApiResponse<>(false, "Failed to look up stores", null));
+        }
+    }
+
+    /**
+     * POST /api/store/import - Bulk import stores from CSV (Content-Type: text/csv)
+     *
+     * Header line: storeName,storeLocation[,storeId][,storeCreatedAt]
+     * The body is streamed, rows are validated like POST /api/store.
+     * Invalid rows (incl. names / locations over 255 characters) are skipped and
+     * listed in the report, the rest is imported in one transaction.
+     * Duplicate storeId or name + location -> 409, any other constraint -> 400
+     * (nothing imported either way).
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<ApiResponse<StoreImportReport>> importStores(
+            InputStream body,
+            Authentication authentication) {
+        try {
+            User user = userService.getOrCreateUser(authentication);
+
+            logger.atInfo().addKeyValue("userId", user.getUserId()).log("Importing stores");
+            StoreImportReport report = storeImportService.importCsv(
+                    new InputStreamReader(body, StandardCharsets.UTF_8), user);
+            return ResponseEntity.ok(new ApiResponse<>(true,
+                    "Imported " + report.imported() + " stores, rejected " + report.rejected(), report));
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "Invalid import: " + iae.getMessage(), null));
+        } catch (DuplicateKeyException dke) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, "Import conflicts with existing stores (duplicate storeId or name and location), nothing imported", null));
+        } catch (DataIntegrityViolationException dive) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "Invalid import: a row violates a store constraint, nothing imported", null));
+        } catch (Exception e) {
+            logger.error("Error importing stores", e);
+            return ResponseEntity.internalServerError()
+                    .body(new ApiResponse<>(false, "Failed to import stores", null));
+        }
+    }
+
+    /**
+     * PUT /api/store/reconcile - Replace all stores of the user with the uploaded set (Content-Type: text/csv)
+     *
+     * Header line: storeName,storeLocation[,storeCreatedAt]
+     * Stores are matched by name + location: missing ones are created, changed
+     * storeCreatedAt values updated, stores not in the set deleted - in one transaction.
+     * Names and locations must match exactly (no trimming).
+     * Any invalid row -> 400 and nothing changes. A header-only body would delete
+     * every store, it is rejected (400) unless confirmEmpty=true.
+     */
+    @PutMapping(value = "/reconcile", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<ApiResponse<StoreReconcileReport>> reconcileStores(
+            InputStream body,
+            @RequestParam(defaultValue = "false") boolean confirmEmpty,
+            Authentication authentication) {
+        try {
+            User user = userService.getOrCreateUser(authentication);
+
+            logger.atInfo().addKeyValue("userId", user.getUserId()).log("Reconciling stores");
+            StoreReconcileReport report = storeReconcileService.reconcile(
+                    new InputStreamReader(body, StandardCharsets.UTF_8), user, confirmEmpty);
+            return ResponseEntity.ok(new ApiResponse<>(true,
+                    "Inserted " + report.inserted() + ", updated " + report.updated()
+                            + ", deleted " + report.deleted() + " stores", report));
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "Invalid store set: " + iae.getMessage(), null));
+        } catch (DataIntegrityViolationException dive) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, "Stores changed concurrently, nothing reconciled - retry", null));
+        } catch (Exception e) {
+            logger.error("Error reconciling stores", e);
+            return ResponseEntity.internalServerError()
+                    .body(new ApiResponse<>(false, "Failed to reconcile stores", null));
+        }
+    }
+
     /**
      * POST /api/store - Create a new store for the authenticated user
      *
      * The store is automatically linked to the user from the JWT token
+     * A client-supplied storeId that already exists, or a store with the same
+     * name and location (unique since V5) -> 409 Conflict
      */
     @PostMapping
     public ResponseEntity<ApiResponse<Store>> createNewStore(
@@ -116,10 +408,18 @@ public class StoreController {
             // Get or create user from JWT token
             User user = userService.getOrCreateUser(authentication);
 
-            logger.info("Creating new store for user {}: {}", user.getUserId(), storeData);
+            // Only ids go into the log - the payload itself can be large and user-provided
+            logger.atInfo()
+                    .addMarker(SamplingFilter.SAMPLED)
+                    .addKeyValue("userId", user.getUserId())
+                    .addKeyValue("clientStoreId", storeData.storeId())
+                    .log("Creating store");
             Store created = storeService.createStore(storeData, user);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(new ApiResponse<>(true, "Store Created Successfully", created));
+        } catch (DataIntegrityViolationException dive) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, "A store with this storeId or name and location already exists", null));
         } catch (Exception e) {
             logger.error("Error creating store", e);
             return ResponseEntity.internalServerError()
@@ -132,6 +432,7 @@ public class StoreController {
      *
      * Only allows updating stores owned by the authenticated user
      * Returns 404 if store doesn't exist OR doesn't belong to user
+     * Another store of the user with the same name and location -> 409 Conflict
      */
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<Store>> replaceStore(
@@ -141,13 +442,20 @@ public class StoreController {
         try {
             User user = userService.getOrCreateUser(authentication);
 
-            logger.info("Replacing store {} for user {}", id, user.getUserId());
+            logger.atInfo()
+                    .addMarker(SamplingFilter.SAMPLED)
+                    .addKeyValue("userId", user.getUserId())
+                    .addKeyValue("storeId", id)
+                    .log("Replacing store");
             Optional<Store> replaced = storeService.replaceStore(id, storeData, user);
             if (replaced.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(new ApiResponse<>(false, "Store not found or access denied", null));
             }
             return ResponseEntity.ok(new ApiResponse<>(true, "Store replaced successfully", replaced.get()));
+        } catch (DataIntegrityViolationException dive) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, "A store with this name and location already exists", null));
         } catch (Exception e) {
             logger.error("Error replacing store with id: {}", id, e);
             return ResponseEntity.internalServerError()
@@ -155,10 +463,96 @@ public class StoreController {
         }
     }
 
+    /**
+     * PUT /api/store/upsert - Create or update a store by name + location
+     *
+     * Converges in one statement, no GET + diff + POST/PUT round trips:
+     * - no store with this storeName/storeLocation yet -> inserted, 201 Created
+     * - one exists -> its storeCreatedAt is updated (if given), 200 OK, it keeps its storeId
+     * A storeId in the body must be that store's id, and must not belong to another store -> else 409 Conflict
+     */
+    @PutMapping("/upsert")
+    public ResponseEntity<ApiResponse<StoreUpsertResult>> upsertStore(
+            @Valid @RequestBody StoreDTO storeData,
+            Authentication authentication) {
+        try {
+            User user = userService.getOrCreateUser(authentication);
+            StoreUpsertResult result = storeService.upsertStores(List.of(storeData), user).stores().get(0);
+            return ResponseEntity.status(result.created() ? HttpStatus.CREATED : HttpStatus.OK)
+                    .body(new ApiResponse<>(true, result.created() ? "Store created" : "Store updated", result));
+        } catch (StoreUpsertRepository.StoreIdMismatchException mismatch) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, mismatch.getMessage(), null));
+        } catch (DataIntegrityViolationException dive) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, "This storeId belongs to another store", null));
+        } catch (Exception e) {
+            logger.error("Error upserting store", e);
+            return ResponseEntity.internalServerError()
+                    .body(new ApiResponse<>(false, "Failed to upsert store", null));
+        }
+    }
+
+    /**
+     * PUT /api/store/upsert/batch - PUT /api/store/upsert for many records at once
+     *
+     * Body: [ {storeName, storeLocation, [storeId], [storeCreatedAt]}, ... ]
+     * (at most store.upsert.max-batch records). One statement for the whole batch,
+     * all or nothing. Returns created/updated counts and every resulting store.
+     */
+    @PutMapping("/upsert/batch")
+    public ResponseEntity<ApiResponse<StoreUpsertBatchResponse>> upsertStores(
+            @RequestBody List<StoreDTO> records,
+            Authentication authentication) {
+        try {
+            if (records == null || records.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ApiResponse<>(false, "At least one store is required", null));
+            }
+            if (records.size() > maxUpsertBatch) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ApiResponse<>(false, "At most " + maxUpsertBatch + " stores per batch", null));
+            }
+            for (int i = 0; i < records.size(); i++) {
+                StoreDTO record = records.get(i);
+                if (record == null || isBlank(record.storeName()) || isBlank(record.storeLocation())) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(new ApiResponse<>(false, "Store " + i + ": storeName and storeLocation are required", null));
+                }
+            }
+
+            User user = userService.getOrCreateUser(authentication);
+            logger.atInfo()
+                    .addKeyValue("userId", user.getUserId())
+                    .addKeyValue("records", records.size())
+                    .log("Upserting stores");
+            return ResponseEntity.ok(new ApiResponse<>(true, null, storeService.upsertStores(records, user)));
+        } catch (StoreUpsertRepository.StoreIdMismatchException mismatch) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, mismatch.getMessage() + ", nothing was written", null));
+        } catch (DataIntegrityViolationException dive) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, "A storeId in the batch belongs to another store, nothing was written", null));
+        } catch (Exception e) {
+            logger.error("Error upserting stores", e);
+            return ResponseEntity.internalServerError()
+                    .body(new ApiResponse<>(false, "Failed to upsert stores", null));
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
     /**
      * PATCH /api/store/{id} - Partially update a store
      *
      * Only allows updating stores owned by the authenticated user
+     * Changing storeId to an id that already exists, or name/location to those
+     * of another store of the user -> 409 Conflict
+     *
+     * With store.patch-coalescing.enabled=true, PATCHes to the same store arriving
+     * within a few milliseconds are merged into one UPDATE (StorePatchCoalescer)
      */
     @PatchMapping("/{id}")
     public ResponseEntity<ApiResponse<Store>> patchStore(
@@ -168,8 +562,14 @@ public class StoreController {
         try {
             User user = userService.getOrCreateUser(authentication);
 
-            logger.info("Patching store {} for user {} with updates: {}", id, user.getUserId(), updates);
-            Optional<Store> updated = storeService.patchStore(id, updates, user);
+            // Log which fields are patched, not their values
+            logger.atInfo()
+                    .addMarker(SamplingFilter.SAMPLED)
+                    .addKeyValue("userId", user.getUserId())
+                    .addKeyValue("storeId", id)
+                    .addKeyValue("fields", updates.keySet())
+                    .log("Patching store");
+            Optional<Store> updated = patchCoalescer.patch(id, updates, user);
             if (updated.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(new ApiResponse<>(false, "Store not found or access denied", null));
@@ -183,6 +583,9 @@ public class StoreController {
             logger.warn("Invalid value in patch for id: {}", id, iae);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ApiResponse<>(false, "Invalid value in payload: " + iae.getMessage(), null));
+        } catch (DataIntegrityViolationException dive) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, "A store with this storeId or name and location already exists", null));
         } catch (Exception e) {
             logger.error("Error patching store with id: {}", id, e);
             return ResponseEntity.internalServerError()
@@ -202,7 +605,11 @@ public class StoreController {
         try {
             User user = userService.getOrCreateUser(authentication);
 
-            logger.info("Deleting store {} for user {}", id, user.getUserId());
+            logger.atInfo()
+                    .addMarker(SamplingFilter.SAMPLED)
+                    .addKeyValue("userId", user.getUserId())
+                    .addKeyValue("storeId", id)
+                    .log("Deleting store");
             boolean removed = storeService.deleteStore(id, user);
             if (!removed) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
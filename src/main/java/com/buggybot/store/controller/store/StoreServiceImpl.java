@@ -1,10 +1,26 @@
 package com.buggybot.store.controller.store;
 
+import com.buggybot.store.controller.common.FieldSelection;
 import com.buggybot.store.controller.common.PaginatedResponse;
+import com.buggybot.store.controller.store.cache.StorePageCache;
+import com.buggybot.store.controller.store.dto.StoreCreatedStats;
+import com.buggybot.store.controller.store.dto.StoreCreatedStatsQuery;
 import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.store.dto.StoreListQuery;
+import com.buggybot.store.controller.store.dto.StoreLocationFacets;
+import com.buggybot.store.controller.store.dto.StoreLookupResponse;
+import com.buggybot.store.controller.store.dto.StoreUpsertBatchResponse;
+import com.buggybot.store.controller.store.dto.StoreUpsertResult;
+import com.buggybot.store.controller.store.repository.StoreLocationCountRepository;
 import com.buggybot.store.controller.store.repository.StoreRepository;
+import com.buggybot.store.controller.store.repository.StoreSpecifications;
+import com.buggybot.store.controller.store.repository.StoreUpsertRepository;
 import com.buggybot.store.controller.store.responseEntity.Store;
+import com.buggybot.store.controller.store.stats.StoreCreatedStatsRepository;
 import com.buggybot.store.controller.user.entity.User;
+import com.buggybot.store.invalidation.Invalidation;
+import com.buggybot.store.invalidation.InvalidationBus;
+import com.buggybot.store.sharding.ShardRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -21,19 +37,42 @@ import java.util.*;
  * Now includes user ownership:
  * - Stores are linked to users
  * - Users can only access their own stores
+ *
+ * Sharding: every operation runs on the owning user's shard (ShardRouter),
+ * with sharding disabled that is just the one database.
+ *
+ * Writes run in a transaction and publish an Invalidation in it (InvalidationBus),
+ * so every instance evicts its cached pages once the write commits.
  */
 @Service
 public class StoreServiceImpl {
 
     private static final Logger logger = LoggerFactory.getLogger(StoreServiceImpl.class);
     private final StoreRepository storeRepository;
+    private final StorePageCache pageCache;
+    private final ShardRouter shardRouter;
+    private final InvalidationBus invalidationBus;
+    private final StoreUpsertRepository upsertRepository;
+    private final StoreLocationCountRepository locationCountRepository;
+    private final StoreCreatedStatsRepository createdStatsRepository;
 
-    public StoreServiceImpl(StoreRepository storeRepository) {
+    public StoreServiceImpl(StoreRepository storeRepository, StorePageCache pageCache, ShardRouter shardRouter,
+                            InvalidationBus invalidationBus, StoreUpsertRepository upsertRepository,
+                            StoreLocationCountRepository locationCountRepository,
+                            StoreCreatedStatsRepository createdStatsRepository) {
         this.storeRepository = storeRepository;
+        this.upsertRepository = upsertRepository;
+        this.locationCountRepository = locationCountRepository;
+        this.createdStatsRepository = createdStatsRepository;
+        this.pageCache = pageCache;
+        this.shardRouter = shardRouter;
+        this.invalidationBus = invalidationBus;
     }
 
     public List<Store> getAllStores() {
-        return storeRepository.findAll();
+        List<Store> stores = new ArrayList<>();
+        shardRouter.onEveryShard(storeRepository::findAll).forEach(stores::addAll);
+        return stores;
     }
 
     /**
@@ -41,12 +80,31 @@ public class StoreServiceImpl {
      * Users can only see their own stores
      */
     public PaginatedResponse<Store> getStoresPaginated(int page, int size, User user) {
+        return getStoresPaginated(page, size, user, StoreListQuery.defaults());
+    }
+
+    /**
+     * Get paginated stores for a specific user, sorted and filtered
+     * The query was validated by StoreListQuery.parse, so it always maps to an index
+     *
+     * The first page(s) come from StorePageCache, writes below invalidate it
+     */
+    public PaginatedResponse<Store> getStoresPaginated(int page, int size, User user, StoreListQuery listQuery) {
+        if (pageCache.isCacheable(page)) {
+            return pageCache.get(user.getUserId(), page, size, listQuery,
+                () -> shardRouter.read(user, () -> loadStoresPage(page, size, user, listQuery)));
+        }
+        return shardRouter.read(user, () -> loadStoresPage(page, size, user, listQuery));
+    }
+
+    private PaginatedResponse<Store> loadStoresPage(int page, int size, User user, StoreListQuery listQuery) {
         // Convert 1-based page to 0-based for Spring Data
         int zeroBasedPage = page - 1;
-        Pageable pageable = PageRequest.of(zeroBasedPage, size);
-        Page<Store> storePage = storeRepository.findByUser(user, pageable);
+        Pageable pageable = PageRequest.of(zeroBasedPage, size, listQuery.toSort());
+        Page<Store> storePage = storeRepository.findAll(StoreSpecifications.forQuery(user, listQuery), pageable);
 
-        logger.info("Fetched {} stores for user {}", storePage.getTotalElements(), user.getUserId());
+        // The controller already logs the page at INFO, keep this one for debugging only
+        logger.debug("Fetched {} stores for user {}", storePage.getTotalElements(), user.getUserId());
 
         // Return response with 1-based page number
         return new PaginatedResponse<>(
@@ -60,14 +118,119 @@ public class StoreServiceImpl {
         );
     }
 
-    public Optional<Store> getStoreById(UUID id) {
+    /**
+     * Like getStoresPaginated, but only the selected columns (fields=)
+     * Not cached - the page cache holds full stores only
+     */
+    public PaginatedResponse<Map<String, Object>> getStoreFieldsPaginated(int page, int size, User user,
+                                                                        StoreListQuery listQuery,
+                                                                        FieldSelection fields) {
+        Pageable pageable = PageRequest.of(page - 1, size, listQuery.toSort());
+        Page<Map<String, Object>> rows = shardRouter.read(user,
+            () -> storeRepository.findFields(StoreSpecifications.forQuery(user, listQuery), fields, pageable));
+        return new PaginatedResponse<>(
+                rows.getContent(),
+                page,
+                rows.getSize(),
+                rows.getTotalElements(),
+                rows.getTotalPages(),
+                rows.isFirst(),
+                rows.isLast()
+        );
+    }
+
+    /**
+     * Like getStoreById, but only the selected columns (fields=)
+     * The ownership check is part of the WHERE clause
+     */
+    public Optional<Map<String, Object>> getStoreFieldsById(UUID id, User user, FieldSelection fields) {
+        if (id == null) return Optional.empty();
+        return shardRouter.read(user, () -> storeRepository.findOneFields(
+            StoreSpecifications.ownedBy(user).and(StoreSpecifications.withId(id)), fields));
+    }
+
+    /**
+     * Get a store of a user
+     * Empty if the store doesn't exist or belongs to someone else
+     */
+    public Optional<Store> getStoreById(UUID id, User user) {
         if (id == null) return Optional.empty();
-        return storeRepository.findById(id);
+        return shardRouter.read(user, () -> storeRepository.findById(id))
+            .filter(store -> store.getUser().getUserId().equals(user.getUserId())); // Check ownership
+    }
+
+    /**
+     * Store counts per location of a user, the top locations plus the rest as "other"
+     * Read from store_location_counts, which the database keeps in step with every write
+     */
+    public StoreLocationFacets getLocationFacets(int top, User user) {
+        return shardRouter.read(user, () -> locationCountRepository.findTop(user.getUserId(), top));
+    }
+
+    /**
+     * Stores a user created per hour / day / month, read from the rollup tables
+     */
+    public StoreCreatedStats getCreatedStats(StoreCreatedStatsQuery query, User user) {
+        List<StoreCreatedStats.BucketCount> buckets =
+                shardRouter.read(user, () -> createdStatsRepository.findForUser(user.getUserId(), query));
+        return toCreatedStats(query, "user", buckets);
+    }
+
+    /**
+     * Stores created by all users per hour / day / month
+     * Sharded: every shard sums its own users, the buckets are merged here
+     */
+    public StoreCreatedStats getGlobalCreatedStats(StoreCreatedStatsQuery query) {
+        Map<Instant, Long> merged = new TreeMap<>();
+        shardRouter.onEveryShard(() -> createdStatsRepository.findGlobal(query))
+                .forEach(shard -> shard.forEach(bucket -> merged.merge(bucket.start(), bucket.count(), Long::sum)));
+
+        List<StoreCreatedStats.BucketCount> buckets = new ArrayList<>(merged.size());
+        merged.forEach((start, count) -> buckets.add(new StoreCreatedStats.BucketCount(start, count)));
+        return toCreatedStats(query, "global", buckets);
+    }
+
+    private static StoreCreatedStats toCreatedStats(StoreCreatedStatsQuery query, String scope,
+                                                    List<StoreCreatedStats.BucketCount> buckets) {
+        long total = buckets.stream().mapToLong(StoreCreatedStats.BucketCount::count).sum();
+        return new StoreCreatedStats(query.bucket().unit(), scope, query.from(), query.to(), buckets, total);
+    }
+
+    /**
+     * Get many stores of a user at once
+     * One query for all ids instead of one findById (+ owner check) per id
+     */
+    public StoreLookupResponse lookupStores(Collection<UUID> ids, User user) {
+        Set<UUID> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.isEmpty()) {
+            return new StoreLookupResponse(List.of(), List.of());
+        }
+
+        Map<UUID, Store> byId = new HashMap<>();
+        for (Store store : shardRouter.read(user, () -> storeRepository.findByUserAndStoreIdIn(user, requested))) {
+            byId.put(store.getStoreId(), store);
+        }
+
+        List<Store> found = new ArrayList<>(byId.size());
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : requested) {
+            Store store = byId.get(id);
+            if (store != null) {
+                found.add(store);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new StoreLookupResponse(found, missing);
     }
 
     /**
      * Create a new store for a user
      * The store is automatically linked to the authenticated user
+     *
+     * Always exactly one INSERT (Store is Persistable and new).
+     * A storeId that already exists throws DataIntegrityViolationException (409).
      */
     public Store createStore(StoreDTO dto, User user) {
         Store newStore = new Store();
@@ -75,22 +238,56 @@ public class StoreServiceImpl {
         newStore.setStoreLocation(dto.storeLocation());
         newStore.setUser(user);  // Link store to user
 
-        // Only set ID if provided, otherwise let JPA generate it
-        if (dto.storeId() != null) {
-            newStore.setStoreId(dto.storeId());
-        }
+        // Client-supplied id or a new random one
+        newStore.setStoreId(dto.storeId() != null ? dto.storeId() : UUID.randomUUID());
 
         // Only set createdAt if provided, otherwise let @CreationTimestamp handle it
         if (dto.storeCreatedAt() != null) {
             newStore.setStoreCreatedAt(dto.storeCreatedAt());
         }
 
-        Store savedStore = storeRepository.save(newStore);
-        logger.info("Created store {} for user {} (total={})",
-            savedStore.getStoreId(), user.getUserId(), storeRepository.count());
+        Store savedStore = shardRouter.inTransaction(user, status -> {
+            Store saved = storeRepository.save(newStore);
+            invalidationBus.publish(Invalidation.store(saved.getStoreId(), user.getUserId()));
+            return saved;
+        });
+        logger.atInfo()
+            .addKeyValue("userId", user.getUserId())
+            .addKeyValue("storeId", savedStore.getStoreId())
+            .log("Created store");
         return savedStore;
     }
 
+    /**
+     * Insert or update stores by (storeName, storeLocation), one statement, no read first
+     *
+     * Records with the same name and location are merged before the statement
+     * (the last one wins), a statement can't update the same row twice.
+     * A storeId that belongs to a store with another name/location
+     * throws DataIntegrityViolationException (409).
+     */
+    public StoreUpsertBatchResponse upsertStores(List<StoreDTO> records, User user) {
+        Map<List<String>, StoreDTO> byNaturalKey = new LinkedHashMap<>();
+        for (StoreDTO record : records) {
+            byNaturalKey.put(List.of(record.storeName(), record.storeLocation()), record);
+        }
+        List<StoreDTO> unique = new ArrayList<>(byNaturalKey.values());
+
+        List<StoreUpsertResult> results = shardRouter.inTransaction(user, status -> {
+            List<StoreUpsertResult> upserted = upsertRepository.upsert(user.getUserId(), unique);
+            invalidationBus.publish(Invalidation.allStoresOf(user.getUserId()));
+            return upserted;
+        });
+
+        int created = (int) results.stream().filter(StoreUpsertResult::created).count();
+        logger.atInfo()
+            .addKeyValue("userId", user.getUserId())
+            .addKeyValue("created", created)
+            .addKeyValue("updated", results.size() - created)
+            .log("Upserted stores");
+        return new StoreUpsertBatchResponse(created, results.size() - created, results);
+    }
+
     /**
      * Replace a store (full update)
      * Includes ownership check - users can only update their own stores
@@ -98,7 +295,7 @@ public class StoreServiceImpl {
     public Optional<Store> replaceStore(UUID id, StoreDTO dto, User user) {
         if (id == null) return Optional.empty();
 
-        return storeRepository.findById(id)
+        return shardRouter.inTransaction(user, status -> storeRepository.findById(id)
             .filter(store -> store.getUser().getUserId().equals(user.getUserId())) // Check ownership
             .map(existingStore -> {
                 existingStore.setStoreName(dto.storeName());
@@ -110,9 +307,13 @@ public class StoreServiceImpl {
                 }
 
                 Store updatedStore = storeRepository.save(existingStore);
-                logger.info("Replaced store {} for user {}", id, user.getUserId());
+                invalidationBus.publish(Invalidation.store(id, user.getUserId()));
+                logger.atInfo()
+                    .addKeyValue("userId", user.getUserId())
+                    .addKeyValue("storeId", id)
+                    .log("Replaced store");
                 return updatedStore;
-            });
+            }));
     }
 
     /**
@@ -122,7 +323,7 @@ public class StoreServiceImpl {
     public Optional<Store> patchStore(UUID id, Map<String, Object> updates, User user) {
         if (id == null) return Optional.empty();
 
-        return storeRepository.findById(id)
+        return shardRouter.inTransaction(user, status -> storeRepository.findById(id)
             .filter(store -> store.getUser().getUserId().equals(user.getUserId())) // Check ownership
             .map(existingStore -> {
                 // Update storeName if provided
@@ -141,20 +342,37 @@ public class StoreServiceImpl {
                     existingStore.setStoreCreatedAt(Instant.parse(raw)); // may throw DateTimeParseException
                 }
 
+                Store updatedStore;
+
                 // Handle ID change if requested
-                if (updates.containsKey("storeId") && updates.get("storeId") != null) {
-                    UUID newId = UUID.fromString(String.valueOf(updates.get("storeId")));
-                    if (!Objects.equals(id, newId)) {
-                        // Delete old entity and create new one with new ID
-                        storeRepository.deleteById(id);
-                        existingStore.setStoreId(newId);
-                    }
+                UUID newId = updates.containsKey("storeId") && updates.get("storeId") != null
+                    ? UUID.fromString(String.valueOf(updates.get("storeId")))
+                    : id;
+                if (!Objects.equals(id, newId)) {
+                    // A new id is a new row: delete the old one and INSERT the new one,
+                    // in this transaction (newId already taken -> 409, nothing changed)
+                    Store moved = copyWithId(existingStore, newId);
+                    storeRepository.deleteById(id);
+                    storeRepository.flush();
+                    updatedStore = storeRepository.save(moved);
+                    invalidationBus.publish(Invalidation.store(newId, user.getUserId()));
+                } else {
+                    updatedStore = storeRepository.save(existingStore);
                 }
-
-                Store updatedStore = storeRepository.save(existingStore);
-                logger.info("Patched store {} for user {}", id, user.getUserId());
+                invalidationBus.publish(Invalidation.store(id, user.getUserId()));
+                logger.atInfo()
+                    .addKeyValue("userId", user.getUserId())
+                    .addKeyValue("storeId", id)
+                    .log("Patched store");
                 return updatedStore;
-            });
+            }));
+    }
+
+    private static Store copyWithId(Store store, UUID newId) {
+        Store copy = new Store(store.getStoreName(), store.getStoreLocation(), store.getUser());
+        copy.setStoreId(newId);
+        copy.setStoreCreatedAt(store.getStoreCreatedAt());
+        return copy;
     }
 
     /**
@@ -164,16 +382,22 @@ public class StoreServiceImpl {
     public boolean deleteStore(UUID id, User user) {
         if (id == null) return false;
 
-        Optional<Store> store = storeRepository.findById(id);
+        return shardRouter.inTransaction(user, status -> {
+            Optional<Store> store = storeRepository.findById(id);
 
-        // Check if store exists AND belongs to the user
-        if (store.isPresent() && store.get().getUser().getUserId().equals(user.getUserId())) {
-            storeRepository.deleteById(id);
-            logger.info("Deleted store {} for user {}", id, user.getUserId());
-            return true;
-        }
+            // Check if store exists AND belongs to the user
+            if (store.isPresent() && store.get().getUser().getUserId().equals(user.getUserId())) {
+                storeRepository.deleteById(id);
+                invalidationBus.publish(Invalidation.store(id, user.getUserId()));
+                logger.atInfo()
+                    .addKeyValue("userId", user.getUserId())
+                    .addKeyValue("storeId", id)
+                    .log("Deleted store");
+                return true;
+            }
 
-        return false; // Store not found or doesn't belong to user
+            return false; // Store not found or doesn't belong to user
+        });
     }
 
     /**
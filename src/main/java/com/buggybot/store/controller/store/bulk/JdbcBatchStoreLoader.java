@@ -0,0 +1,52 @@
+package com.buggybot.store.controller.store.bulk;
+
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JdbcBatchStoreLoader - Bulk insert with a JDBC batch (fallback)
+ *
+ * Works on any database (H2 and friends in tests), one INSERT sent as a batch
+ * per chunk. Used when PostgresCopyStoreLoader doesn't support the connection.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class JdbcBatchStoreLoader implements StoreBulkLoader {
+
+    static final String INSERT_SQL = "INSERT INTO stores (store_id, store_name, store_location, store_created_at, user_id) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    @Override
+    public boolean supports(Connection connection) {
+        return true;
+    }
+
+    @Override
+    public long load(Connection connection, UUID userId, List<StoreDTO> rows) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+            for (StoreDTO row : rows) {
+                insert.setObject(1, row.storeId());
+                insert.setString(2, row.storeName());
+                insert.setString(3, row.storeLocation());
+                insert.setTimestamp(4, Timestamp.from(row.storeCreatedAt()));
+                insert.setObject(5, userId);
+                insert.addBatch();
+            }
+            long inserted = 0;
+            for (int count : insert.executeBatch()) {
+                // SUCCESS_NO_INFO (-2): the driver doesn't report counts, the row was still written
+                inserted += count == PreparedStatement.SUCCESS_NO_INFO ? 1 : count;
+            }
+            return inserted;
+        }
+    }
+}
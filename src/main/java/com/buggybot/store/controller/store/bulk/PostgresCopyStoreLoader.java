@@ -0,0 +1,73 @@
+package com.buggybot.store.controller.store.bulk;
+
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * PostgresCopyStoreLoader - Bulk insert with the PostgreSQL COPY protocol
+ *
+ * Why COPY?
+ * - One statement streams all rows, no per-row parse/bind/execute round trip
+ * - Roughly an order of magnitude faster than batched INSERTs for big imports
+ *
+ * Rows are written to the server as CSV while they are encoded, nothing but
+ * the current chunk is held in memory.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PostgresCopyStoreLoader implements StoreBulkLoader {
+
+    static final String COPY_SQL = "COPY stores (store_id, store_name, store_location, store_created_at, user_id) "
+            + "FROM STDIN WITH (FORMAT csv)";
+
+    @Override
+    public boolean supports(Connection connection) throws SQLException {
+        return connection.isWrapperFor(PGConnection.class);
+    }
+
+    @Override
+    public long load(Connection connection, UUID userId, List<StoreDTO> rows) throws SQLException {
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try {
+            StringBuilder line = new StringBuilder(128);
+            for (StoreDTO row : rows) {
+                line.setLength(0);
+                line.append(row.storeId()).append(',');
+                appendQuoted(line, row.storeName()).append(',');
+                appendQuoted(line, row.storeLocation()).append(',');
+                line.append(row.storeCreatedAt()).append(',');
+                line.append(userId).append('\n');
+                byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+                copy.writeToCopy(bytes, 0, bytes.length);
+            }
+            return copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * CSV quoting: wrap in quotes, double any quote inside
+     */
+    private static StringBuilder appendQuoted(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        return line.append('"');
+    }
+}
@@ -0,0 +1,34 @@
+package com.buggybot.store.controller.store.bulk;
+
+import com.buggybot.store.controller.store.dto.StoreDTO;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * StoreBulkLoader - Writes a chunk of already validated stores in one go
+ *
+ * Implementations:
+ * - PostgresCopyStoreLoader: COPY ... FROM STDIN (PostgreSQL, fastest)
+ * - JdbcBatchStoreLoader:    JDBC batch INSERT (any database, fallback)
+ *
+ * StoreImportService asks each loader (in @Order) whether it supports the
+ * connection and uses the first that does.
+ */
+public interface StoreBulkLoader {
+
+    /**
+     * @return true if this loader can write through the given connection
+     */
+    boolean supports(Connection connection) throws SQLException;
+
+    /**
+     * Insert the rows for a user. storeId and storeCreatedAt are already filled in.
+     * Runs inside the import transaction - don't commit or close the connection.
+     *
+     * @return number of rows inserted
+     */
+    long load(Connection connection, UUID userId, List<StoreDTO> rows) throws SQLException;
+}
@@ -0,0 +1,127 @@
+package com.buggybot.store.controller.store.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * StoreCsvReader - Minimal streaming CSV parser (RFC 4180)
+ *
+ * - Comma separated, "quoted" fields may contain commas, quotes ("") and line breaks
+ * - \n and \r\n line endings
+ * - Reads one record at a time, so memory stays flat however big the upload is
+ *
+ * A record longer than MAX_RECORD_CHARS (e.g. a quote that never closes)
+ * fails the whole import instead of buffering the rest of the stream.
+ *
+ * readHeader() is shared by the import and the reconcile so both accept the
+ * same header lines (UTF-8 BOM, surrounding spaces, any column order).
+ */
+class StoreCsvReader {
+
+    static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    private final Reader reader;
+    private long line = 1;
+    private long recordLine;
+
+    StoreCsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return 1-based line number where the last returned record started
+     */
+    long recordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Read the header line: column name -> index
+     *
+     * @param allowed  the column names the caller understands
+     * @param required the columns that must be present
+     * @throws IllegalArgumentException no header, unknown, duplicate or missing column
+     */
+    Map<String, Integer> readHeader(Set<String> allowed, String... required) throws IOException {
+        List<String> header = next();
+        if (header == null) {
+            throw new IllegalArgumentException("Empty upload, expected a header line");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).strip();
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1); // UTF-8 BOM written by spreadsheet exports
+            }
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown column '" + name + "', allowed: " + new TreeSet<>(allowed));
+            }
+            if (columns.put(name, i) != null) {
+                throw new IllegalArgumentException("Duplicate column '" + name + "'");
+            }
+        }
+        for (String column : required) {
+            if (!columns.containsKey(column)) {
+                throw new IllegalArgumentException("Header must contain " + String.join(" and ", required));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * @return the fields of the next record, null at the end of the stream
+     */
+    List<String> next() throws IOException {
+        int c = reader.read();
+        if (c == -1) return null;
+
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int chars = 0;
+
+        while (true) {
+            if (++chars > MAX_RECORD_CHARS) {
+                throw new IllegalArgumentException("Line " + recordLine + ": record longer than "
+                        + MAX_RECORD_CHARS + " characters (unterminated quote?)");
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Line " + recordLine + ": unterminated quoted field");
+                }
+                if (c == '"') {
+                    int peek = reader.read();
+                    if (peek != '"') {
+                        // Closing quote, look at the following character unquoted
+                        quoted = false;
+                        c = peek;
+                        continue;
+                    }
+                    field.append('"');
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+            } else if (c == -1 || c == '\n') {
+                fields.add(field.toString());
+                if (c == '\n') line++;
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+}
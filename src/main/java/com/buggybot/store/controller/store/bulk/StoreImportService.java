@@ -0,0 +1,240 @@
+package com.buggybot.store.controller.store.bulk;
+
+import com.buggybot.store.controller.store.cache.StorePageCache;
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.store.dto.StoreImportReport;
+import com.buggybot.store.controller.user.entity.User;
+import com.buggybot.store.observability.jfr.JfrJdbcCalls;
+import com.buggybot.store.sharding.ShardRouter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * StoreImportService - Bulk import of stores from CSV
+ *
+ * How it works:
+ * 1. The header line names the columns: storeName, storeLocation (required),
+ *    storeId, storeCreatedAt (optional, generated when empty)
+ * 2. Each row is parsed and validated against the StoreDTO constraints and the
+ *    column length (MAX_LENGTH) as it is read
+ * 3. Valid rows are collected into chunks of store.import.chunk-size and handed
+ *    to a StoreBulkLoader (COPY on PostgreSQL, JDBC batch otherwise)
+ * 4. Invalid rows are skipped and listed in the report
+ *
+ * All chunks are written in ONE transaction on the user's shard: either every
+ * valid row is imported or none (e.g. a storeId that already exists -> DuplicateKeyException).
+ * Rows that would fail a column constraint are rejected up front instead.
+ * Memory use is one chunk plus the reported rejects, whatever the upload size.
+ */
+@Service
+public class StoreImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreImportService.class);
+
+    static final String STORE_ID = "storeId";
+    static final String STORE_NAME = "storeName";
+    static final String STORE_LOCATION = "storeLocation";
+    static final String STORE_CREATED_AT = "storeCreatedAt";
+    static final Set<String> COLUMNS = Set.of(STORE_ID, STORE_NAME, STORE_LOCATION, STORE_CREATED_AT);
+
+    // Same limit as the stores columns
+    static final int MAX_LENGTH = 255;
+
+    private static final SQLExceptionTranslator SQL_EXCEPTION_TRANSLATOR = new SQLStateSQLExceptionTranslator();
+
+    private final DataSource dataSource;
+    private final List<StoreBulkLoader> loaders;
+    private final Validator validator;
+    private final ShardRouter shardRouter;
+    private final StorePageCache pageCache;
+
+    @Value("${store.import.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${store.import.max-rows:1000000}")
+    private long maxRows;
+
+    @Value("${store.import.max-reported-rejects:1000}")
+    private int maxReportedRejects;
+
+    public StoreImportService(DataSource dataSource, List<StoreBulkLoader> loaders, Validator validator,
+                              ShardRouter shardRouter, StorePageCache pageCache) {
+        this.dataSource = dataSource;
+        this.loaders = loaders;
+        this.validator = validator;
+        this.shardRouter = shardRouter;
+        this.pageCache = pageCache;
+    }
+
+    /**
+     * Import the CSV for a user
+     *
+     * @throws IllegalArgumentException bad header, too many rows or a malformed record (nothing imported)
+     * @throws org.springframework.dao.DuplicateKeyException storeId or name + location already taken (nothing imported)
+     * @throws org.springframework.dao.DataIntegrityViolationException any other constraint (nothing imported)
+     */
+    public StoreImportReport importCsv(Reader input, User user) throws IOException {
+        StoreCsvReader csv = new StoreCsvReader(input);
+        Map<String, Integer> columns = csv.readHeader(COLUMNS, STORE_NAME, STORE_LOCATION);
+
+        StoreImportReport report;
+        try {
+            report = shardRouter.inTransaction(user, status -> {
+                pageCache.invalidateUser(user.getUserId());  // sent with the commit
+                return load(csv, columns, user);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        logger.atInfo()
+            .addKeyValue("userId", user.getUserId())
+            .addKeyValue("imported", report.imported())
+            .addKeyValue("rejected", report.rejected())
+            .log("Imported stores");
+        return report;
+    }
+
+    /**
+     * Runs inside the import transaction
+     */
+    private StoreImportReport load(StoreCsvReader csv, Map<String, Integer> columns, User user) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            StoreBulkLoader loader = pickLoader(connection);
+            List<StoreDTO> chunk = new ArrayList<>(chunkSize);
+            List<StoreImportReport.RejectedLine> rejectedLines = new ArrayList<>();
+            long rows = 0;
+            long imported = 0;
+            long rejected = 0;
+
+            for (List<String> record = csv.next(); record != null; record = csv.next()) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue; // empty line
+                }
+                if (++rows > maxRows) {
+                    throw new IllegalArgumentException("More than " + maxRows + " rows, split the import");
+                }
+
+                String problem = null;
+                StoreDTO row = null;
+                try {
+                    row = toStore(record, columns, user);
+                    problem = violations(row);
+                } catch (IllegalArgumentException e) {
+                    problem = e.getMessage();
+                }
+
+                if (problem != null) {
+                    rejected++;
+                    if (rejectedLines.size() < maxReportedRejects) {
+                        rejectedLines.add(new StoreImportReport.RejectedLine(csv.recordLine(), problem));
+                    }
+                    continue;
+                }
+
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    imported += JfrJdbcCalls.record(loader.getClass().getSimpleName(), "load",
+                            () -> loader.load(connection, user.getUserId(), chunk));
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                imported += JfrJdbcCalls.record(loader.getClass().getSimpleName(), "load",
+                        () -> loader.load(connection, user.getUserId(), chunk));
+            }
+            return new StoreImportReport(imported, rejected, rejectedLines, rejected > rejectedLines.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            DataAccessException translated = SQL_EXCEPTION_TRANSLATOR.translate("Store import", null, e);
+            throw translated != null ? translated : new UncategorizedSQLException("Store import", null, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private StoreBulkLoader pickLoader(Connection connection) throws SQLException {
+        for (StoreBulkLoader loader : loaders) {
+            if (loader.supports(connection)) {
+                return loader;
+            }
+        }
+        throw new IllegalStateException("No StoreBulkLoader supports " + connection.getMetaData().getDatabaseProductName());
+    }
+
+    /**
+     * CSV record -> StoreDTO, generated storeId / storeCreatedAt when the column is missing or empty
+     */
+    private StoreDTO toStore(List<String> record, Map<String, Integer> columns, User user) {
+        if (record.size() != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " columns, got " + record.size());
+        }
+        String rawId = field(record, columns, STORE_ID);
+        String rawCreatedAt = field(record, columns, STORE_CREATED_AT);
+
+        UUID storeId;
+        try {
+            storeId = rawId.isBlank() ? UUID.randomUUID() : UUID.fromString(rawId.strip());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid storeId '" + rawId + "'");
+        }
+        Instant createdAt;
+        try {
+            createdAt = rawCreatedAt.isBlank() ? Instant.now() : Instant.parse(rawCreatedAt.strip());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid storeCreatedAt '" + rawCreatedAt + "', use ISO-8601");
+        }
+
+        String name = field(record, columns, STORE_NAME);
+        String location = field(record, columns, STORE_LOCATION);
+        checkLength(STORE_NAME, name);
+        checkLength(STORE_LOCATION, location);
+
+        return new StoreDTO(storeId, name, location, createdAt, user.getUserId());
+    }
+
+    private static void checkLength(String column, String value) {
+        if (value.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException(column + " is longer than " + MAX_LENGTH);
+        }
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index == null ? "" : record.get(index);
+    }
+
+    /**
+     * Same constraints as the JSON endpoints (@NotBlank storeName / storeLocation)
+     */
+    private String violations(StoreDTO row) {
+        Set<ConstraintViolation<StoreDTO>> violations = validator.validate(row);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -0,0 +1,244 @@
+package com.buggybot.store.controller.store.bulk;
+
+import com.buggybot.store.controller.store.cache.StorePageCache;
+import com.buggybot.store.controller.store.dto.StoreReconcileReport;
+import com.buggybot.store.controller.user.entity.User;
+import com.buggybot.store.observability.jfr.JfrJdbcCalls;
+import com.buggybot.store.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * StoreReconcileService - Make a user's stores exactly the uploaded set
+ *
+ * For integrations mirroring an external catalog: "this is my full list now".
+ * Stores are matched by their natural key (storeName, storeLocation).
+ *
+ * How it works (one transaction on the user's shard):
+ * 1. The CSV is streamed into a temporary table in chunks (duplicates: last one wins),
+ *    neither the uploaded nor the existing set is ever held in memory
+ * 2. Three set-based statements apply the minimal diff - PostgreSQL matches the
+ *    two sets with hash (anti) joins on the natural key:
+ *    - DELETE the user's stores missing from the set
+ *    - UPDATE storeCreatedAt where the set has a different one
+ *    - INSERT the stores of the set the user doesn't have
+ * 3. The temporary table is dropped on commit
+ *
+ * Unlike the import, a single bad row fails the whole request (400): a skipped
+ * row would otherwise count as "not in the set" and delete that store.
+ * Names and locations are compared exactly as sent, the way POST /api/store and
+ * the import store them (no trimming): " Shop" and "Shop" are different stores.
+ *
+ * An empty set (header only) would delete every store of the user, so it is
+ * rejected unless the caller passes allowEmpty (?confirmEmpty=true).
+ *
+ * Settings:
+ * - store.reconcile.chunk-size (default 5000) rows per staging INSERT
+ * - store.reconcile.max-rows   (default 1000000)
+ */
+@Service
+public class StoreReconcileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreReconcileService.class);
+
+    static final Set<String> COLUMNS = Set.of(
+            StoreImportService.STORE_NAME, StoreImportService.STORE_LOCATION, StoreImportService.STORE_CREATED_AT);
+
+    public static final String CREATE_STAGING_SQL = """
+            CREATE TEMPORARY TABLE store_reconcile (
+                store_name       VARCHAR(255) NOT NULL,
+                store_location   VARCHAR(255) NOT NULL,
+                store_created_at TIMESTAMP(6) WITH TIME ZONE,
+                PRIMARY KEY (store_name, store_location)
+            ) ON COMMIT DROP
+            """;
+
+    static final String STAGE_SQL = """
+            INSERT INTO store_reconcile (store_name, store_location, store_created_at)
+            SELECT r.store_name, r.store_location, CAST(r.created_at AS timestamptz)
+            FROM unnest(?::text[], ?::text[], ?::text[]) AS r(store_name, store_location, created_at)
+            ON CONFLICT (store_name, store_location) DO UPDATE SET store_created_at = EXCLUDED.store_created_at
+            """;
+
+    public static final String DELETE_SQL = """
+            DELETE FROM stores s
+            WHERE s.user_id = ?
+              AND NOT EXISTS (SELECT 1 FROM store_reconcile t
+                              WHERE t.store_name = s.store_name AND t.store_location = s.store_location)
+            """;
+
+    public static final String UPDATE_SQL = """
+            UPDATE stores s SET store_created_at = t.store_created_at
+            FROM store_reconcile t
+            WHERE s.user_id = ?
+              AND s.store_name = t.store_name AND s.store_location = t.store_location
+              AND t.store_created_at IS NOT NULL
+              AND s.store_created_at <> t.store_created_at
+            """;
+
+    public static final String INSERT_SQL = """
+            INSERT INTO stores (store_id, store_name, store_location, store_created_at, user_id)
+            SELECT gen_random_uuid(), t.store_name, t.store_location, COALESCE(t.store_created_at, now()), ?
+            FROM store_reconcile t
+            WHERE NOT EXISTS (SELECT 1 FROM stores s
+                              WHERE s.user_id = ? AND s.store_name = t.store_name AND s.store_location = t.store_location)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final StorePageCache pageCache;
+
+    @Value("${store.reconcile.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${store.reconcile.max-rows:1000000}")
+    private long maxRows;
+
+    public StoreReconcileService(JdbcTemplate jdbcTemplate, ShardRouter shardRouter, StorePageCache pageCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.pageCache = pageCache;
+    }
+
+    /**
+     * Replace the user's stores with the CSV's set
+     *
+     * @param allowEmpty true to accept a set without rows, i.e. delete all stores of the user
+     * @throws IllegalArgumentException bad header, bad row, too many rows or an unconfirmed
+     *                                  empty set (nothing changed)
+     */
+    public StoreReconcileReport reconcile(Reader input, User user, boolean allowEmpty) throws IOException {
+        StoreCsvReader csv = new StoreCsvReader(input);
+        Map<String, Integer> columns = csv.readHeader(
+                COLUMNS, StoreImportService.STORE_NAME, StoreImportService.STORE_LOCATION);
+
+        StoreReconcileReport report;
+        try {
+            report = shardRouter.inTransaction(user, status -> {
+                pageCache.invalidateUser(user.getUserId());  // sent with the commit
+                return apply(csv, columns, user.getUserId(), allowEmpty);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        logger.atInfo()
+            .addKeyValue("userId", user.getUserId())
+            .addKeyValue("desired", report.desired())
+            .addKeyValue("inserted", report.inserted())
+            .addKeyValue("updated", report.updated())
+            .addKeyValue("deleted", report.deleted())
+            .log("Reconciled stores");
+        return report;
+    }
+
+    /**
+     * Runs inside the reconcile transaction
+     */
+    private StoreReconcileReport apply(StoreCsvReader csv, Map<String, Integer> columns, UUID userId,
+                                       boolean allowEmpty) {
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+
+        // natural key -> storeCreatedAt (ISO-8601 or null), one chunk at a time
+        Map<List<String>, String> chunk = new LinkedHashMap<>();
+        long rows = 0;
+        try {
+            for (List<String> record = csv.next(); record != null; record = csv.next()) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue; // empty line
+                }
+                if (++rows > maxRows) {
+                    throw new IllegalArgumentException("More than " + maxRows + " rows, the set is too large");
+                }
+                if (record.size() != columns.size()) {
+                    throw new IllegalArgumentException("Line " + csv.recordLine() + ": expected "
+                            + columns.size() + " columns, got " + record.size());
+                }
+                String name = required(record, columns, StoreImportService.STORE_NAME, csv.recordLine());
+                String location = required(record, columns, StoreImportService.STORE_LOCATION, csv.recordLine());
+                chunk.put(List.of(name, location), createdAt(record, columns, csv.recordLine()));
+
+                if (chunk.size() == chunkSize) {
+                    stage(chunk);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.isEmpty()) {
+            stage(chunk);
+        }
+        if (rows == 0 && !allowEmpty) {
+            throw new IllegalArgumentException("The set has no stores, pass confirmEmpty=true to delete all of them");
+        }
+
+        // Temporary tables are never analyzed automatically, the joins below need the row count
+        jdbcTemplate.execute("ANALYZE store_reconcile");
+
+        Long desired = jdbcTemplate.queryForObject("SELECT count(*) FROM store_reconcile", Long.class);
+        long deleted = JfrJdbcCalls.record("StoreReconcileService", "delete",
+                () -> jdbcTemplate.update(DELETE_SQL, userId));
+        long updated = JfrJdbcCalls.record("StoreReconcileService", "update",
+                () -> jdbcTemplate.update(UPDATE_SQL, userId));
+        long inserted = JfrJdbcCalls.record("StoreReconcileService", "insert",
+                () -> jdbcTemplate.update(INSERT_SQL, userId, userId));
+        long total = desired != null ? desired : 0;
+        return new StoreReconcileReport(total, inserted, updated, deleted, total - inserted - updated);
+    }
+
+    private void stage(Map<List<String>, String> chunk) {
+        String[] names = new String[chunk.size()];
+        String[] locations = new String[chunk.size()];
+        String[] createdAt = new String[chunk.size()];
+        int i = 0;
+        for (Map.Entry<List<String>, String> row : chunk.entrySet()) {
+            names[i] = row.getKey().get(0);
+            locations[i] = row.getKey().get(1);
+            createdAt[i] = row.getValue();
+            i++;
+        }
+        JfrJdbcCalls.record("StoreReconcileService", "stage", () -> jdbcTemplate.update(connection -> {
+            var statement = connection.prepareStatement(STAGE_SQL);
+            statement.setArray(1, connection.createArrayOf("text", names));
+            statement.setArray(2, connection.createArrayOf("text", locations));
+            statement.setArray(3, connection.createArrayOf("text", createdAt));
+            return statement;
+        }));
+    }
+
+    private static String required(List<String> record, Map<String, Integer> columns, String column, long line) {
+        // Not stripped: the stores table holds names / locations exactly as they were sent
+        String value = record.get(columns.get(column));
+        if (value.isBlank()) {
+            throw new IllegalArgumentException("Line " + line + ": " + column + " is required");
+        }
+        if (value.length() > StoreImportService.MAX_LENGTH) {
+            throw new IllegalArgumentException("Line " + line + ": " + column + " is longer than " + StoreImportService.MAX_LENGTH);
+        }
+        return value;
+    }
+
+    private static String createdAt(List<String> record, Map<String, Integer> columns, long line) {
+        Integer index = columns.get(StoreImportService.STORE_CREATED_AT);
+        if (index == null || record.get(index).isBlank()) {
+            return null;
+        }
+        String raw = record.get(index).strip();
+        try {
+            return Instant.parse(raw).toString();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Line " + line + ": invalid storeCreatedAt '" + raw + "', use ISO-8601");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.buggybot.store.controller.store.cache;
+
+import com.buggybot.store.controller.common.PaginatedResponse;
+import com.buggybot.store.controller.store.dto.StoreListQuery;
+import com.buggybot.store.controller.store.responseEntity.Store;
+import com.buggybot.store.invalidation.Invalidation;
+import com.buggybot.store.invalidation.InvalidationBus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * StorePageCache - Caches the first page(s) of GET /api/store/all per user
+ *
+ * Why?
+ * - Most list traffic asks for page 1 with the default sort
+ * - Without a cache every call runs the page query + a count query
+ *
+ * How invalidation works (generations):
+ * - Every user has a generation number, and it is part of the cache key
+ * - A write to one of the user's stores moves the user to a new generation
+ * - Old pages are never looked up again and simply age out of the bounded cache
+ * - That makes invalidation O(1) and exact: only the written user's pages go stale
+ *
+ * Other instances (InvalidationBus):
+ * - Writes publish an Invalidation, every instance bumps the user's generation
+ * - While a LISTEN connection is down we can miss invalidations: the cache is
+ *   cleared and pages live only store.invalidation.fallback-ttl (default 10s)
+ *   until the connection is back, then the cache is cleared again
+ *
+ * Stampede protection:
+ * - Caffeine runs the loader once per key, concurrent callers for the same
+ *   cold key wait for that one query instead of all hitting the database
+ */
+@Component
+public class StorePageCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorePageCache.class);
+
+    private record PageKey(UUID userId, long generation, int page, int size, StoreListQuery query) { }
+
+    // Source of new generation numbers - never reused, so a user whose generation
+    // entry was evicted can never match an old page again
+    private final AtomicLong generationSequence = new AtomicLong();
+
+    private final Cache<UUID, Long> generations;
+    private final Cache<PageKey, PaginatedResponse<Store>> pages;
+    private final int maxCachedPage;
+    private final InvalidationBus invalidationBus;
+
+    public StorePageCache(
+            @Value("${store.page-cache.max-entries:10000}") long maxEntries,
+            @Value("${store.page-cache.ttl:5m}") Duration ttl,
+            @Value("${store.page-cache.max-page:1}") int maxCachedPage,
+            @Value("${store.invalidation.fallback-ttl:10s}") Duration fallbackTtl,
+            InvalidationBus invalidationBus) {
+        this.maxCachedPage = maxCachedPage;
+        this.invalidationBus = invalidationBus;
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)  // safety net only, writes invalidate immediately
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(ttl.multipliedBy(2))
+                .build();
+
+        // Every store/user write, local or from another instance
+        invalidationBus.subscribe(invalidation -> {
+            if (invalidation.userId() != null) {
+                bumpGeneration(invalidation.userId());
+            }
+        });
+        invalidationBus.onConnectionChange(connected -> {
+            Duration effectiveTtl = connected ? ttl : fallbackTtl;
+            pages.policy().expireAfterWrite().ifPresent(expiry -> expiry.setExpiresAfter(effectiveTtl));
+            pages.invalidateAll();
+            logger.warn("Invalidation listener {}, page cache cleared, ttl now {}",
+                    connected ? "reconnected" : "lost", effectiveTtl);
+        });
+    }
+
+    /**
+     * Only the first pages are worth caching (default: page 1 only)
+     */
+    public boolean isCacheable(int page) {
+        return page <= maxCachedPage;
+    }
+
+    /**
+     * Cached page, or run the loader (once per key, even under concurrent requests)
+     */
+    public PaginatedResponse<Store> get(UUID userId, int page, int size, StoreListQuery query,
+                                        Supplier<PaginatedResponse<Store>> loader) {
+        PageKey key = new PageKey(userId, generationOf(userId), page, size, query);
+        return pages.get(key, k -> loader.get());
+    }
+
+    /**
+     * Mark all cached pages of a user as stale, on every instance
+     *
+     * Inside a transaction this happens after commit - evicting earlier would let
+     * a concurrent request re-cache the data that is about to change.
+     */
+    public void invalidateUser(UUID userId) {
+        invalidationBus.publish(Invalidation.allStoresOf(userId));
+    }
+
+    private long generationOf(UUID userId) {
+        return generations.get(userId, id -> generationSequence.incrementAndGet());
+    }
+
+    private void bumpGeneration(UUID userId) {
+        generations.put(userId, generationSequence.incrementAndGet());
+    }
+}
@@ -0,0 +1,238 @@
+package com.buggybot.store.controller.store.coalesce;
+
+import com.buggybot.store.controller.store.StoreServiceImpl;
+import com.buggybot.store.controller.store.responseEntity.Store;
+import com.buggybot.store.controller.user.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * StorePatchCoalescer - Merges bursts of PATCHes to the same store into one UPDATE
+ *
+ * Why?
+ * - Some editors send PATCH /api/store/{id} on every keystroke
+ * - Each one is its own findById + UPDATE transaction on the same row,
+ *   so they queue up on the row lock
+ *
+ * How it works (store.patch-coalescing.enabled=true, off by default):
+ * - The first PATCH for (storeId, userId) opens a batch and schedules its flush
+ *   store.patch-coalescing.window later (default 50ms) - the window does not
+ *   slide, so no patch waits longer than the window plus one UPDATE
+ * - Further PATCHes in the window are merged field by field, the later one wins
+ * - The flush runs StoreServiceImpl.patchStore once with the merged fields,
+ *   every caller of the batch gets that merged store (or its error)
+ * - Values are validated before they join a batch, so a bad date only fails
+ *   its own request, not the whole batch
+ * - A PATCH that changes storeId is never merged: it waits for the open batch
+ *   of that store and then runs on its own
+ * - Shutdown flushes all open batches before the context closes, PATCHes
+ *   arriving after that run directly (like disabled)
+ *
+ * Disabled: patch() just calls StoreServiceImpl.patchStore.
+ *
+ * Metrics (coalescing ratio = requests / flushes):
+ * - store.patch.coalescing.requests  PATCHes that went through the coalescer
+ * - store.patch.coalescing.flushes   UPDATE transactions they turned into
+ * - store.patch.coalescing.batch     PATCHes per flush
+ *
+ * Settings:
+ * - store.patch-coalescing.window        (default 50ms)
+ * - store.patch-coalescing.flush-threads (default 4)
+ * - store.patch-coalescing.timeout       (default 10s) longest wait for the flush
+ */
+@Component
+public class StorePatchCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorePatchCoalescer.class);
+
+    private record Key(UUID storeId, UUID userId) { }
+
+    private static final class Batch {
+        final User user;
+        final Map<String, Object> updates = new LinkedHashMap<>();
+        final List<CompletableFuture<Optional<Store>>> callers = new ArrayList<>();
+
+        Batch(User user) {
+            this.user = user;
+        }
+    }
+
+    private final StoreServiceImpl storeService;
+    private final boolean enabled;
+    private final Duration window;
+    private final Duration timeout;
+    private final ConcurrentMap<Key, Batch> open = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final Counter requests;
+    private final Counter flushes;
+    private final DistributionSummary batchSize;
+    private volatile boolean closed;
+
+    public StorePatchCoalescer(StoreServiceImpl storeService,
+                               MeterRegistry meterRegistry,
+                               @Value("${store.patch-coalescing.enabled:false}") boolean enabled,
+                               @Value("${store.patch-coalescing.window:50ms}") Duration window,
+                               @Value("${store.patch-coalescing.flush-threads:4}") int flushThreads,
+                               @Value("${store.patch-coalescing.timeout:10s}") Duration timeout) {
+        this.storeService = storeService;
+        this.enabled = enabled;
+        this.window = window;
+        this.timeout = timeout;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.flusher = enabled
+                ? Executors.newScheduledThreadPool(flushThreads,
+                        r -> Thread.ofPlatform().name("patch-flush-" + threadNumber.incrementAndGet()).daemon().unstarted(r))
+                : null;
+
+        this.requests = Counter.builder("store.patch.coalescing.requests")
+                .description("PATCH requests that went through the coalescer")
+                .register(meterRegistry);
+        this.flushes = Counter.builder("store.patch.coalescing.flushes")
+                .description("UPDATE transactions the coalesced PATCHes turned into")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("store.patch.coalescing.batch")
+                .description("PATCH requests merged into one flush")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Same contract as StoreServiceImpl.patchStore
+     *
+     * @throws java.time.format.DateTimeParseException bad storeCreatedAt (400)
+     * @throws IllegalArgumentException bad storeId (400)
+     * @throws org.springframework.dao.DataIntegrityViolationException storeId taken (409)
+     */
+    public Optional<Store> patch(UUID id, Map<String, Object> updates, User user) {
+        if (!enabled || id == null || closed) {
+            return storeService.patchStore(id, updates, user);
+        }
+        validate(updates);
+        requests.increment();
+
+        Key key = new Key(id, user.getUserId());
+        if (updates.get("storeId") != null) {
+            // Changes the row's key - let the open batch finish first, then run alone
+            Batch pending = open.get(key);
+            if (pending != null) {
+                flush(key, pending);  // no-op if a flusher thread already took it
+                pending.callers.get(0).handle((store, error) -> null).join();
+            }
+            flushes.increment();
+            batchSize.record(1);
+            return storeService.patchStore(id, updates, user);
+        }
+
+        CompletableFuture<Optional<Store>> result = new CompletableFuture<>();
+        Batch[] created = new Batch[1];
+        open.compute(key, (k, batch) -> {
+            if (batch == null) {
+                batch = new Batch(user);
+                created[0] = batch;
+            }
+            batch.updates.putAll(updates);  // last writer wins per field
+            batch.callers.add(result);
+            return batch;
+        });
+        if (created[0] != null) {
+            Batch batch = created[0];
+            try {
+                flusher.schedule(() -> flush(key, batch), window.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shut down since the closed check - no one else would flush this batch
+                flush(key, batch);
+            }
+        }
+        return await(result);
+    }
+
+    /**
+     * The checks patchStore would fail on, done up front for this request alone
+     */
+    private static void validate(Map<String, Object> updates) {
+        Object createdAt = updates.get("storeCreatedAt");
+        if (createdAt != null) {
+            Instant.parse(String.valueOf(createdAt));
+        }
+        Object storeId = updates.get("storeId");
+        if (storeId != null) {
+            UUID.fromString(String.valueOf(storeId));
+        }
+    }
+
+    /**
+     * One UPDATE for the whole batch
+     * Removing the batch from `open` first closes it: later PATCHes start a new one.
+     * Runs at most once per batch (scheduled flush, storeId change and shutdown may race).
+     */
+    private void flush(Key key, Batch batch) {
+        if (!open.remove(key, batch)) {
+            return;
+        }
+        flushes.increment();
+        batchSize.record(batch.callers.size());
+        try {
+            Optional<Store> store = storeService.patchStore(key.storeId(), batch.updates, batch.user);
+            batch.callers.forEach(caller -> caller.complete(store));
+        } catch (RuntimeException e) {
+            batch.callers.forEach(caller -> caller.completeExceptionally(e));
+        }
+    }
+
+    private Optional<Store> await(CompletableFuture<Optional<Store>> result) {
+        try {
+            return result.get(window.plus(timeout).toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Coalesced PATCH was not flushed within " + window.plus(timeout), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the coalesced PATCH", e);
+        }
+    }
+
+    /**
+     * Flush every open batch before the service and datasource go away
+     * Batches opened while this runs are flushed by the flusher (awaited here)
+     * or, once it is shut down, by their own caller.
+     */
+    @PreDestroy
+    public void flushAll() {
+        if (flusher == null) {
+            return;
+        }
+        closed = true;
+        int batches = 0;
+        for (Map.Entry<Key, Batch> entry : new ArrayList<>(open.entrySet())) {
+            flush(entry.getKey(), entry.getValue());
+            batches++;
+        }
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(window.plus(timeout).toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Coalesced PATCH flushes still running after {}", window.plus(timeout));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (batches > 0) {
+            logger.info("Flushed {} coalesced PATCH batch(es) on shutdown", batches);
+        }
+    }
+}
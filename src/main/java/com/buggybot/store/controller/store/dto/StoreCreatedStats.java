@@ -0,0 +1,35 @@
+package com.buggybot.store.controller.store.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * StoreCreatedStats - Result of GET /api/store/stats/created
+ *
+ * @param bucket  hour, day or month
+ * @param scope   user (the caller's stores) or global (all stores)
+ * @param from    requested range start
+ * @param to      requested range end (exclusive)
+ * @param buckets buckets with at least one store, oldest first (empty buckets are left out)
+ * @param total   stores created in the range
+ */
+public record StoreCreatedStats(
+    String bucket,
+
+    String scope,
+
+    Instant from,
+
+    Instant to,
+
+    List<BucketCount> buckets,
+
+    long total
+) {
+
+    /**
+     * @param start start of the bucket (UTC)
+     * @param count stores created in it
+     */
+    public record BucketCount(Instant start, long count) { }
+}
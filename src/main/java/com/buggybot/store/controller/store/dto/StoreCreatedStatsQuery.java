@@ -0,0 +1,79 @@
+package com.buggybot.store.controller.store.dto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * StoreCreatedStatsQuery - Parameters of GET /api/store/stats/created
+ *
+ * Buckets are UTC hours, days or months. from/to select buckets by their start:
+ * the bucket containing from is included, to is exclusive.
+ * Without from/to: the last 48 hours, 30 days or 12 months up to now.
+ *
+ * At most MAX_BUCKETS buckets per request, anything larger is rejected with
+ * IllegalArgumentException (-> 400 Bad Request).
+ *
+ * @param bucket granularity
+ * @param from   start of the range (inclusive)
+ * @param to     end of the range (exclusive)
+ */
+public record StoreCreatedStatsQuery(
+    Bucket bucket,
+    Instant from,
+    Instant to
+) {
+
+    public static final int MAX_BUCKETS = 1000;
+
+    public enum Bucket {
+        HOUR(Duration.ofHours(1), Duration.ofHours(48)),
+        DAY(Duration.ofDays(1), Duration.ofDays(30)),
+        MONTH(Duration.ofDays(28), Duration.ofDays(365));  // shortest month, for the bucket limit
+
+        private final Duration length;
+        private final Duration defaultRange;
+
+        Bucket(Duration length, Duration defaultRange) {
+            this.length = length;
+            this.defaultRange = defaultRange;
+        }
+
+        /**
+         * Unit name for date_trunc and the response
+         */
+        public String unit() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Parse and validate the raw request parameters
+     *
+     * @param bucket hour|day|month (null = day)
+     * @param from   ISO-8601 instant (null = default range before to)
+     * @param to     ISO-8601 instant (null = now)
+     * @throws IllegalArgumentException for an unknown bucket, an empty or too large range
+     * @throws java.time.format.DateTimeParseException for invalid dates
+     */
+    public static StoreCreatedStatsQuery parse(String bucket, String from, String to) {
+        Bucket unit = Bucket.DAY;
+        if (bucket != null && !bucket.isBlank()) {
+            try {
+                unit = Bucket.valueOf(bucket.strip().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("bucket must be one of hour, day, month");
+            }
+        }
+
+        Instant end = to == null || to.isBlank() ? Instant.now() : Instant.parse(to);
+        Instant start = from == null || from.isBlank() ? end.minus(unit.defaultRange) : Instant.parse(from);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(start, end).dividedBy(unit.length) >= MAX_BUCKETS) {
+            throw new IllegalArgumentException("At most " + MAX_BUCKETS + " " + unit.unit() + " buckets per request");
+        }
+        return new StoreCreatedStatsQuery(unit, start, end);
+    }
+}
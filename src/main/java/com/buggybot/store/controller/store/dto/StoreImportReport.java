@@ -0,0 +1,25 @@
+package com.buggybot.store.controller.store.dto;
+
+import java.util.List;
+
+/**
+ * StoreImportReport - Result of POST /api/store/import
+ *
+ * @param imported      rows written to the database
+ * @param rejected      rows that failed parsing or StoreDTO validation (not imported)
+ * @param rejectedLines the first rejected rows with the reason
+ *                      (at most store.import.max-reported-rejects)
+ * @param truncated     true if there were more rejected rows than listed
+ */
+public record StoreImportReport(
+    long imported,
+    long rejected,
+    List<RejectedLine> rejectedLines,
+    boolean truncated
+) {
+    /**
+     * @param line   1-based line number in the CSV (the header is line 1)
+     * @param reason why the row was rejected
+     */
+    public record RejectedLine(long line, String reason) { }
+}
@@ -0,0 +1,133 @@
+package com.buggybot.store.controller.store.dto;
+
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * StoreListQuery - Sorting and filtering for GET /api/store/all
+ *
+ * Only combinations that an index can answer are accepted
+ * (user_id is always the first index column):
+ *
+ * | sort             | filters allowed                  | index                                                 |
+ * |------------------|----------------------------------|-------------------------------------------------------|
+ * | storeCreatedAt   | createdAfter/Before              | (user_id, store_created_at, store_id)                 |
+ * | storeCreatedAt   | location (+ createdAfter/Before) | (user_id, store_location, store_created_at, store_id) |
+ * | storeLocation    | location                         | (user_id, store_location, store_created_at, store_id) |
+ * | storeName        | none                             | (user_id, store_name, store_id)                       |
+ *
+ * Anything else is rejected with IllegalArgumentException (-> 400 Bad Request)
+ * instead of silently scanning all of the user's stores.
+ *
+ * Ties are broken by storeId (storeLocation: by storeCreatedAt first), in the
+ * same direction, so pages never repeat or skip stores with equal sort values.
+ *
+ * @param sortField     entity property to sort by
+ * @param direction     ASC or DESC
+ * @param location      only stores at exactly this location (optional)
+ * @param createdAfter  only stores created at or after this instant (optional)
+ * @param createdBefore only stores created before this instant (optional)
+ */
+public record StoreListQuery(
+    String sortField,
+    Sort.Direction direction,
+    String location,
+    Instant createdAfter,
+    Instant createdBefore
+) {
+
+    public static final String CREATED_AT = "storeCreatedAt";
+    public static final String LOCATION = "storeLocation";
+    public static final String NAME = "storeName";
+    public static final String ID = "storeId";
+
+    // Sort field -> whether location / date filters can be combined with it
+    private static final Map<String, Set<String>> ALLOWED_FILTERS = Map.of(
+        CREATED_AT, Set.of("location", "createdAfter", "createdBefore"),
+        LOCATION, Set.of("location"),
+        NAME, Set.of()
+    );
+
+    /**
+     * Default listing: newest stores first, no filters
+     */
+    public static StoreListQuery defaults() {
+        return new StoreListQuery(CREATED_AT, Sort.Direction.DESC, null, null, null);
+    }
+
+    /**
+     * Parse and validate the raw request parameters
+     *
+     * @param sort          "field" or "field,asc|desc" (null = storeCreatedAt,desc);
+     *                      without a direction storeCreatedAt sorts desc, the others asc
+     * @param location      exact location filter (null = none)
+     * @param createdAfter  ISO-8601 instant (null = none)
+     * @param createdBefore ISO-8601 instant (null = none)
+     * @throws IllegalArgumentException for unknown fields or unindexed combinations
+     * @throws java.time.format.DateTimeParseException for invalid dates
+     */
+    public static StoreListQuery parse(String sort, String location, String createdAfter, String createdBefore) {
+        String field = CREATED_AT;
+        Sort.Direction direction = Sort.Direction.DESC;
+
+        if (sort != null && !sort.isBlank()) {
+            String[] parts = sort.split(",");
+            field = parts[0].trim();
+            if (!ALLOWED_FILTERS.containsKey(field)) {
+                throw new IllegalArgumentException("sort must be one of " + ALLOWED_FILTERS.keySet());
+            }
+            direction = parts.length > 1
+                ? Sort.Direction.fromString(parts[1].trim())  // throws IllegalArgumentException
+                : defaultDirection(field);
+        }
+
+        StoreListQuery query = new StoreListQuery(
+            field,
+            direction,
+            location == null || location.isBlank() ? null : location,
+            createdAfter == null || createdAfter.isBlank() ? null : Instant.parse(createdAfter),
+            createdBefore == null || createdBefore.isBlank() ? null : Instant.parse(createdBefore)
+        );
+        query.requireIndexedCombination();
+        return query;
+    }
+
+    /**
+     * Newest first for dates (like the default listing), alphabetical otherwise
+     */
+    private static Sort.Direction defaultDirection(String field) {
+        return CREATED_AT.equals(field) ? Sort.Direction.DESC : Sort.Direction.ASC;
+    }
+
+    /**
+     * Sort for Spring Data (property names of the Store entity)
+     * Ends with storeId so the order is total - the indexes above end with store_id too.
+     */
+    public Sort toSort() {
+        Sort sort = Sort.by(direction, sortField);
+        if (LOCATION.equals(sortField)) {
+            sort = sort.and(Sort.by(direction, CREATED_AT));
+        }
+        return sort.and(Sort.by(direction, ID));
+    }
+
+    public boolean hasFilters() {
+        return location != null || createdAfter != null || createdBefore != null;
+    }
+
+    private void requireIndexedCombination() {
+        Set<String> allowed = ALLOWED_FILTERS.get(sortField);
+        if (location != null && !allowed.contains("location")) {
+            throw new IllegalArgumentException("location filter can't be combined with sort=" + sortField);
+        }
+        if ((createdAfter != null || createdBefore != null) && !allowed.contains("createdAfter")) {
+            throw new IllegalArgumentException("createdAfter/createdBefore can't be combined with sort=" + sortField);
+        }
+        if (createdAfter != null && createdBefore != null && !createdAfter.isBefore(createdBefore)) {
+            throw new IllegalArgumentException("createdAfter must be before createdBefore");
+        }
+    }
+}
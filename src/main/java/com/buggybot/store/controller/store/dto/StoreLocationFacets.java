@@ -0,0 +1,25 @@
+package com.buggybot.store.controller.store.dto;
+
+import java.util.List;
+
+/**
+ * StoreLocationFacets - Result of GET /api/store/facets/location
+ *
+ * @param locations the top locations, most stores first (ties by name)
+ * @param other     stores in all remaining locations
+ * @param total     all stores of the user
+ */
+public record StoreLocationFacets(
+    List<LocationCount> locations,
+
+    long other,
+
+    long total
+) {
+
+    /**
+     * @param location storeLocation
+     * @param count    number of stores there
+     */
+    public record LocationCount(String location, long count) { }
+}
@@ -0,0 +1,16 @@
+package com.buggybot.store.controller.store.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * StoreLookupRequest - Body of POST /api/store/lookup
+ *
+ * Example: { "ids": ["3f0c...", "9a1b..."] }
+ */
+public record StoreLookupRequest(
+    @NotEmpty(message = "ids must contain at least one store id")
+    List<UUID> ids
+) { }
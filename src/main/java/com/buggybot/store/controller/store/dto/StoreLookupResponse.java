@@ -0,0 +1,18 @@
+package com.buggybot.store.controller.store.dto;
+
+import com.buggybot.store.controller.store.responseEntity.Store;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * StoreLookupResponse - Result of a batch lookup
+ *
+ * @param found   stores that exist AND belong to the user (in request order)
+ * @param missing requested ids that don't exist or belong to someone else
+ *                (not distinguished, same as the 404 of GET /api/store/{id})
+ */
+public record StoreLookupResponse(
+    List<Store> found,
+    List<UUID> missing
+) { }
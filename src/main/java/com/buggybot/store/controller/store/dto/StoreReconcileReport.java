@@ -0,0 +1,18 @@
+package com.buggybot.store.controller.store.dto;
+
+/**
+ * StoreReconcileReport - Result of PUT /api/store/reconcile
+ *
+ * @param desired   distinct stores (name + location) in the uploaded set
+ * @param inserted  stores that were missing and got created
+ * @param updated   existing stores whose storeCreatedAt changed
+ * @param deleted   stores of the user that were not in the set
+ * @param unchanged stores that already matched
+ */
+public record StoreReconcileReport(
+    long desired,
+    long inserted,
+    long updated,
+    long deleted,
+    long unchanged
+) { }
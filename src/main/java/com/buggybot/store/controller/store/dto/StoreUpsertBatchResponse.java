@@ -0,0 +1,19 @@
+package com.buggybot.store.controller.store.dto;
+
+import java.util.List;
+
+/**
+ * StoreUpsertBatchResponse - Result of PUT /api/store/upsert/batch
+ *
+ * @param created number of stores inserted
+ * @param updated number of existing stores updated
+ * @param stores  every store of the batch after the upsert
+ *                (records with the same name and location count once, the last one wins)
+ */
+public record StoreUpsertBatchResponse(
+    int created,
+
+    int updated,
+
+    List<StoreUpsertResult> stores
+) { }
@@ -0,0 +1,14 @@
+package com.buggybot.store.controller.store.dto;
+
+/**
+ * StoreUpsertResult - One store after PUT /api/store/upsert
+ *
+ * @param store   the store as it is now stored
+ * @param created true if the row was inserted, false if an existing store
+ *                with the same name and location was updated
+ */
+public record StoreUpsertResult(
+    StoreDTO store,
+
+    boolean created
+) { }
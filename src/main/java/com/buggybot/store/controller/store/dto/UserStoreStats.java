@@ -0,0 +1,17 @@
+package com.buggybot.store.controller.store.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * UserStoreStats - Store count and newest store of one user
+ *
+ * Result row of StoreRepository.statsByUserIds (sharded user summary).
+ */
+public record UserStoreStats(
+    UUID userId,
+
+    Long storeCount,
+
+    Instant latestStoreCreatedAt
+) { }
@@ -0,0 +1,72 @@
+package com.buggybot.store.controller.store.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * ReactiveReadConfig - Non-blocking database access for the store read endpoints
+ *
+ * Why?
+ * - JPA/JDBC blocks a request thread for every query
+ * - Read concurrency is capped by (Tomcat threads x Hikari connections)
+ * - R2DBC queries don't hold a thread while waiting for PostgreSQL,
+ *   so a few connections can serve many concurrent readers
+ *
+ * Enabled with store.reactive.enabled=true. Connection settings:
+ * - store.reactive.url       (default: spring.datasource.url with jdbc: -> r2dbc:)
+ * - spring.datasource.username / password are reused
+ * - store.reactive.pool-size (default 10)
+ *
+ * This pool is separate from Hikari - writes keep using JPA.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "store.reactive.enabled", havingValue = "true")
+public class ReactiveReadConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveConnectionFactory(
+            @Value("${store.reactive.url:}") String r2dbcUrl,
+            @Value("${spring.datasource.url:}") String jdbcUrl,
+            @Value("${spring.datasource.username:}") String username,
+            @Value("${spring.datasource.password:}") String password,
+            @Value("${store.reactive.pool-size:10}") int poolSize) {
+        String url = !r2dbcUrl.isBlank() ? r2dbcUrl : jdbcUrl.replaceFirst("^jdbc:", "r2dbc:");
+
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isBlank()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (!password.isBlank()) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        ConnectionFactory connectionFactory = ConnectionFactories.get(options.build());
+
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(Math.min(2, poolSize))
+                .maxSize(poolSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(ConnectionPool reactiveConnectionFactory) {
+        return DatabaseClient.create(reactiveConnectionFactory);
+    }
+
+    @Bean
+    public ReactiveStoreRepository reactiveStoreRepository(DatabaseClient reactiveDatabaseClient) {
+        return new ReactiveStoreRepository(reactiveDatabaseClient);
+    }
+
+    @Bean
+    public ReactiveUserRepository reactiveUserRepository(DatabaseClient reactiveDatabaseClient) {
+        return new ReactiveUserRepository(reactiveDatabaseClient);
+    }
+}
@@ -0,0 +1,179 @@
+package com.buggybot.store.controller.store.reactive;
+
+import com.buggybot.store.controller.common.ApiResponse;
+import com.buggybot.store.controller.common.PaginatedResponse;
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.store.dto.StoreListQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ReactiveStoreController - Non-blocking variants of the store read endpoints
+ *
+ * Same ApiResponse contract as StoreController, but:
+ * - Queries run on R2DBC (ReactiveStoreRepository), no thread waits for the database
+ * - Spring MVC returns the Tomcat thread while the Mono/Flux is pending
+ * - Stores are returned as StoreDTO (userId instead of the user object)
+ *
+ * Endpoints (enabled with store.reactive.enabled=true):
+ * - GET /api/store/reactive/all     - paginated, same sort/filter params as /api/store/all
+ * - GET /api/store/reactive/{id}    - single store
+ * - GET /api/store/reactive/stream  - all stores as NDJSON, one store per line,
+ *                                     fetched from the database as the client reads
+ *
+ * Authentication is handled by SecurityConfig like every other /api endpoint.
+ */
+@RestController
+@RequestMapping("/api/store/reactive")
+@ConditionalOnProperty(name = "store.reactive.enabled", havingValue = "true")
+public class ReactiveStoreController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveStoreController.class);
+    private final ReactiveStoreRepository storeRepository;
+    private final ReactiveUserRepository userRepository;
+
+    public ReactiveStoreController(ReactiveStoreRepository storeRepository, ReactiveUserRepository userRepository) {
+        this.storeRepository = storeRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * GET /api/store/reactive/all - Get the current user's stores (paginated)
+     */
+    @GetMapping("/all")
+    public Mono<ResponseEntity<ApiResponse<PaginatedResponse<StoreDTO>>>> getStores(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String createdAfter,
+            @RequestParam(required = false) String createdBefore,
+            Authentication authentication) {
+        if (page < 1) {
+            return Mono.just(badRequest("Page number must be >= 1"));
+        }
+        if (size < 1) {
+            return Mono.just(badRequest("Page size must be >= 1"));
+        }
+
+        StoreListQuery listQuery;
+        try {
+            listQuery = StoreListQuery.parse(sort, location, createdAfter, createdBefore);
+        } catch (DateTimeParseException dtpe) {
+            return Mono.just(badRequest("Invalid date format for createdAfter/createdBefore. Use ISO-8601."));
+        } catch (IllegalArgumentException iae) {
+            return Mono.just(badRequest("Invalid list query: " + iae.getMessage()));
+        }
+
+        long offset = (long) (page - 1) * size;
+        return userRepository.findUserIdByAuth0Id(subject(authentication))
+                .flatMap(userId -> Mono.zip(
+                        storeRepository.findPage(userId, listQuery, size, offset).collectList(),
+                        storeRepository.count(userId, listQuery)))
+                .map(result -> toPage(result.getT1(), result.getT2(), page, size))
+                // No user row yet -> no stores yet
+                .defaultIfEmpty(toPage(List.of(), 0, page, size))
+                .map(paginated -> ResponseEntity.ok(new ApiResponse<>(true, null, paginated)))
+                .onErrorResume(e -> {
+                    logger.error("Error fetching stores (reactive)", e);
+                    return Mono.just(ResponseEntity.internalServerError()
+                            .body(new ApiResponse<>(false, "Failed to Get Stores", null)));
+                });
+    }
+
+    /**
+     * GET /api/store/reactive/{id} - Get a specific store of the current user
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ApiResponse<StoreDTO>>> getStore(
+            @PathVariable UUID id,
+            Authentication authentication) {
+        return userRepository.findUserIdByAuth0Id(subject(authentication))
+                .flatMap(userId -> storeRepository.findByIdAndUserId(id, userId))
+                .map(store -> ResponseEntity.ok(new ApiResponse<>(true, null, store)))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>(false, "Store not found or access denied", null)))
+                .onErrorResume(e -> {
+                    logger.error("Error fetching store with id: {} (reactive)", id, e);
+                    return Mono.just(ResponseEntity.internalServerError()
+                            .body(new ApiResponse<>(false, "Failed to get store", null)));
+                });
+    }
+
+    /**
+     * GET /api/store/reactive/stream - Stream all of the current user's stores
+     *
+     * Content-Type application/x-ndjson: one StoreDTO JSON object per line.
+     * Rows are read from PostgreSQL only as fast as the client consumes them.
+     * Invalid sort/filters -> 400 with an ApiResponse (JSON), like /all.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<StoreDTO> streamStores(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String createdAfter,
+            @RequestParam(required = false) String createdBefore,
+            Authentication authentication) {
+        StoreListQuery listQuery;
+        try {
+            listQuery = StoreListQuery.parse(sort, location, createdAfter, createdBefore);
+        } catch (DateTimeParseException dtpe) {
+            throw new InvalidListQueryException("Invalid date format for createdAfter/createdBefore. Use ISO-8601.");
+        } catch (IllegalArgumentException iae) {
+            throw new InvalidListQueryException("Invalid list query: " + iae.getMessage());
+        }
+        return userRepository.findUserIdByAuth0Id(subject(authentication))
+                .flatMapMany(userId -> storeRepository.streamAll(userId, listQuery));
+    }
+
+    /**
+     * Invalid /stream parameters, thrown before the Flux is returned (nothing written yet)
+     */
+    static class InvalidListQueryException extends RuntimeException {
+        InvalidListQueryException(String message) {
+            super(message);
+        }
+    }
+
+    @ExceptionHandler(InvalidListQueryException.class)
+    public ResponseEntity<ApiResponse<Void>> invalidListQuery(InvalidListQueryException e) {
+        // Content type set here: /stream itself only produces NDJSON
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ApiResponse<>(false, e.getMessage(), null));
+    }
+
+    private static String subject(Authentication authentication) {
+        return ((Jwt) authentication.getPrincipal()).getSubject();
+    }
+
+    private static PaginatedResponse<StoreDTO> toPage(List<StoreDTO> content, long total, int page, int size) {
+        int totalPages = (int) ((total + size - 1) / size);
+        return new PaginatedResponse<>(
+                content,
+                page,
+                size,
+                total,
+                totalPages,
+                page == 1,
+                page >= totalPages
+        );
+    }
+
+    private static <T> ResponseEntity<ApiResponse<T>> badRequest(String message) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse<>(false, message, null));
+    }
+}
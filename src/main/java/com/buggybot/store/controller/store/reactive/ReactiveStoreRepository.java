@@ -0,0 +1,127 @@
+package com.buggybot.store.controller.store.reactive;
+
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.store.dto.StoreListQuery;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * ReactiveStoreRepository - Non-blocking store queries
+ *
+ * Same queries (and same indexes) as the JPA path in StoreRepository /
+ * StoreSpecifications, written as SQL for R2DBC's DatabaseClient.
+ * Rows are mapped straight to StoreDTO - no entities, no persistence context.
+ */
+public class ReactiveStoreRepository {
+
+    private static final String COLUMNS = "store_id, store_name, store_location, store_created_at, user_id";
+
+    // Whitelisted sort fields (validated by StoreListQuery) -> columns
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            StoreListQuery.CREATED_AT, "store_created_at",
+            StoreListQuery.LOCATION, "store_location",
+            StoreListQuery.NAME, "store_name",
+            StoreListQuery.ID, "store_id");
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveStoreRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * One page of a user's stores
+     */
+    public Flux<StoreDTO> findPage(UUID userId, StoreListQuery query, int limit, long offset) {
+        String sql = "SELECT " + COLUMNS + " FROM stores WHERE " + where(query)
+                + " ORDER BY " + orderBy(query) + " LIMIT :limit OFFSET :offset";
+        return bind(databaseClient.sql(sql), userId, query)
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactiveStoreRepository::toDto)
+                .all();
+    }
+
+    /**
+     * All of a user's stores, streamed
+     *
+     * Rows are fetched as the subscriber requests them (backpressure),
+     * so a slow client doesn't make us buffer the whole result.
+     */
+    public Flux<StoreDTO> streamAll(UUID userId, StoreListQuery query) {
+        String sql = "SELECT " + COLUMNS + " FROM stores WHERE " + where(query) + " ORDER BY " + orderBy(query);
+        return bind(databaseClient.sql(sql), userId, query)
+                .map(ReactiveStoreRepository::toDto)
+                .all();
+    }
+
+    public Mono<Long> count(UUID userId, StoreListQuery query) {
+        return bind(databaseClient.sql("SELECT count(*) AS total FROM stores WHERE " + where(query)), userId, query)
+                .map((row, metadata) -> row.get("total", Long.class))
+                .one();
+    }
+
+    /**
+     * SQL: SELECT ... FROM stores WHERE store_id = ? AND user_id = ?
+     * (ownership check in the query, like findByUserAndStoreIdIn)
+     */
+    public Mono<StoreDTO> findByIdAndUserId(UUID storeId, UUID userId) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM stores WHERE store_id = :storeId AND user_id = :userId")
+                .bind("storeId", storeId)
+                .bind("userId", userId)
+                .map(ReactiveStoreRepository::toDto)
+                .one();
+    }
+
+    private static String where(StoreListQuery query) {
+        StringBuilder where = new StringBuilder("user_id = :userId");
+        if (query.location() != null) {
+            where.append(" AND store_location = :location");
+        }
+        if (query.createdAfter() != null) {
+            where.append(" AND store_created_at >= :createdAfter");
+        }
+        if (query.createdBefore() != null) {
+            where.append(" AND store_created_at < :createdBefore");
+        }
+        return where.toString();
+    }
+
+    // Same order as the JPA path, storeId tie-breaker included
+    private static String orderBy(StoreListQuery query) {
+        return query.toSort().stream()
+                .map(order -> SORT_COLUMNS.get(order.getProperty()) + " " + order.getDirection().name())
+                .collect(Collectors.joining(", "));
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec,
+                                                          UUID userId, StoreListQuery query) {
+        spec = spec.bind("userId", userId);
+        if (query.location() != null) {
+            spec = spec.bind("location", query.location());
+        }
+        if (query.createdAfter() != null) {
+            spec = spec.bind("createdAfter", query.createdAfter());
+        }
+        if (query.createdBefore() != null) {
+            spec = spec.bind("createdBefore", query.createdBefore());
+        }
+        return spec;
+    }
+
+    private static StoreDTO toDto(Readable row) {
+        return new StoreDTO(
+                row.get("store_id", UUID.class),
+                row.get("store_name", String.class),
+                row.get("store_location", String.class),
+                row.get("store_created_at", Instant.class),
+                row.get("user_id", UUID.class));
+    }
+}
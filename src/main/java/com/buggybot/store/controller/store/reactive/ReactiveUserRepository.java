@@ -0,0 +1,33 @@
+package com.buggybot.store.controller.store.reactive;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * ReactiveUserRepository - Non-blocking user lookups
+ *
+ * The reactive read path only needs to map the JWT subject to our user id.
+ * Users are still created by the blocking UserService on their first
+ * regular request - a user without a row simply has no stores yet.
+ */
+public class ReactiveUserRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * SQL: SELECT user_id FROM users WHERE auth0_id = ?
+     * (uses the unique index on auth0_id)
+     */
+    public Mono<UUID> findUserIdByAuth0Id(String auth0Id) {
+        return databaseClient.sql("SELECT user_id FROM users WHERE auth0_id = :auth0Id")
+                .bind("auth0Id", auth0Id)
+                .map((row, metadata) -> row.get("user_id", UUID.class))
+                .one();
+    }
+}
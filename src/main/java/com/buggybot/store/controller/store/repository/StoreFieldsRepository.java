@@ -0,0 +1,38 @@
+package com.buggybot.store.controller.store.repository;
+
+import com.buggybot.store.controller.common.FieldSelection;
+import com.buggybot.store.controller.store.responseEntity.Store;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * StoreFieldsRepository - Column-restricted store reads (fields=)
+ *
+ * Fragment of StoreRepository, implemented in StoreFieldsRepositoryImpl.
+ */
+public interface StoreFieldsRepository {
+
+    /**
+     * JSON field name -> Store attribute path, the fields a client may select
+     */
+    Map<String, String> FIELDS = Map.of(
+            "storeId", "storeId",
+            "storeName", "storeName",
+            "storeLocation", "storeLocation",
+            "storeCreatedAt", "storeCreatedAt",
+            "userId", "user.userId");
+
+    /**
+     * SELECT <fields> FROM stores WHERE <spec> ORDER BY ... LIMIT/OFFSET (+ count)
+     */
+    Page<Map<String, Object>> findFields(Specification<Store> spec, FieldSelection fields, Pageable pageable);
+
+    /**
+     * SELECT <fields> FROM stores WHERE <spec>, first row
+     */
+    Optional<Map<String, Object>> findOneFields(Specification<Store> spec, FieldSelection fields);
+}
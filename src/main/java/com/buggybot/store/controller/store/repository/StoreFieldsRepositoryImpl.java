@@ -0,0 +1,32 @@
+package com.buggybot.store.controller.store.repository;
+
+import com.buggybot.store.controller.common.FieldSelection;
+import com.buggybot.store.controller.store.responseEntity.Store;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Spring Data picks this up by name as the implementation of StoreFieldsRepository
+ */
+class StoreFieldsRepositoryImpl implements StoreFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Map<String, Object>> findFields(Specification<Store> spec, FieldSelection fields, Pageable pageable) {
+        return fields.findPage(entityManager, Store.class, spec, pageable);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findOneFields(Specification<Store> spec, FieldSelection fields) {
+        return fields.find(entityManager, Store.class, spec, Sort.unsorted(), 0, 1).stream().findFirst();
+    }
+}
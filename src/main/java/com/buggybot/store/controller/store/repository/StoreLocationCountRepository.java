@@ -0,0 +1,57 @@
+package com.buggybot.store.controller.store.repository;
+
+import com.buggybot.store.controller.store.dto.StoreLocationFacets;
+import com.buggybot.store.observability.jfr.JfrJdbcCalls;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * StoreLocationCountRepository - Reads the per-location store counts
+ *
+ * store_location_counts holds one row per (user, location) and is maintained
+ * by triggers on stores (V6), so reading the facets never touches stores:
+ * the cost depends on the number of distinct locations, not stores.
+ *
+ * Plain JDBC (like StoreUpsertRepository): the table has no entity.
+ * Runs on the caller's shard connection.
+ */
+@Repository
+public class StoreLocationCountRepository {
+
+    // The window sum is taken over all the user's rows before the LIMIT
+    public static final String TOP_SQL = """
+            SELECT store_location, store_count, sum(store_count) OVER () AS total
+            FROM store_location_counts
+            WHERE user_id = ?
+            ORDER BY store_count DESC, store_location
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StoreLocationCountRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param top number of locations to return, the rest is summed up in other
+     */
+    public StoreLocationFacets findTop(UUID userId, int top) {
+        List<StoreLocationFacets.LocationCount> locations = new ArrayList<>();
+        long[] total = {0};
+        JfrJdbcCalls.record("StoreLocationCountRepository", "findTop", () -> {
+            jdbcTemplate.query(TOP_SQL, rs -> {
+                locations.add(new StoreLocationFacets.LocationCount(rs.getString("store_location"), rs.getLong("store_count")));
+                total[0] = rs.getLong("total");
+            }, userId, top);
+            return locations;
+        });
+
+        long listed = locations.stream().mapToLong(StoreLocationFacets.LocationCount::count).sum();
+        return new StoreLocationFacets(locations, total[0] - listed, total[0]);
+    }
+}
@@ -1,12 +1,18 @@
 package com.buggybot.store.controller.store.repository;
 
+import com.buggybot.store.controller.store.dto.UserStoreStats;
 import com.buggybot.store.controller.store.responseEntity.Store;
 import com.buggybot.store.controller.user.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,7 +22,8 @@ import java.util.UUID;
  * Custom queries for user-specific store access
  */
 @Repository
-public interface StoreRepository extends JpaRepository<Store, UUID> {
+public interface StoreRepository extends JpaRepository<Store, UUID>, JpaSpecificationExecutor<Store>,
+        StoreFieldsRepository {
     // JpaRepository provides the following methods automatically:
     // - findAll() -> List<Store>
     // - findById(UUID id) -> Optional<Store>
@@ -24,6 +31,15 @@ public interface StoreRepository extends JpaRepository<Store, UUID> {
     // - deleteById(UUID id) -> void
     // - existsById(UUID id) -> boolean
     // - count() -> long
+    //
+    // JpaSpecificationExecutor adds findAll(Specification, Pageable)
+    // for the sorted / filtered store list (see StoreSpecifications)
+    //
+    // StoreFieldsRepository adds findFields / findOneFields for fields= (only the selected columns)
+
+    // Native SQL of deleteBatchByUserId (QueryPlanRegressionTests explains it)
+    String DELETE_BATCH_SQL = "DELETE FROM stores WHERE store_id IN "
+            + "(SELECT store_id FROM stores WHERE user_id = :userId LIMIT :batchSize)";
 
     /**
      * Find all stores belonging to a specific user
@@ -37,8 +53,45 @@ public interface StoreRepository extends JpaRepository<Store, UUID> {
      */
     Page<Store> findByUser(User user, Pageable pageable);
 
+    /**
+     * Find several of a user's stores by id in ONE query
+     * SQL: SELECT * FROM stores WHERE user_id = ? AND store_id IN (?, ?, ...)
+     *
+     * Stores owned by other users are simply not returned.
+     */
+    List<Store> findByUserAndStoreIdIn(User user, Collection<UUID> storeIds);
+
     /**
      * Count stores owned by a user
      */
     long countByUser(User user);
+
+    /**
+     * Store count and newest store per user, for a page of users (sharded user summary)
+     * SQL: SELECT user_id, count(*), max(store_created_at) FROM stores
+     *      WHERE user_id IN (...) GROUP BY user_id
+     */
+    @Query("SELECT new com.buggybot.store.controller.store.dto.UserStoreStats("
+            + "s.user.userId, COUNT(s), MAX(s.storeCreatedAt)) "
+            + "FROM Store s WHERE s.user.userId IN :userIds GROUP BY s.user.userId")
+    List<UserStoreStats> statsByUserIds(@Param("userIds") Collection<UUID> userIds);
+
+    /**
+     * Delete all stores of a user in ONE statement
+     * SQL: DELETE FROM stores WHERE user_id = ?
+     *
+     * Unlike deleteAll(findByUser(user)) this never loads the stores into memory.
+     * clearAutomatically: the persistence context may still hold deleted stores - drop them
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Store s WHERE s.user.userId = :userId")
+    int deleteAllByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Delete up to batchSize stores of a user
+     * Used by the background purge so no single transaction gets too big
+     */
+    @Modifying
+    @Query(value = DELETE_BATCH_SQL, nativeQuery = true)
+    int deleteBatchByUserId(@Param("userId") UUID userId, @Param("batchSize") int batchSize);
 }
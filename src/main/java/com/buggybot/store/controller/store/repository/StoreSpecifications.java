@@ -0,0 +1,73 @@
+package com.buggybot.store.controller.store.repository;
+
+import com.buggybot.store.controller.store.dto.StoreListQuery;
+import com.buggybot.store.controller.store.responseEntity.Store;
+import com.buggybot.store.controller.user.entity.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * StoreSpecifications - WHERE clause building blocks for store queries
+ *
+ * Every query starts with ownedBy(user), so user_id is always the leading
+ * predicate and the (user_id, ...) indexes can be used.
+ */
+public final class StoreSpecifications {
+
+    private StoreSpecifications() {
+    }
+
+    /**
+     * WHERE user_id = ?
+     */
+    public static Specification<Store> ownedBy(User user) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("userId"), user.getUserId());
+    }
+
+    /**
+     * WHERE store_id = ?
+     */
+    public static Specification<Store> withId(UUID storeId) {
+        return (root, query, cb) -> cb.equal(root.get("storeId"), storeId);
+    }
+
+    /**
+     * WHERE store_location = ?
+     */
+    public static Specification<Store> locatedAt(String location) {
+        return (root, query, cb) -> cb.equal(root.get("storeLocation"), location);
+    }
+
+    /**
+     * WHERE store_created_at >= ?
+     */
+    public static Specification<Store> createdAtOrAfter(Instant instant) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("storeCreatedAt"), instant);
+    }
+
+    /**
+     * WHERE store_created_at < ?
+     */
+    public static Specification<Store> createdBefore(Instant instant) {
+        return (root, query, cb) -> cb.lessThan(root.get("storeCreatedAt"), instant);
+    }
+
+    /**
+     * All predicates of a (validated) list query for one user
+     */
+    public static Specification<Store> forQuery(User user, StoreListQuery listQuery) {
+        Specification<Store> spec = ownedBy(user);
+        if (listQuery.location() != null) {
+            spec = spec.and(locatedAt(listQuery.location()));
+        }
+        if (listQuery.createdAfter() != null) {
+            spec = spec.and(createdAtOrAfter(listQuery.createdAfter()));
+        }
+        if (listQuery.createdBefore() != null) {
+            spec = spec.and(createdBefore(listQuery.createdBefore()));
+        }
+        return spec;
+    }
+}
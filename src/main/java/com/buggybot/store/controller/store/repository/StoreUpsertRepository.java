@@ -0,0 +1,146 @@
+package com.buggybot.store.controller.store.repository;
+
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.store.dto.StoreUpsertResult;
+import com.buggybot.store.observability.jfr.JfrJdbcCalls;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * StoreUpsertRepository - Insert-or-update of stores by their natural key
+ *
+ * Natural key: (user_id, store_name, store_location), unique since V5.
+ *
+ * One statement for the whole batch, no read before the write:
+ * - the records go in as arrays and are unnest()ed into rows
+ * - ON CONFLICT on the natural key turns an insert into an update of the existing row
+ * - RETURNING hands back the final row; xmax = 0 only for freshly inserted rows
+ *
+ * A record with a storeId must match the existing store's id (else 409),
+ * records without one adopt the existing store.
+ *
+ * Two sync jobs racing on the same record both converge on one row -
+ * the unique index serializes them, no duplicate can appear.
+ *
+ * Plain JDBC (like the import loaders): JPA has no ON CONFLICT.
+ * Runs on the caller's transaction / shard connection.
+ */
+@Repository
+public class StoreUpsertRepository {
+
+    // An existing store keeps its id. The input is looked up again by natural key in
+    // DO UPDATE (EXCLUDED only carries table columns, not the flags):
+    // - storeCreatedAt is only overwritten when the record had one (has_created_at)
+    // - a record with its own storeId only matches a store with that id, otherwise the
+    //   row is not updated and not returned -> upsert() rejects the batch
+    public static final String UPSERT_SQL = """
+            WITH input AS (
+                SELECT * FROM unnest(?::uuid[], ?::text[], ?::text[], ?::text[], ?::boolean[], ?::boolean[])
+                    AS r(store_id, store_name, store_location, created_at, has_created_at, has_id)
+            )
+            INSERT INTO stores AS s (store_id, store_name, store_location, store_created_at, user_id)
+            SELECT i.store_id, i.store_name, i.store_location, COALESCE(CAST(i.created_at AS timestamptz), now()), ?
+            FROM input i
+            ON CONFLICT (user_id, store_name, store_location) DO UPDATE
+            SET store_created_at = CASE WHEN (SELECT i.has_created_at FROM input i
+                                              WHERE i.store_name = EXCLUDED.store_name
+                                                AND i.store_location = EXCLUDED.store_location)
+                                        THEN EXCLUDED.store_created_at
+                                        ELSE s.store_created_at END
+            WHERE s.store_id = EXCLUDED.store_id
+               OR NOT (SELECT i.has_id FROM input i
+                       WHERE i.store_name = EXCLUDED.store_name
+                         AND i.store_location = EXCLUDED.store_location)
+            RETURNING s.store_id, s.store_name, s.store_location, s.store_created_at, (xmax = 0) AS inserted
+            """;
+
+    /**
+     * A record's storeId doesn't match the store that already has its name and location
+     */
+    public static class StoreIdMismatchException extends DataIntegrityViolationException {
+        public StoreIdMismatchException(String message) {
+            super(message);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StoreUpsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param records at most one record per (storeName, storeLocation) - the same row
+     *                can't be updated twice by one statement
+     */
+    public List<StoreUpsertResult> upsert(UUID userId, List<StoreDTO> records) {
+        UUID[] ids = new UUID[records.size()];
+        String[] names = new String[records.size()];
+        String[] locations = new String[records.size()];
+        String[] createdAt = new String[records.size()];
+        Boolean[] hasCreatedAt = new Boolean[records.size()];
+        Boolean[] hasId = new Boolean[records.size()];
+        for (int i = 0; i < records.size(); i++) {
+            StoreDTO record = records.get(i);
+            ids[i] = record.storeId() != null ? record.storeId() : UUID.randomUUID();
+            names[i] = record.storeName();
+            locations[i] = record.storeLocation();
+            createdAt[i] = record.storeCreatedAt() != null ? record.storeCreatedAt().toString() : null;
+            hasCreatedAt[i] = record.storeCreatedAt() != null;
+            hasId[i] = record.storeId() != null;
+        }
+
+        List<StoreUpsertResult> results = new ArrayList<>(records.size());
+        JfrJdbcCalls.record("StoreUpsertRepository", "upsert", () -> {
+            jdbcTemplate.query((Connection connection) -> {
+                PreparedStatement statement = connection.prepareStatement(UPSERT_SQL);
+                statement.setArray(1, array(connection, "uuid", ids));
+                statement.setArray(2, array(connection, "text", names));
+                statement.setArray(3, array(connection, "text", locations));
+                statement.setArray(4, array(connection, "text", createdAt));
+                statement.setArray(5, array(connection, "boolean", hasCreatedAt));
+                statement.setArray(6, array(connection, "boolean", hasId));
+                statement.setObject(7, userId);
+                return statement;
+            }, rs -> {
+                StoreDTO store = new StoreDTO(
+                        rs.getObject("store_id", UUID.class),
+                        rs.getString("store_name"),
+                        rs.getString("store_location"),
+                        rs.getTimestamp("store_created_at").toInstant(),
+                        userId);
+                results.add(new StoreUpsertResult(store, rs.getBoolean("inserted")));
+            });
+            return results;
+        });
+
+        if (results.size() < records.size()) {
+            // Only rows skipped by the storeId check are missing - the caller's transaction rolls back
+            Set<List<String>> written = new HashSet<>();
+            results.forEach(result -> written.add(List.of(result.store().storeName(), result.store().storeLocation())));
+            for (StoreDTO record : records) {
+                if (!written.contains(List.of(record.storeName(), record.storeLocation()))) {
+                    throw new StoreIdMismatchException("storeId " + record.storeId()
+                            + " doesn't match the existing store named '" + record.storeName()
+                            + "' at '" + record.storeLocation() + "'");
+                }
+            }
+        }
+        return results;
+    }
+
+    private static Array array(Connection connection, String type, Object[] values) throws SQLException {
+        return connection.createArrayOf(type, values);
+    }
+}
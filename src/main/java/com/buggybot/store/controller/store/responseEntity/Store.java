@@ -1,11 +1,15 @@
 package com.buggybot.store.controller.store.responseEntity;
 
 import com.buggybot.store.controller.user.entity.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -15,16 +19,21 @@ import java.util.UUID;
  *
  * Relationships:
  * - Many stores belong to one user (ManyToOne)
+ *
+ * Ids are assigned by us (client-supplied storeId or UUID.randomUUID()),
+ * not by Hibernate. The entity tells Spring Data whether it is new
+ * (Persistable), so save() of a new store is always a single INSERT:
+ * - no SELECT-then-merge for client-supplied ids
+ * - an id that already exists fails the INSERT (409) instead of overwriting
  */
 @Entity
 @Table(name = "stores")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Store {
+public class Store implements Persistable<UUID> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     @Column(name = "store_id", updatable = false, nullable = false)
     private UUID storeId;
 
@@ -51,10 +60,47 @@ public class Store {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    /**
+     * true until the store was persisted or loaded from the database
+     */
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean newEntity = true;
+
     // Constructor without auto-generated fields
     public Store(String storeName, String storeLocation, User user) {
         this.storeName = storeName;
         this.storeLocation = storeLocation;
         this.user = user;
     }
+
+    @Override
+    @JsonIgnore
+    public UUID getId() {
+        return storeId;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    /**
+     * Fallback for code paths that don't assign an id themselves
+     */
+    @PrePersist
+    void assignId() {
+        if (storeId == null) {
+            storeId = UUID.randomUUID();
+        }
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        newEntity = false;
+    }
 }
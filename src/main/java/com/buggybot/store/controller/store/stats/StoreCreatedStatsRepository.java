@@ -0,0 +1,74 @@
+package com.buggybot.store.controller.store.stats;
+
+import com.buggybot.store.controller.store.dto.StoreCreatedStats;
+import com.buggybot.store.controller.store.dto.StoreCreatedStatsQuery;
+import com.buggybot.store.observability.jfr.JfrJdbcCalls;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * StoreCreatedStatsRepository - Reads the store creation rollups
+ *
+ * store_created_hourly / _daily / _monthly are maintained by triggers on
+ * stores (V7) and filled for older stores by StoreRollupBackfill.
+ * None of the queries here touch stores.
+ *
+ * Plain JDBC (like StoreUpsertRepository): the rollups have no entity.
+ * Runs on the caller's shard connection.
+ */
+@Repository
+public class StoreCreatedStatsRepository {
+
+    public static final String USER_SQL = """
+            SELECT bucket_start, store_count FROM %s
+            WHERE user_id = ? AND bucket_start >= date_trunc(?, ?::timestamptz, 'UTC') AND bucket_start < ?
+              AND store_count > 0
+            ORDER BY bucket_start
+            """;
+
+    public static final String GLOBAL_SQL = """
+            SELECT bucket_start, sum(store_count) AS store_count FROM %s
+            WHERE bucket_start >= date_trunc(?, ?::timestamptz, 'UTC') AND bucket_start < ?
+            GROUP BY bucket_start
+            HAVING sum(store_count) > 0
+            ORDER BY bucket_start
+            """;
+
+    private static final RowMapper<StoreCreatedStats.BucketCount> BUCKET = (rs, i) -> new StoreCreatedStats.BucketCount(
+            rs.getObject("bucket_start", OffsetDateTime.class).toInstant(), rs.getLong("store_count"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StoreCreatedStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<StoreCreatedStats.BucketCount> findForUser(UUID userId, StoreCreatedStatsQuery query) {
+        return JfrJdbcCalls.record("StoreCreatedStatsRepository", "findForUser",
+                () -> jdbcTemplate.query(USER_SQL.formatted(table(query.bucket())), BUCKET,
+                        userId, query.bucket().unit(), Timestamp.from(query.from()), Timestamp.from(query.to())));
+    }
+
+    /**
+     * All users of this database (one shard), summed per bucket
+     */
+    public List<StoreCreatedStats.BucketCount> findGlobal(StoreCreatedStatsQuery query) {
+        return JfrJdbcCalls.record("StoreCreatedStatsRepository", "findGlobal",
+                () -> jdbcTemplate.query(GLOBAL_SQL.formatted(table(query.bucket())), BUCKET,
+                        query.bucket().unit(), Timestamp.from(query.from()), Timestamp.from(query.to())));
+    }
+
+    public static String table(StoreCreatedStatsQuery.Bucket bucket) {
+        return switch (bucket) {
+            case HOUR -> "store_created_hourly";
+            case DAY -> "store_created_daily";
+            case MONTH -> "store_created_monthly";
+        };
+    }
+}
@@ -0,0 +1,241 @@
+package com.buggybot.store.controller.store.stats;
+
+import com.buggybot.store.observability.jfr.JfrJdbcCalls;
+import com.buggybot.store.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * StoreRollupBackfill - Recomputes the store creation rollups and the
+ * per-location store counts from stores
+ *
+ * Why?
+ * - The triggers (V6, V7) only count writes made after the migration
+ * - Stores that already existed have to be counted once, and a rollup that
+ *   drifted (manual SQL with triggers disabled, ...) can be repaired the same way
+ * - Migrations only mark the backfill as due (pending_backfills), scanning stores
+ *   inside them would hold back all writes until the scan is done
+ *
+ * How it works (on every shard):
+ * - Users in keyset chunks (ordered by user_id), one short transaction per chunk
+ * - Nothing is replaced and no write is held back: each statement reads stores
+ *   and the counts in one snapshot, where the triggers left both consistent for
+ *   every committed write, and adds the difference like a trigger adds
+ *   (ON CONFLICT ... store_count + delta). A write committed after that snapshot
+ *   adds its own increment on top, so nothing is counted twice or missed.
+ * - Hourly from stores, then daily from hourly and monthly from daily (these see
+ *   the chunk's own hourly correction), then location counts from stores
+ * - Chunks of concurrent runs (instances starting together) take one advisory
+ *   lock, so the same difference is never added twice
+ * - Finally rows of users that no longer exist are removed
+ *
+ * Runs on the async executor, one backfill at a time per instance.
+ *
+ * Settings:
+ * - store.rollups.backfill-chunk (default 500) users per transaction
+ *
+ * Started at startup when a migration left a row in pending_backfills (removed
+ * once the shard is done), and by POST /actuator/storerollups. Progress on GET
+ * (StoreRollupEndpoint).
+ */
+@Component
+public class StoreRollupBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreRollupBackfill.class);
+
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    // Advisory lock key that serializes the chunks of concurrent backfills ("store_rl")
+    private static final long BACKFILL_LOCK = 0x73746f72655f726cL;
+
+    /*
+     * Adds (expected - current) to %1$s for the users of the chunk, where
+     * %2$s selects the expected (user_id, bucket_start, n) rows of one user u
+     */
+    private static final String CORRECT_ROLLUP_SQL = """
+            INSERT INTO %1$s AS r (user_id, bucket_start, store_count)
+            SELECT d.user_id, d.bucket_start, sum(d.n)
+            FROM unnest(?::uuid[]) AS u(user_id)
+            CROSS JOIN LATERAL (
+                %2$s
+                UNION ALL
+                SELECT t.user_id, t.bucket_start, -t.store_count FROM %1$s t WHERE t.user_id = u.user_id) d
+            GROUP BY 1, 2
+            HAVING sum(d.n) <> 0
+            ORDER BY 1, 2
+            ON CONFLICT (user_id, bucket_start) DO UPDATE SET store_count = r.store_count + EXCLUDED.store_count
+            """;
+
+    // Tables with one row set per user, cleaned of users that no longer exist
+    private static final List<String> PER_USER_TABLES =
+            List.of("store_created_hourly", "store_created_daily", "store_created_monthly", "store_location_counts");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile BackfillReport lastReport;
+
+    @Value("${store.rollups.backfill-chunk:500}")
+    private int chunkSize;
+
+    /**
+     * @param correctedRows rollup and count rows that had to change (0: nothing had drifted)
+     */
+    public record BackfillReport(int shards, long users, long correctedRows, long millis) {
+    }
+
+    private record ShardResult(long users, long correctedRows) {
+    }
+
+    public StoreRollupBackfill(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * @return the report of the last finished backfill, null if none ran yet
+     */
+    public BackfillReport lastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Run the backfill a migration asked for (pending_backfills on any shard)
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPending() {
+        List<String> pending = new ArrayList<>();
+        shardRouter.onEveryShard(() -> jdbcTemplate.queryForList("SELECT name FROM pending_backfills", String.class))
+                .forEach(pending::addAll);
+        if (pending.isEmpty()) {
+            return;
+        }
+        logger.atInfo()
+                .addKeyValue("pending", pending)
+                .log("Starting backfill requested by migrations");
+        backfill();
+    }
+
+    /**
+     * Correct all rollups and location counts (runs on the async executor)
+     */
+    @Async
+    public void backfill() {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Rollup backfill already running");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            List<ShardResult> results = shardRouter.onEveryShard(this::backfillShard);
+            BackfillReport report = new BackfillReport(results.size(),
+                    results.stream().mapToLong(ShardResult::users).sum(),
+                    results.stream().mapToLong(ShardResult::correctedRows).sum(),
+                    System.currentTimeMillis() - start);
+            lastReport = report;
+
+            logger.atInfo()
+                    .addKeyValue("shards", report.shards())
+                    .addKeyValue("users", report.users())
+                    .addKeyValue("correctedRows", report.correctedRows())
+                    .addKeyValue("millis", report.millis())
+                    .log("Backfilled store rollups");
+        } catch (RuntimeException e) {
+            logger.error("Rollup backfill failed, run it again", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ShardResult backfillShard() {
+        long users = 0;
+        long rows = 0;
+        UUID after = MIN_UUID;
+        while (true) {
+            List<UUID> ids = jdbcTemplate.queryForList("""
+                    SELECT user_id FROM users WHERE user_id > ?
+                    ORDER BY user_id LIMIT ?
+                    """, UUID.class, after, chunkSize);
+            if (ids.isEmpty()) break;
+
+            Integer corrected = transactionTemplate.execute(
+                    status -> JfrJdbcCalls.record("StoreRollupBackfill", "correct", () -> correct(ids)));
+            users += ids.size();
+            rows += corrected != null ? corrected : 0;
+
+            if (ids.size() < chunkSize) break;
+            after = ids.get(ids.size() - 1);
+        }
+        for (String table : PER_USER_TABLES) {
+            jdbcTemplate.update("DELETE FROM " + table
+                    + " r WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.user_id = r.user_id)");
+        }
+        jdbcTemplate.update("DELETE FROM pending_backfills");
+        return new ShardResult(users, rows);
+    }
+
+    /**
+     * Correct the rollups and location counts of these users, runs in its own transaction
+     */
+    private int correct(List<UUID> ids) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> { }, BACKFILL_LOCK);
+
+        UUID[] users = ids.toArray(UUID[]::new);
+        int corrected = update(CORRECT_ROLLUP_SQL.formatted("store_created_hourly", """
+                SELECT s.user_id, date_trunc('hour', s.store_created_at, 'UTC') AS bucket_start, 1 AS n
+                FROM stores s WHERE s.user_id = u.user_id"""), users);
+        corrected += update(CORRECT_ROLLUP_SQL.formatted("store_created_daily", """
+                SELECT h.user_id, date_trunc('day', h.bucket_start, 'UTC') AS bucket_start, h.store_count AS n
+                FROM store_created_hourly h WHERE h.user_id = u.user_id"""), users);
+        corrected += update(CORRECT_ROLLUP_SQL.formatted("store_created_monthly", """
+                SELECT y.user_id, date_trunc('month', y.bucket_start, 'UTC') AS bucket_start, y.store_count AS n
+                FROM store_created_daily y WHERE y.user_id = u.user_id"""), users);
+
+        // Same difference per (user, location), rows that drop to 0 are removed like the trigger does
+        corrected += update("""
+                INSERT INTO store_location_counts AS c (user_id, store_location, store_count)
+                SELECT d.user_id, d.store_location, sum(d.n)
+                FROM unnest(?::uuid[]) AS u(user_id)
+                CROSS JOIN LATERAL (
+                    SELECT s.user_id, s.store_location, 1 AS n FROM stores s WHERE s.user_id = u.user_id
+                    UNION ALL
+                    SELECT l.user_id, l.store_location, -l.store_count FROM store_location_counts l
+                    WHERE l.user_id = u.user_id) d
+                GROUP BY 1, 2
+                HAVING sum(d.n) <> 0
+                ORDER BY 1, 2
+                ON CONFLICT (user_id, store_location) DO UPDATE SET store_count = c.store_count + EXCLUDED.store_count
+                """, users);
+        update("DELETE FROM store_location_counts WHERE user_id = ANY(?) AND store_count <= 0", users);
+        return corrected;
+    }
+
+    private int update(String sql, UUID[] users) {
+        return jdbcTemplate.update(connection -> {
+            var statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("uuid", users));
+            return statement;
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package com.buggybot.store.controller.store.stats;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint for the store creation rollups
+ *
+ * - GET  /actuator/storerollups -> is a backfill running, report of the last one
+ * - POST /actuator/storerollups -> start recomputing all rollups from stores (StoreRollupBackfill),
+ *                                  202 right away, 409 if one is already running
+ *
+ * Needs a token with the store:admin scope (SecurityConfig).
+ */
+@Component
+@Endpoint(id = "storerollups")
+public class StoreRollupEndpoint {
+
+    private final StoreRollupBackfill backfill;
+
+    public record BackfillStatus(boolean running, StoreRollupBackfill.BackfillReport lastReport) {
+    }
+
+    public StoreRollupEndpoint(StoreRollupBackfill backfill) {
+        this.backfill = backfill;
+    }
+
+    @ReadOperation
+    public BackfillStatus status() {
+        return new BackfillStatus(backfill.isRunning(), backfill.lastReport());
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<BackfillStatus> backfill() {
+        if (backfill.isRunning()) {
+            return new WebEndpointResponse<>(status(), 409);
+        }
+        backfill.backfill();
+        return new WebEndpointResponse<>(new BackfillStatus(true, backfill.lastReport()), 202);
+    }
+}
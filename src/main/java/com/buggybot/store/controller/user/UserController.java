@@ -1,8 +1,12 @@
 package com.buggybot.store.controller.user;
 
 import com.buggybot.store.controller.common.ApiResponse;
+import com.buggybot.store.controller.common.FieldSelection;
+import com.buggybot.store.controller.common.PaginatedResponse;
 import com.buggybot.store.controller.user.dto.UserDTO;
+import com.buggybot.store.controller.user.dto.UserSummaryDTO;
 import com.buggybot.store.controller.user.entity.User;
+import com.buggybot.store.controller.user.repository.UserFieldsRepository;
 import com.buggybot.store.controller.user.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +27,7 @@ import java.util.stream.Collectors;
  * Endpoints:
  * - GET /api/user/me - Get current user profile
  * - GET /api/user/all - Get all users (admin)
+ * - GET /api/user/summary - Users with store count and newest store (admin dashboard, store:admin scope)
  * - PATCH /api/user/me - Update current user profile
  * - DELETE /api/user/me - Delete current user account
  *
@@ -50,21 +55,32 @@ public class UserController {
      * Authentication object is automatically injected by Spring Security
      * when a valid JWT token is present in the request header
      *
+     * Optional fields=userId,name trims the response to those fields
+     *
      * @param authentication Automatically injected by Spring Security
      * @return Current user's profile
      */
     @GetMapping("/me")
-    public ResponseEntity<ApiResponse<UserDTO>> getCurrentUser(Authentication authentication) {
+    public ResponseEntity<ApiResponse<?>> getCurrentUser(
+            @RequestParam(required = false) String fields,
+            Authentication authentication) {
         try {
-            logger.info("Getting current user profile");
+            logger.debug("Getting current user profile");
+            FieldSelection selection = FieldSelection.parse(fields, UserFieldsRepository.FIELDS);
 
             // Get or create user in database (auto-sync from Auth0)
             User user = userService.getOrCreateUser(authentication);
+            if (selection != null) {
+                return ResponseEntity.ok(new ApiResponse<>(true, null, userService.toFields(user, selection)));
+            }
 
             // Convert to DTO and return
             UserDTO userDTO = userService.toDTO(user);
             return ResponseEntity.ok(new ApiResponse<>(true, null, userDTO));
 
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponse<>(false, "Invalid fields: " + iae.getMessage(), null));
         } catch (Exception e) {
             logger.error("Error getting current user", e);
             return ResponseEntity.internalServerError()
@@ -76,11 +92,18 @@ public class UserController {
      * GET /api/user/all - Get all users
      *
      * This is an admin endpoint to see all users in the system
+     * Optional fields=userId,email selects only those columns
      */
     @GetMapping("/all")
-    public ResponseEntity<ApiResponse<List<UserDTO>>> getAllUsers(Authentication authentication) {
+    public ResponseEntity<ApiResponse<List<?>>> getAllUsers(
+            @RequestParam(required = false) String fields,
+            Authentication authentication) {
         try {
             logger.info("Getting all users");
+            FieldSelection selection = FieldSelection.parse(fields, UserFieldsRepository.FIELDS);
+            if (selection != null) {
+                return ResponseEntity.ok(new ApiResponse<>(true, null, userService.getAllUserFields(selection)));
+            }
 
             List<User> users = userService.getAllUsers();
             List<UserDTO> userDTOs = users.stream()
@@ -89,6 +112,9 @@ public class UserController {
 
             return ResponseEntity.ok(new ApiResponse<>(true, null, userDTOs));
 
+        } catch (IllegalArgumentException iae) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponse<>(false, "Invalid fields: " + iae.getMessage(), null));
         } catch (Exception e) {
             logger.error("Error getting all users", e);
             return ResponseEntity.internalServerError()
@@ -96,6 +122,37 @@ public class UserController {
         }
     }
 
+    /**
+     * GET /api/user/summary - Users with their store count and newest store (paginated)
+     *
+     * For the admin dashboard: replaces /api/user/all plus paging through
+     * every user's stores with one aggregate query per page.
+     * Needs a token with the store:admin scope (SecurityConfig) - 403 otherwise.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<ApiResponse<PaginatedResponse<UserSummaryDTO>>> getUserSummaries(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        try {
+            if (page < 1) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "Page number must be >= 1", null));
+            }
+            if (size < 1 || size > 500) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "Page size must be between 1 and 500", null));
+            }
+            logger.info("Getting user summaries");
+            return ResponseEntity.ok(new ApiResponse<>(true, null, userService.getUserSummaries(page, size)));
+
+        } catch (Exception e) {
+            logger.error("Error getting user summaries", e);
+            return ResponseEntity.internalServerError()
+                .body(new ApiResponse<>(false, "Failed to get user summaries", null));
+        }
+    }
+
     /**
      * PATCH /api/user/me - Update current user profile
      *
@@ -107,7 +164,11 @@ public class UserController {
             Authentication authentication) {
         try {
             User user = userService.getOrCreateUser(authentication);
-            logger.info("Updating user {} with: {}", user.getUserId(), updates);
+            // Log which fields change, not the (personal) values
+            logger.atInfo()
+                .addKeyValue("userId", user.getUserId())
+                .addKeyValue("fields", updates.keySet())
+                .log("Updating user");
 
             // Update name if provided
             if (updates.containsKey("name")) {
@@ -136,14 +197,20 @@ public class UserController {
      *
      * This deletes the user from our database (NOT from Auth0)
      * WARNING: This will also delete all stores owned by this user (cascade)
+     *
+     * Accounts with very many stores are purged in the background:
+     * the response is then 202 Accepted instead of 200 OK
      */
     @DeleteMapping("/me")
     public ResponseEntity<ApiResponse<Void>> deleteCurrentUser(Authentication authentication) {
         try {
             User user = userService.getOrCreateUser(authentication);
-            logger.info("Deleting user {}", user.getUserId());
+            logger.atInfo().addKeyValue("userId", user.getUserId()).log("Deleting user");
 
-            userService.deleteUser(user.getUserId());
+            if (userService.deleteUserOrSchedulePurge(user)) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new ApiResponse<>(true, "User deletion accepted, stores are being removed in the background", null));
+            }
 
             return ResponseEntity.ok(new ApiResponse<>(true, "User deleted successfully", null));
 
@@ -0,0 +1,32 @@
+package com.buggybot.store.controller.user.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * UserSummaryDTO - A user with aggregates over their stores
+ *
+ * Returned by GET /api/user/summary, one row per user.
+ *
+ * @param user                 the user, same shape as GET /api/user/me
+ * @param storeCount           number of stores the user owns
+ * @param latestStoreCreatedAt newest storeCreatedAt, null without stores
+ */
+public record UserSummaryDTO(
+    UserDTO user,
+
+    long storeCount,
+
+    Instant latestStoreCreatedAt
+) {
+    /**
+     * Flat form for the JPQL constructor expression (SELECT new UserSummaryDTO(u.userId, ...))
+     */
+    public UserSummaryDTO(UUID userId, String auth0Id, String email, String name,
+                          Instant createdAt, Instant updatedAt,
+                          Long storeCount, Instant latestStoreCreatedAt) {
+        this(new UserDTO(userId, auth0Id, email, name, createdAt, updatedAt),
+             storeCount != null ? storeCount : 0L,
+             latestStoreCreatedAt);
+    }
+}
@@ -0,0 +1,30 @@
+package com.buggybot.store.controller.user.repository;
+
+import com.buggybot.store.controller.common.FieldSelection;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UserFieldsRepository - Column-restricted user reads (fields=)
+ *
+ * Fragment of UserRepository, implemented in UserFieldsRepositoryImpl.
+ */
+public interface UserFieldsRepository {
+
+    /**
+     * JSON field name -> User attribute path, the fields a client may select
+     */
+    Map<String, String> FIELDS = Map.of(
+            "userId", "userId",
+            "auth0Id", "auth0Id",
+            "email", "email",
+            "name", "name",
+            "createdAt", "createdAt",
+            "updatedAt", "updatedAt");
+
+    /**
+     * SELECT <fields> FROM users
+     */
+    List<Map<String, Object>> findAllFields(FieldSelection fields);
+}
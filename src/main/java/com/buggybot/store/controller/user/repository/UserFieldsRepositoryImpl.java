@@ -0,0 +1,24 @@
+package com.buggybot.store.controller.user.repository;
+
+import com.buggybot.store.controller.common.FieldSelection;
+import com.buggybot.store.controller.user.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spring Data picks this up by name as the implementation of UserFieldsRepository
+ */
+class UserFieldsRepositoryImpl implements UserFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findAllFields(FieldSelection fields) {
+        return fields.find(entityManager, User.class, null, Sort.unsorted(), 0, -1);
+    }
+}
@@ -1,7 +1,13 @@
 package com.buggybot.store.controller.user.repository;
 
+import com.buggybot.store.controller.user.dto.UserSummaryDTO;
 import com.buggybot.store.controller.user.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -21,7 +27,7 @@ import java.util.UUID;
  * Spring Data JPA automatically implements these based on method names!
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID> {
+public interface UserRepository extends JpaRepository<User, UUID>, UserFieldsRepository {
 
     /**
      * Find a user by their Auth0 ID
@@ -46,4 +52,35 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      * Automatic query: SELECT COUNT(*) > 0 FROM users WHERE auth0_id = ?
      */
     boolean existsByAuth0Id(String auth0Id);
+
+    /**
+     * Delete the user row only
+     * SQL: DELETE FROM users WHERE user_id = ?
+     *
+     * deleteById() would load the user and cascade over User.stores one row at a time.
+     * Callers must delete the user's stores first (see StoreRepository.deleteAllByUserId).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM User u WHERE u.userId = :userId")
+    int deleteRowById(@Param("userId") UUID userId);
+
+    /**
+     * One page of users with their store count and newest store, in ONE query
+     * SQL: SELECT u.*, count(s.store_id), max(s.store_created_at)
+     *      FROM users u LEFT JOIN stores s ON s.user_id = u.user_id
+     *      GROUP BY u.user_id ORDER BY u.user_id LIMIT ? OFFSET ?
+     *
+     * The join only feeds the aggregates, User.stores is never loaded.
+     * Ordered by the primary key, so a page walks users_pkey and the
+     * (user_id, ...) store indexes instead of aggregating the whole table.
+     * Only valid without sharding (stores live on other databases otherwise).
+     */
+    @Query(value = "SELECT new com.buggybot.store.controller.user.dto.UserSummaryDTO("
+            + "u.userId, u.auth0Id, u.email, u.name, u.createdAt, u.updatedAt, "
+            + "COUNT(s.storeId), MAX(s.storeCreatedAt)) "
+            + "FROM User u LEFT JOIN u.stores s "
+            + "GROUP BY u.userId, u.auth0Id, u.email, u.name, u.createdAt, u.updatedAt "
+            + "ORDER BY u.userId",
+            countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserSummaryDTO> findSummaries(Pageable pageable);
 }
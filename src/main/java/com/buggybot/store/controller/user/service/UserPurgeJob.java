@@ -0,0 +1,104 @@
+package com.buggybot.store.controller.user.service;
+
+import com.buggybot.store.controller.store.repository.StoreRepository;
+import com.buggybot.store.controller.user.repository.UserRepository;
+import com.buggybot.store.invalidation.Invalidation;
+import com.buggybot.store.invalidation.InvalidationBus;
+import com.buggybot.store.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UserPurgeJob - Deletes huge accounts in the background
+ *
+ * Why?
+ * - A user with hundreds of thousands of stores can't be deleted in one
+ *   request without a huge transaction (long locks, big WAL burst)
+ * - Instead the stores are deleted in batches, each in its own short transaction
+ * - The user row goes last, together with any stores created meanwhile
+ *
+ * Only one purge per user runs at a time - repeated DELETE calls while a
+ * purge is running don't start another one.
+ */
+@Component
+public class UserPurgeJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserPurgeJob.class);
+
+    private final UserRepository userRepository;
+    private final StoreRepository storeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final InvalidationBus invalidationBus;
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+
+    @Value("${store.user-delete.batch-size:5000}")
+    private int batchSize;
+
+    public UserPurgeJob(UserRepository userRepository,
+                        StoreRepository storeRepository,
+                        PlatformTransactionManager transactionManager,
+                        ShardRouter shardRouter,
+                        InvalidationBus invalidationBus) {
+        this.userRepository = userRepository;
+        this.storeRepository = storeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.invalidationBus = invalidationBus;
+    }
+
+    /**
+     * Purge a user and all their stores (runs on the async executor)
+     */
+    @Async
+    public void purge(UUID userId) {
+        if (!running.add(userId)) {
+            logger.atInfo().addKeyValue("userId", userId).log("Purge already running");
+            return;
+        }
+        try {
+            long total = 0;
+            int deleted;
+            do {
+                Integer batch = shardRouter.inTransaction(userId, status -> {
+                    invalidationBus.publish(Invalidation.allStoresOf(userId));
+                    return storeRepository.deleteBatchByUserId(userId, batchSize);
+                });
+                deleted = batch != null ? batch : 0;
+                total += deleted;
+            } while (deleted == batchSize);
+
+            // Final transaction: stores created during the purge + the user row
+            // (sharded: the stores commit on the shard just before the user row)
+            Integer rest = transactionTemplate.execute(status -> {
+                int stores = shardRouter.inTransaction(userId, shard -> {
+                    invalidationBus.publish(Invalidation.allStoresOf(userId));
+                    return storeRepository.deleteAllByUserId(userId);
+                });
+                userRepository.deleteRowById(userId);
+                invalidationBus.publish(Invalidation.user(userId));
+                shardRouter.forgetUser(userId);
+                return stores;
+            });
+            total += rest != null ? rest : 0;
+
+            logger.atInfo()
+                    .addKeyValue("userId", userId)
+                    .addKeyValue("storesDeleted", total)
+                    .log("Purged user");
+        } catch (Exception e) {
+            logger.error("Purge of user {} failed", userId, e);
+        } finally {
+            running.remove(userId);
+        }
+    }
+}
@@ -1,16 +1,34 @@
 package com.buggybot.store.controller.user.service;
 
+import com.buggybot.store.controller.common.FieldSelection;
+import com.buggybot.store.controller.common.PaginatedResponse;
+import com.buggybot.store.controller.store.dto.UserStoreStats;
+import com.buggybot.store.controller.store.repository.StoreRepository;
 import com.buggybot.store.controller.user.dto.UserDTO;
+import com.buggybot.store.controller.user.dto.UserSummaryDTO;
 import com.buggybot.store.controller.user.entity.User;
 import com.buggybot.store.controller.user.repository.UserRepository;
+import com.buggybot.store.invalidation.Invalidation;
+import com.buggybot.store.invalidation.InvalidationBus;
+import com.buggybot.store.observability.ServerTiming;
+import com.buggybot.store.sharding.ShardRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -33,9 +51,24 @@ public class UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     private final UserRepository userRepository;
+    private final StoreRepository storeRepository;
+    private final UserPurgeJob userPurgeJob;
+    private final ShardRouter shardRouter;
+    private final InvalidationBus invalidationBus;
 
-    public UserService(UserRepository userRepository) {
+    /**
+     * Users with more stores than this are deleted in the background (202 Accepted)
+     */
+    @Value("${store.user-delete.background-threshold:10000}")
+    private long backgroundDeleteThreshold;
+
+    public UserService(UserRepository userRepository, StoreRepository storeRepository,
+                       UserPurgeJob userPurgeJob, ShardRouter shardRouter, InvalidationBus invalidationBus) {
         this.userRepository = userRepository;
+        this.storeRepository = storeRepository;
+        this.userPurgeJob = userPurgeJob;
+        this.shardRouter = shardRouter;
+        this.invalidationBus = invalidationBus;
     }
 
     /**
@@ -49,6 +82,12 @@ public class UserService {
      */
     @Transactional
     public User getOrCreateUser(Authentication authentication) {
+        try (ServerTiming.Phase phase = ServerTiming.time("user")) {
+            return findOrCreateUser(authentication);
+        }
+    }
+
+    private User findOrCreateUser(Authentication authentication) {
         // Extract JWT from authentication
         Jwt jwt = (Jwt) authentication.getPrincipal();
 
@@ -57,7 +96,8 @@ public class UserService {
         String email = jwt.getClaim("email");
         String name = jwt.getClaim("name");
 
-        logger.info("Getting or creating user - auth0Id: {}, email: {}", auth0Id, email);
+        // Runs on every authenticated request - keep it at DEBUG and leave the email out
+        logger.debug("Getting or creating user - auth0Id: {}", auth0Id);
 
         // Check if user exists in database
         Optional<User> existingUser = userRepository.findByAuth0Id(auth0Id);
@@ -71,7 +111,10 @@ public class UserService {
         // User doesn't exist - create new user
         User newUser = new User(auth0Id, email, name);
         User savedUser = userRepository.save(newUser);
-        logger.info("New user created in database: {} (auth0Id: {})", savedUser.getUserId(), auth0Id);
+        logger.atInfo()
+            .addKeyValue("userId", savedUser.getUserId())
+            .addKeyValue("auth0Id", auth0Id)
+            .log("New user created in database");
 
         return savedUser;
     }
@@ -126,23 +169,142 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * Get all users, only the selected columns (fields=)
+     */
+    public List<Map<String, Object>> getAllUserFields(FieldSelection fields) {
+        return userRepository.findAllFields(fields);
+    }
+
+    /**
+     * The selected fields of an already loaded user (GET /api/user/me?fields=)
+     * The user was just loaded by getOrCreateUser, so there is no query to narrow
+     */
+    public Map<String, Object> toFields(User user, FieldSelection fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("userId", user.getUserId());
+        values.put("auth0Id", user.getAuth0Id());
+        values.put("email", user.getEmail());
+        values.put("name", user.getName());
+        values.put("createdAt", user.getCreatedAt());
+        values.put("updatedAt", user.getUpdatedAt());
+        return fields.trim(values);
+    }
+
+    /**
+     * Users with their store count and newest store, one page at a time
+     *
+     * Not sharded: one LEFT JOIN ... GROUP BY query (UserRepository.findSummaries).
+     * Sharded: users live on the primary and their stores on the shards, so the page
+     * of users comes first, then one GROUP BY per shard for the ids of that page.
+     * Each user's numbers are taken from the shard that owns the user.
+     *
+     * No surrounding transaction on purpose: the connection is picked when a
+     * transaction begins, a shard query inside one would run on the primary.
+     *
+     * @param page 1-based page number
+     */
+    public PaginatedResponse<UserSummaryDTO> getUserSummaries(int page, int size) {
+        Page<UserSummaryDTO> summaries;
+        if (!shardRouter.isEnabled()) {
+            summaries = userRepository.findSummaries(PageRequest.of(page - 1, size));
+        } else {
+            Page<User> users = userRepository.findAll(PageRequest.of(page - 1, size, Sort.by("userId")));
+            List<UUID> ids = users.map(User::getUserId).getContent();
+
+            Map<UUID, UserStoreStats> stats = new HashMap<>();
+            if (!ids.isEmpty()) {
+                List<List<UserStoreStats>> perShard = shardRouter.onEveryShard(() -> storeRepository.statsByUserIds(ids));
+                for (int shard = 0; shard < perShard.size(); shard++) {
+                    for (UserStoreStats row : perShard.get(shard)) {
+                        // A user moved by the rebalancer can briefly have stores on two shards
+                        if (shardRouter.shardFor(row.userId()) == shard) {
+                            stats.put(row.userId(), row);
+                        }
+                    }
+                }
+            }
+
+            List<UserSummaryDTO> rows = new ArrayList<>(ids.size());
+            for (User user : users) {
+                UserStoreStats row = stats.get(user.getUserId());
+                rows.add(new UserSummaryDTO(toDTO(user),
+                        row != null ? row.storeCount() : 0L,
+                        row != null ? row.latestStoreCreatedAt() : null));
+            }
+            summaries = new PageImpl<>(rows, users.getPageable(), users.getTotalElements());
+        }
+
+        return new PaginatedResponse<>(
+                summaries.getContent(),
+                page,
+                summaries.getSize(),
+                summaries.getTotalElements(),
+                summaries.getTotalPages(),
+                summaries.isFirst(),
+                summaries.isLast()
+        );
+    }
+
     /**
      * Update user information
      */
     @Transactional
     public User updateUser(User user) {
-        logger.info("Updating user: {}", user.getUserId());
-        return userRepository.save(user);
+        logger.atInfo().addKeyValue("userId", user.getUserId()).log("Updating user");
+        User saved = userRepository.save(user);
+        invalidationBus.publish(Invalidation.user(user.getUserId()));
+        return saved;
     }
 
     /**
      * Delete user by ID
-     * WARNING: This will cascade delete all stores owned by this user
+     * WARNING: This deletes all stores owned by this user
+     *
+     * Set-based delete (2 statements, nothing loaded into memory):
+     * 1. DELETE FROM stores WHERE user_id = ?
+     * 2. DELETE FROM users WHERE user_id = ?
+     *
+     * userRepository.deleteById() would instead load every store through
+     * the User.stores cascade and delete them one statement at a time.
+     *
+     * Sharding enabled: statement 1 runs (and commits) on the user's shard first,
+     * the shard's copy of the user row is removed after the commit.
      */
     @Transactional
     public void deleteUser(UUID userId) {
-        logger.info("Deleting user: {}", userId);
-        userRepository.deleteById(userId);
+        int stores = shardRouter.inTransaction(userId, status -> {
+            invalidationBus.publish(Invalidation.allStoresOf(userId));
+            return storeRepository.deleteAllByUserId(userId);
+        });
+        userRepository.deleteRowById(userId);
+        invalidationBus.publish(Invalidation.user(userId));
+        shardRouter.forgetUser(userId);
+        logger.atInfo()
+            .addKeyValue("userId", userId)
+            .addKeyValue("storesDeleted", stores)
+            .log("Deleted user");
+    }
+
+    /**
+     * Delete a user now, or hand huge accounts to the background purge job
+     *
+     * @return true if the deletion was scheduled in the background,
+     *         false if the user is already deleted
+     */
+    @Transactional
+    public boolean deleteUserOrSchedulePurge(User user) {
+        long storeCount = shardRouter.inTransaction(user.getUserId(), status -> storeRepository.countByUser(user));
+        if (storeCount > backgroundDeleteThreshold) {
+            logger.atInfo()
+                .addKeyValue("userId", user.getUserId())
+                .addKeyValue("storeCount", storeCount)
+                .log("Scheduling background purge");
+            userPurgeJob.purge(user.getUserId());
+            return true;
+        }
+        deleteUser(user.getUserId());
+        return false;
     }
 
     /**
@@ -0,0 +1,47 @@
+package com.buggybot.store.invalidation;
+
+import java.util.UUID;
+
+/**
+ * Invalidation - "this entity changed", as sent over the invalidation bus
+ *
+ * Wire format (compact, many fit into one NOTIFY payload):
+ *   <type>:<id or ->:<userId or ->    e.g.  s:5f0c...:9a1b...
+ *
+ * @param type   STORE or USER
+ * @param id     the changed entity, null = all entities of that type for the user
+ * @param userId owning user (for a USER invalidation the user itself)
+ */
+public record Invalidation(String type, UUID id, UUID userId) {
+
+    public static final String STORE = "s";
+    public static final String USER = "u";
+
+    public static Invalidation store(UUID storeId, UUID userId) {
+        return new Invalidation(STORE, storeId, userId);
+    }
+
+    public static Invalidation allStoresOf(UUID userId) {
+        return new Invalidation(STORE, null, userId);
+    }
+
+    public static Invalidation user(UUID userId) {
+        return new Invalidation(USER, userId, userId);
+    }
+
+    String encode() {
+        return type + ':' + (id == null ? "-" : id) + ':' + (userId == null ? "-" : userId);
+    }
+
+    static Invalidation decode(String text) {
+        String[] parts = text.split(":", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed invalidation '" + text + "'");
+        }
+        return new Invalidation(parts[0], uuidOrNull(parts[1]), uuidOrNull(parts[2]));
+    }
+
+    private static UUID uuidOrNull(String text) {
+        return text.equals("-") ? null : UUID.fromString(text);
+    }
+}
@@ -0,0 +1,194 @@
+package com.buggybot.store.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * InvalidationBus - Evicts in-process caches on every instance after a write
+ *
+ * We run several instances, each with its own in-process caches (StorePageCache).
+ * A write on instance A has to evict the entries on B and C too.
+ *
+ * Publishing (publish() inside the write transaction):
+ * - Invalidations are collected per transaction, duplicates coalesced
+ * - Right before commit they go out as pg_notify(...) on the SAME connection:
+ *   PostgreSQL delivers them only if the transaction commits, and only after
+ *   the data is visible - no eviction for a rolled back write, no race
+ * - Many invalidations are packed into one NOTIFY (payload limit ~8000 bytes)
+ * - After commit the local caches are evicted directly
+ *
+ * Receiving: InvalidationListener LISTENs on every database (primary + shards)
+ * and hands payloads to receive(). Our own messages are skipped (already evicted).
+ *
+ * Listener connection lost: subscribers are told via onConnectionChange(false)
+ * and fall back to short TTLs (missed messages can't be replayed), reconnect
+ * triggers onConnectionChange(true).
+ *
+ * store.invalidation.enabled=false: local eviction only, no NOTIFY/LISTEN.
+ */
+@Component
+public class InvalidationBus {
+
+    public static final String CHANNEL = "store_invalidation";
+
+    // PostgreSQL rejects payloads of 8000 bytes or more
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean notifyEnabled;
+    private final List<Consumer<Invalidation>> subscribers = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Boolean>> connectionListeners = new CopyOnWriteArrayList<>();
+    private final Set<Integer> downListeners = Collections.synchronizedSet(new HashSet<>());
+
+    public InvalidationBus(JdbcTemplate jdbcTemplate,
+                           @Value("${store.invalidation.enabled:true}") boolean notifyEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.notifyEnabled = notifyEnabled;
+    }
+
+    /**
+     * Called for every invalidation, local or from another instance
+     */
+    public void subscribe(Consumer<Invalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Called with false when a listener connection drops, true when it is (re)connected
+     */
+    public void onConnectionChange(Consumer<Boolean> listener) {
+        connectionListeners.add(listener);
+    }
+
+    /**
+     * Publish an invalidation
+     *
+     * In a transaction: sent with the commit, evicted locally after the commit.
+     * Outside: evicted locally and sent right away.
+     */
+    public void publish(Invalidation invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(Set.of(invalidation));
+            if (notifyEnabled) {
+                send(Set.of(invalidation));
+            }
+            return;
+        }
+        pendingForCurrentTransaction().invalidations.add(invalidation);
+    }
+
+    /**
+     * One Pending per transaction - it is found among the transaction's own
+     * synchronizations, so a REQUIRES_NEW transaction gets its own
+     */
+    private Pending pendingForCurrentTransaction() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Pending pending && pending.bus() == this) {
+                return pending;
+            }
+        }
+        Pending pending = new Pending();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private class Pending implements TransactionSynchronization {
+
+        final Set<Invalidation> invalidations = new LinkedHashSet<>();
+
+        InvalidationBus bus() {
+            return InvalidationBus.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (notifyEnabled && !invalidations.isEmpty()) {
+                send(invalidations);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            dispatch(invalidations);
+        }
+    }
+
+    /**
+     * pg_notify on the current (transaction's) connection, packed into as few payloads as possible
+     */
+    private void send(Collection<Invalidation> invalidations) {
+        StringBuilder payload = new StringBuilder(nodeId);
+        for (Invalidation invalidation : invalidations) {
+            String encoded = invalidation.encode();
+            if (payload.length() + 1 + encoded.length() > MAX_PAYLOAD_BYTES) {
+                notify(payload.toString());
+                payload.setLength(0);
+                payload.append(nodeId);
+            }
+            payload.append(';').append(encoded);
+        }
+        notify(payload.toString());
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+    }
+
+    /**
+     * A NOTIFY payload from InvalidationListener
+     * The listener passes every payload of one poll, so a burst is coalesced into one dispatch.
+     */
+    void receive(List<String> payloads) {
+        Set<Invalidation> invalidations = new LinkedHashSet<>();
+        for (String payload : payloads) {
+            String[] parts = payload.split(";");
+            if (parts[0].equals(nodeId)) {
+                continue; // our own write, evicted after commit already
+            }
+            for (int i = 1; i < parts.length; i++) {
+                try {
+                    invalidations.add(Invalidation.decode(parts[i]));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Ignoring invalidation '{}': {}", parts[i], e.getMessage());
+                }
+            }
+        }
+        if (!invalidations.isEmpty()) {
+            dispatch(invalidations);
+        }
+    }
+
+    void listenerDown(int listener) {
+        if (downListeners.add(listener) && downListeners.size() == 1) {
+            connectionListeners.forEach(l -> l.accept(false));
+        }
+    }
+
+    void listenerUp(int listener) {
+        boolean wasDown = downListeners.remove(listener);
+        if (wasDown && downListeners.isEmpty()) {
+            connectionListeners.forEach(l -> l.accept(true));
+        }
+    }
+
+    private void dispatch(Collection<Invalidation> invalidations) {
+        for (Invalidation invalidation : invalidations) {
+            for (Consumer<Invalidation> subscriber : subscribers) {
+                subscriber.accept(invalidation);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.buggybot.store.invalidation;
+
+import com.buggybot.store.sharding.ShardDataSources;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * InvalidationConfig - Starts the LISTEN side of the invalidation bus
+ *
+ * On by default (store.invalidation.enabled=false turns NOTIFY and LISTEN off,
+ * caches are then only evicted on the instance that wrote).
+ *
+ * Settings:
+ * - store.invalidation.poll-timeout (default 500ms) longest wait per poll
+ * - store.invalidation.max-backoff  (default 30s) reconnect backoff cap
+ * - store.invalidation.fallback-ttl (default 10s) page cache TTL while disconnected (StorePageCache)
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "store.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class InvalidationConfig {
+
+    @Bean
+    public InvalidationListener invalidationListener(DataSource dataSource,
+                                                     ObjectProvider<ShardDataSources> shardDataSources,
+                                                     InvalidationBus bus,
+                                                     @Value("${store.invalidation.poll-timeout:500ms}") Duration pollTimeout,
+                                                     @Value("${store.invalidation.max-backoff:30s}") Duration maxBackoff) {
+        // Sharded: writes NOTIFY on the database they run on, so listen on all of them
+        List<DataSource> dataSources = new ArrayList<>();
+        ShardDataSources shards = shardDataSources.getIfAvailable();
+        if (shards != null) {
+            dataSources.add(shards.primary());
+            for (int i = 0; i < shards.size(); i++) {
+                dataSources.add(shards.shard(i));
+            }
+        } else {
+            dataSources.add(dataSource);
+        }
+        return new InvalidationListener(dataSources, bus, pollTimeout, maxBackoff);
+    }
+}
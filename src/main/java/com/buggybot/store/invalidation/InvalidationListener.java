@@ -0,0 +1,119 @@
+package com.buggybot.store.invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * InvalidationListener - LISTENs for invalidations of other instances
+ *
+ * NOTIFY only reaches listeners of the same database, so there is one thread
+ * per database (primary + every shard), each holding one connection of that
+ * database's pool for as long as it is connected.
+ *
+ * Loop per thread:
+ * 1. LISTEN store_invalidation
+ * 2. Wait up to poll-timeout for notifications, take everything that is queued
+ *    and hand it to the bus in one go (a burst becomes one eviction pass)
+ * 3. Connection error: report it to the bus (caches switch to the fallback TTL),
+ *    reconnect with exponential backoff (1s ... max-backoff)
+ */
+public class InvalidationListener implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationListener.class);
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+
+    private final List<DataSource> dataSources;
+    private final InvalidationBus bus;
+    private final Duration pollTimeout;
+    private final Duration maxBackoff;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    public InvalidationListener(List<DataSource> dataSources, InvalidationBus bus,
+                                Duration pollTimeout, Duration maxBackoff) {
+        this.dataSources = List.copyOf(dataSources);
+        this.bus = bus;
+        this.pollTimeout = pollTimeout;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < dataSources.size(); i++) {
+            int listener = i;
+            Thread thread = Thread.ofPlatform()
+                    .name("invalidation-listener-" + i)
+                    .daemon()
+                    .start(() -> listen(listener, dataSources.get(listener)));
+            threads.add(thread);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+        threads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen(int listener, DataSource dataSource) {
+        Duration backoff = INITIAL_BACKOFF;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + InvalidationBus.CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                bus.listenerUp(listener);
+                backoff = INITIAL_BACKOFF;
+                logger.info("Listening for invalidations on database {}", listener);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications != null && notifications.length > 0) {
+                        List<String> payloads = new ArrayList<>(notifications.length);
+                        for (PGNotification notification : notifications) {
+                            payloads.add(notification.getParameter());
+                        }
+                        bus.receive(payloads);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                bus.listenerDown(listener);
+                logger.warn("Invalidation listener on database {} lost its connection, retrying in {}: {}",
+                        listener, backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2);
+            } catch (RuntimeException e) {
+                // A subscriber failed - keep listening
+                logger.error("Invalidation dispatch failed on database {}", listener, e);
+            }
+        }
+    }
+}
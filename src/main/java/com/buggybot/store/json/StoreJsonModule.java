@@ -0,0 +1,238 @@
+package com.buggybot.store.json;
+
+import com.buggybot.store.controller.common.ApiResponse;
+import com.buggybot.store.controller.common.PaginatedResponse;
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.store.responseEntity.Store;
+import com.buggybot.store.controller.user.dto.UserDTO;
+import com.buggybot.store.controller.user.entity.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * StoreJsonModule - Hand-written serializers for the response types
+ *
+ * Why?
+ * - Jackson's default BeanSerializer goes through reflective property
+ *   accessors for every field of every row; a 1,000-store page is 5,000
+ *   property writes plus the lookups around them
+ * - These serializers write straight to the JsonGenerator (= the response
+ *   output stream), no intermediate tree, field names pre-encoded once
+ *
+ * Output is the same JSON as before (ISO-8601 instants, ApiResponse without
+ * null fields), except for Store: it writes "userId" instead of the lazy
+ * "user" association (which pulled in User.stores and recursed).
+ *
+ * Registered as a bean (JsonConfig), Spring Boot adds it to the ObjectMapper.
+ * Benchmark: src/jmh (./gradlew jmh).
+ */
+public class StoreJsonModule extends SimpleModule {
+
+    // Pre-encoded field names (quoted + escaped once, copied as bytes on write)
+    static final SerializableString STORE_ID = new SerializedString("storeId");
+    static final SerializableString STORE_NAME = new SerializedString("storeName");
+    static final SerializableString STORE_LOCATION = new SerializedString("storeLocation");
+    static final SerializableString STORE_CREATED_AT = new SerializedString("storeCreatedAt");
+    static final SerializableString USER_ID = new SerializedString("userId");
+    static final SerializableString AUTH0_ID = new SerializedString("auth0Id");
+    static final SerializableString EMAIL = new SerializedString("email");
+    static final SerializableString NAME = new SerializedString("name");
+    static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+    static final SerializableString CONTENT = new SerializedString("content");
+    static final SerializableString PAGE = new SerializedString("page");
+    static final SerializableString SIZE = new SerializedString("size");
+    static final SerializableString TOTAL_ELEMENTS = new SerializedString("totalElements");
+    static final SerializableString TOTAL_PAGES = new SerializedString("totalPages");
+    static final SerializableString FIRST = new SerializedString("first");
+    static final SerializableString LAST = new SerializedString("last");
+    static final SerializableString SUCCESS = new SerializedString("success");
+    static final SerializableString MESSAGE = new SerializedString("message");
+    static final SerializableString DATA = new SerializedString("data");
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public StoreJsonModule() {
+        super("StoreJsonModule");
+        addSerializer(Store.class, new StoreSerializer());
+        addSerializer(StoreDTO.class, new StoreDTOSerializer());
+        addSerializer(UserDTO.class, new UserDTOSerializer());
+        addSerializer((Class) PaginatedResponse.class, new PaginatedResponseSerializer());
+        addSerializer((Class) ApiResponse.class, new ApiResponseSerializer());
+    }
+
+    static void writeUuid(JsonGenerator gen, SerializableString field, UUID value) throws IOException {
+        gen.writeFieldName(field);
+        if (value == null) gen.writeNull(); else gen.writeString(value.toString());
+    }
+
+    static void writeString(JsonGenerator gen, SerializableString field, String value) throws IOException {
+        gen.writeFieldName(field);
+        if (value == null) gen.writeNull(); else gen.writeString(value);
+    }
+
+    // Same text as Jackson's InstantSerializer with WRITE_DATES_AS_TIMESTAMPS off (Spring Boot default)
+    static void writeInstant(JsonGenerator gen, SerializableString field, Instant value) throws IOException {
+        gen.writeFieldName(field);
+        if (value == null) gen.writeNull(); else gen.writeString(value.toString());
+    }
+
+    static class StoreSerializer extends StdSerializer<Store> {
+
+        StoreSerializer() {
+            super(Store.class);
+        }
+
+        @Override
+        public void serialize(Store store, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(store);
+            writeUuid(gen, STORE_ID, store.getStoreId());
+            writeString(gen, STORE_NAME, store.getStoreName());
+            writeString(gen, STORE_LOCATION, store.getStoreLocation());
+            writeInstant(gen, STORE_CREATED_AT, store.getStoreCreatedAt());
+            writeUuid(gen, USER_ID, userId(store.getUser()));
+            gen.writeEndObject();
+        }
+
+        /**
+         * Id of the (usually lazy) owner without initializing the proxy
+         */
+        private static UUID userId(User user) {
+            if (user == null) return null;
+            if (user instanceof HibernateProxy proxy) {
+                return (UUID) proxy.getHibernateLazyInitializer().getIdentifier();
+            }
+            return user.getUserId();
+        }
+    }
+
+    static class StoreDTOSerializer extends StdSerializer<StoreDTO> {
+
+        StoreDTOSerializer() {
+            super(StoreDTO.class);
+        }
+
+        @Override
+        public void serialize(StoreDTO store, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(store);
+            writeUuid(gen, STORE_ID, store.storeId());
+            writeString(gen, STORE_NAME, store.storeName());
+            writeString(gen, STORE_LOCATION, store.storeLocation());
+            writeInstant(gen, STORE_CREATED_AT, store.storeCreatedAt());
+            writeUuid(gen, USER_ID, store.userId());
+            gen.writeEndObject();
+        }
+    }
+
+    static class UserDTOSerializer extends StdSerializer<UserDTO> {
+
+        UserDTOSerializer() {
+            super(UserDTO.class);
+        }
+
+        @Override
+        public void serialize(UserDTO user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(user);
+            writeUuid(gen, USER_ID, user.userId());
+            writeString(gen, AUTH0_ID, user.auth0Id());
+            writeString(gen, EMAIL, user.email());
+            writeString(gen, NAME, user.name());
+            writeInstant(gen, CREATED_AT, user.createdAt());
+            writeInstant(gen, UPDATED_AT, user.updatedAt());
+            gen.writeEndObject();
+        }
+    }
+
+    static class PaginatedResponseSerializer extends StdSerializer<PaginatedResponse<?>> {
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        PaginatedResponseSerializer() {
+            super((Class) PaginatedResponse.class);
+        }
+
+        @Override
+        public void serialize(PaginatedResponse<?> page, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(page);
+            gen.writeFieldName(CONTENT);
+            writeContent(page.content(), gen, provider);
+            gen.writeFieldName(PAGE);
+            gen.writeNumber(page.page());
+            gen.writeFieldName(SIZE);
+            gen.writeNumber(page.size());
+            gen.writeFieldName(TOTAL_ELEMENTS);
+            gen.writeNumber(page.totalElements());
+            gen.writeFieldName(TOTAL_PAGES);
+            gen.writeNumber(page.totalPages());
+            gen.writeFieldName(FIRST);
+            gen.writeBoolean(page.first());
+            gen.writeFieldName(LAST);
+            gen.writeBoolean(page.last());
+            gen.writeEndObject();
+        }
+
+        /**
+         * Rows are all the same type: look the serializer up once, not per row
+         */
+        private static void writeContent(List<?> content, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            if (content == null) {
+                gen.writeNull();
+                return;
+            }
+            gen.writeStartArray(content, content.size());
+            Class<?> rowType = null;
+            JsonSerializer<Object> rowSerializer = null;
+            for (Object row : content) {
+                if (row == null) {
+                    gen.writeNull();
+                    continue;
+                }
+                if (row.getClass() != rowType) {
+                    rowType = row.getClass();
+                    rowSerializer = provider.findValueSerializer(rowType);
+                }
+                rowSerializer.serialize(row, gen, provider);
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    /**
+     * Keeps @JsonInclude(NON_NULL) of ApiResponse: message/data only when set
+     */
+    static class ApiResponseSerializer extends StdSerializer<ApiResponse<?>> {
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        ApiResponseSerializer() {
+            super((Class) ApiResponse.class);
+        }
+
+        @Override
+        public void serialize(ApiResponse<?> response, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(response);
+            gen.writeFieldName(SUCCESS);
+            gen.writeBoolean(response.success());
+            if (response.message() != null) {
+                gen.writeFieldName(MESSAGE);
+                gen.writeString(response.message());
+            }
+            if (response.data() != null) {
+                gen.writeFieldName(DATA);
+                provider.findValueSerializer(response.data().getClass()).serialize(response.data(), gen, provider);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
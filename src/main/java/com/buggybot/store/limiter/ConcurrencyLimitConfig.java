@@ -0,0 +1,81 @@
+package com.buggybot.store.limiter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * ConcurrencyLimitConfig - Adaptive load shedding for /api/*
+ *
+ * On by default (store.concurrency-limit.enabled=false turns it off). Settings:
+ * - store.concurrency-limit.initial-limit  (default 20)
+ * - store.concurrency-limit.min-limit      (default 5)
+ * - store.concurrency-limit.max-limit      (default 200, Tomcat's thread count)
+ * - store.concurrency-limit.tolerance      (default 1.5) latency vs normal still considered healthy
+ * - store.concurrency-limit.smoothing      (default 0.2)
+ * - store.concurrency-limit.retry-after    (default 1s)  Retry-After of the 503
+ * - store.concurrency-limit.bypass-paths   (default /api/auth/info) never limited
+ * - store.concurrency-limit.unsampled-paths (default the bulk endpoints: import, reconcile,
+ *   batch upsert, reactive stream) take a slot but never feed the GradientLimit
+ *
+ * Metrics (/actuator/metrics, store:admin scope):
+ * - store.concurrency.limit     current limit
+ * - store.concurrency.inflight  requests holding a slot
+ * - store.concurrency.rejected  requests answered with 503
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "store.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public GradientLimit gradientLimit(
+            @Value("${store.concurrency-limit.initial-limit:20}") int initialLimit,
+            @Value("${store.concurrency-limit.min-limit:5}") int minLimit,
+            @Value("${store.concurrency-limit.max-limit:200}") int maxLimit,
+            @Value("${store.concurrency-limit.tolerance:1.5}") double tolerance,
+            @Value("${store.concurrency-limit.smoothing:0.2}") double smoothing) {
+        return new GradientLimit(initialLimit, minLimit, maxLimit, tolerance, smoothing, 600);
+    }
+
+    /**
+     * Registered right after Spring Security: requests without a valid token get
+     * their 401 without taking a slot and never count as latency samples
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            GradientLimit gradientLimit,
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            @Value("${store.concurrency-limit.retry-after:1s}") Duration retryAfter,
+            @Value("${store.concurrency-limit.bypass-paths:/api/auth/info}") Set<String> bypassPaths,
+            @Value("${store.concurrency-limit.unsampled-paths:/api/store/import,/api/store/reconcile,"
+                    + "/api/store/upsert/batch,/api/store/reactive/stream}") Set<String> unsampledPaths) {
+        Counter rejected = Counter.builder("store.concurrency.rejected")
+                .description("Requests rejected with 503 by the concurrency limit")
+                .register(meterRegistry);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(gradientLimit, rejected, objectMapper,
+                bypassPaths, unsampledPaths, Math.max(1, retryAfter.toSeconds()));
+
+        Gauge.builder("store.concurrency.limit", gradientLimit, GradientLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("store.concurrency.inflight", filter, ConcurrencyLimitFilter::inflight)
+                .description("Requests currently holding a concurrency slot")
+                .register(meterRegistry);
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
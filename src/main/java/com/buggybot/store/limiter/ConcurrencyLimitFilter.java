@@ -0,0 +1,139 @@
+package com.buggybot.store.limiter;
+
+import com.buggybot.store.controller.common.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ConcurrencyLimitFilter - Sheds load before it piles up on Tomcat threads
+ *
+ * Every /api request takes a slot. When all slots of the current GradientLimit
+ * are taken, the request is answered right away with 503 + Retry-After instead
+ * of waiting for a database connection along with everyone else.
+ *
+ * Not limited (always served):
+ * - /actuator/** (health checks, metrics) - the filter isn't mapped there
+ * - the bypass paths (default /api/auth/info)
+ *
+ * Limited but never a latency sample:
+ * - the bulk paths (CSV import, reconcile, batch upsert, NDJSON stream) - they run
+ *   for seconds by design, their duration says nothing about queueing
+ * - async (Mono/Flux) responses - the slot is held until the response is written,
+ *   but that time includes the client's read speed
+ * They still hold a slot: they occupy a Tomcat thread and database connections
+ * like any other request.
+ *
+ * Runs after Spring Security (ConcurrencyLimitConfig): unauthenticated requests
+ * are answered with 401 there and never take a slot or feed the GradientLimit.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final GradientLimit limit;
+    private final Counter rejected;
+    private final ObjectMapper objectMapper;
+    private final Set<String> bypassPaths;
+    private final Set<String> unsampledPaths;
+    private final String retryAfterSeconds;
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    public ConcurrencyLimitFilter(GradientLimit limit, Counter rejected, ObjectMapper objectMapper,
+                                  Set<String> bypassPaths, Set<String> unsampledPaths, long retryAfterSeconds) {
+        this.limit = limit;
+        this.rejected = rejected;
+        this.objectMapper = objectMapper;
+        this.bypassPaths = Set.copyOf(bypassPaths);
+        this.unsampledPaths = Set.copyOf(unsampledPaths);
+        this.retryAfterSeconds = Long.toString(retryAfterSeconds);
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return bypassPaths.contains(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        int current = inflight.incrementAndGet();
+        if (current > limit.getLimit()) {
+            inflight.decrementAndGet();
+            rejected.increment();
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean sampled = !unsampledPaths.contains(path(request));
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed && request.isAsyncStarted()) {
+                // Mono/Flux responses (reactive read path): the slot is held until the response is written
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+            } else if (sampled) {
+                release(start, current, !completed || response.getStatus() >= 500);
+            } else {
+                inflight.decrementAndGet();
+            }
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private void release(long start, int inflightAtStart, boolean dropped) {
+        inflight.decrementAndGet();
+        limit.onSample(System.nanoTime() - start, inflightAtStart, dropped);
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ApiResponse<>(false, "Server busy, retry after " + retryAfterSeconds + "s", null));
+    }
+
+    private class ReleaseOnComplete implements AsyncListener {
+
+        // onComplete also follows a timeout or error, release exactly once there.
+        // No sample: the time includes however long the client takes to read the body
+        @Override
+        public void onComplete(AsyncEvent event) {
+            inflight.decrementAndGet();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.buggybot.store.limiter;
+
+/**
+ * GradientLimit - Concurrency limit that follows the observed latency
+ *
+ * Idea (same as Netflix' Gradient2 limiter):
+ * - Keep a long-term average of the request latency (what "healthy" looks like)
+ * - Compare each new latency with it:
+ *     gradient = tolerance * longRtt / rtt     (clamped to 0.5 .. 1.0)
+ *   Latency at or below normal -> gradient 1.0, the limit grows by sqrt(limit)
+ *   Latency rising (queueing in Tomcat / Hikari) -> gradient < 1, the limit shrinks
+ * - 5xx / exceptions (e.g. Hikari connection timeout) cut the limit
+ *   multiplicatively (AIMD backoff)
+ * - Only learn while the limit is actually used (inflight >= limit / 2):
+ *   an idle service gives no evidence that more concurrency is fine, and its
+ *   latency is no baseline for a loaded one
+ *
+ * Changes are smoothed so a single slow request doesn't swing the limit, and an
+ * outlier is capped before it enters the long-term average.
+ */
+public class GradientLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double longRttAlpha;
+    private final double initialLimit;
+
+    private volatile double limit;
+    private double longRttNanos;
+
+    /**
+     * @param initialLimit  starting concurrency
+     * @param minLimit      never go below (keeps the service reachable)
+     * @param maxLimit      never go above (e.g. Tomcat thread count)
+     * @param tolerance     how much slower than normal still counts as healthy (1.5 = 50%)
+     * @param smoothing     0..1, weight of a new limit against the current one
+     * @param longRttWindow number of samples the long-term latency averages over
+     */
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit,
+                         double tolerance, double smoothing, int longRttWindow) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Need 1 <= min-limit <= max-limit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longRttAlpha = 2.0 / (longRttWindow + 1);
+        this.initialLimit = clamp(initialLimit, minLimit, maxLimit);
+        this.limit = this.initialLimit;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Forget all samples: initial limit, no latency baseline
+     * (after synthetic traffic such as the startup warmup)
+     */
+    public synchronized void reset() {
+        limit = initialLimit;
+        longRttNanos = 0;
+    }
+
+    /**
+     * Feed one finished request
+     *
+     * @param rttNanos request latency
+     * @param inflight concurrent requests when it started
+     * @param dropped  failed with a server error
+     */
+    public synchronized void onSample(long rttNanos, int inflight, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            return;
+        }
+        // Idle: neither the limit nor the baseline learns from it - an idle service
+        // is fast, a baseline trained there would make any real load look like queueing
+        if (inflight < limit / 2) {
+            return;
+        }
+
+        double rtt = Math.max(1, rttNanos);
+        if (longRttNanos == 0) {
+            longRttNanos = rtt;
+        } else {
+            // A single outlier (GC pause, a bulk request) counts as at most twice the normal
+            // latency - a real slowdown still moves the baseline, one sample can't inflate it
+            double baselineSample = Math.min(rtt, longRttNanos * 2);
+            longRttNanos = longRttNanos * (1 - longRttAlpha) + baselineSample * longRttAlpha;
+        }
+        // After a long overload the average itself is inflated - let it recover quickly
+        if (longRttNanos / rtt > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = clamp(tolerance * longRttNanos / rtt, 0.5, 1.0);
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - smoothing) + newLimit * smoothing, minLimit, maxLimit);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
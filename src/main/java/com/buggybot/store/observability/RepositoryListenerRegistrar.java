@@ -0,0 +1,34 @@
+package com.buggybot.store.observability;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * RepositoryListenerRegistrar - Hooks listeners into every Spring Data repository
+ *
+ * Spring Data reports each repository method call (method, duration, outcome)
+ * to RepositoryMethodInvocationListeners. This adds every listener bean in the
+ * context to every repository factory - no changes to the repositories needed.
+ */
+@Component
+public class RepositoryListenerRegistrar implements BeanPostProcessor {
+
+    private final ObjectProvider<RepositoryMethodInvocationListener> listeners;
+
+    public RepositoryListenerRegistrar(ObjectProvider<RepositoryMethodInvocationListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory ->
+                    listeners.orderedStream().forEach(factory::addInvocationListener));
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,103 @@
+package com.buggybot.store.observability;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * SamplingFilter - Keeps only a fraction of hot-path INFO events
+ *
+ * Why sample?
+ * - Every request through the store API writes several INFO lines
+ * - At high volume most of them say the same thing ("fetched page 1 for user X")
+ * - Keeping e.g. 10% of them is enough to see traffic shape in the logs
+ *
+ * How it works:
+ * - Only events marked SAMPLED are candidates - call sites opt in with
+ *   logger.atInfo().addMarker(SamplingFilter.SAMPLED) on their per-request lines.
+ *   Everything else (audit events, jobs, imports, purges, ...) always passes.
+ * - Configured with "loggerPrefix=rate" pairs, e.g.
+ *   "com.buggybot.store.controller=0.1,com.buggybot.store.controller.user=0.05"
+ * - The longest matching prefix wins, loggers without a match are not sampled
+ * - Only INFO (and below) is sampled - WARN and ERROR always pass through
+ *
+ * Why an appender filter and not a TurboFilter?
+ * - Events logged with the fluent API (logger.atInfo().addKeyValue(...).log(...))
+ *   reach turbo filters with a null format, exactly like isInfoEnabled() checks,
+ *   so a turbo filter can't tell them apart and can't sample them
+ * - Here every event is a real event: one dice roll per event, before it is queued
+ */
+public class SamplingFilter extends Filter<ILoggingEvent> {
+
+    /**
+     * Marks a per-request event that may be sampled
+     */
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private record Rule(String prefix, double rate) { }
+
+    private volatile List<Rule> rules = List.of();
+    private final DoubleSupplier random;
+
+    public SamplingFilter() {
+        this(() -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    SamplingFilter(DoubleSupplier random) {
+        this.random = random;
+    }
+
+    /**
+     * Called by logback with the value of the <rates> element
+     */
+    public void setRates(String rates) {
+        List<Rule> parsed = new ArrayList<>();
+        if (rates != null) {
+            for (String entry : rates.split(",")) {
+                String trimmed = entry.trim();
+                int eq = trimmed.lastIndexOf('=');
+                if (trimmed.isEmpty() || eq <= 0) {
+                    continue;
+                }
+                double rate = Double.parseDouble(trimmed.substring(eq + 1).trim());
+                parsed.add(new Rule(trimmed.substring(0, eq).trim(), Math.max(0.0, Math.min(1.0, rate))));
+            }
+        }
+        // Longest prefix first so the most specific rule is found first
+        parsed.sort(Comparator.comparingInt((Rule r) -> r.prefix().length()).reversed());
+        this.rules = List.copyOf(parsed);
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (event.getLevel().isGreaterOrEqual(Level.WARN) || event.getThrowableProxy() != null) {
+            return FilterReply.NEUTRAL;
+        }
+        List<Marker> markers = event.getMarkerList();
+        if (markers == null || !markers.contains(SAMPLED)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        String name = event.getLoggerName();
+        for (Rule rule : rules) {
+            if (name.startsWith(rule.prefix())) {
+                if (rule.rate() >= 1.0) {
+                    return FilterReply.NEUTRAL;
+                }
+                return random.getAsDouble() < rule.rate()
+                        ? FilterReply.NEUTRAL
+                        : FilterReply.DENY;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
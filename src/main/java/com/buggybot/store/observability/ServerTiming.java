@@ -0,0 +1,132 @@
+package com.buggybot.store.observability;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * ServerTiming - Phase timings of the current request
+ *
+ * Phases (names used in the Server-Timing header):
+ * - auth  time until the request reached the controller (JWT decoding, security filters)
+ * - user  UserService.getOrCreateUser
+ * - db    all repository calls (sum), with the number of calls
+ * - app   time until the response body is handed to Jackson
+ * - ser   Jackson serialization + writing the body
+ * - total whole request
+ *
+ * One instance per request, bound to the request thread by ServerTimingFilter.
+ * When Server-Timing is disabled nothing is bound and every static method
+ * is a ThreadLocal lookup that returns immediately.
+ */
+public final class ServerTiming {
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private static final Phase NO_OP = () -> { };
+
+    /**
+     * Handle returned by time(), closing it records the elapsed time
+     */
+    @FunctionalInterface
+    public interface Phase extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private record Entry(long nanos, int count) { }
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Entry> phases = new LinkedHashMap<>();
+    private long serializationStartNanos;
+
+    static ServerTiming bind() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Time a block: try (var phase = ServerTiming.time("user")) { ... }
+     */
+    public static Phase time(String name) {
+        ServerTiming timing = CURRENT.get();
+        if (timing == null) {
+            return NO_OP;
+        }
+        long start = System.nanoTime();
+        return () -> timing.add(name, System.nanoTime() - start);
+    }
+
+    /**
+     * Add an already measured duration to a phase (sums up repeated calls)
+     */
+    public static void record(String name, long nanos) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.add(name, nanos);
+        }
+    }
+
+    /**
+     * Record a phase that ends now and started when the request started
+     */
+    void markSinceStart(String name) {
+        phases.putIfAbsent(name, new Entry(System.nanoTime() - startNanos, 1));
+    }
+
+    void markSerializationStart() {
+        if (serializationStartNanos == 0) {
+            serializationStartNanos = System.nanoTime();
+            markSinceStart("app");
+        }
+    }
+
+    /**
+     * Serialization time, or -1 if no body was written through Jackson yet
+     */
+    long serializationNanos() {
+        return serializationStartNanos == 0 ? -1 : System.nanoTime() - serializationStartNanos;
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    synchronized void add(String name, long nanos) {
+        phases.merge(name, new Entry(nanos, 1), (a, b) -> new Entry(a.nanos() + b.nanos(), a.count() + b.count()));
+    }
+
+    /**
+     * Header value, e.g. auth;dur=1.20, user;dur=3.41, db;dur=5.10;desc="3 calls", app;dur=9.87
+     */
+    synchronized String toHeaderValue() {
+        StringJoiner header = new StringJoiner(", ");
+        phases.forEach((name, entry) -> {
+            String value = name + ";dur=" + millis(entry.nanos());
+            if (entry.count() > 1) {
+                value += ";desc=\"" + entry.count() + " calls\"";
+            }
+            header.add(value);
+        });
+        return header.toString();
+    }
+
+    synchronized Map<String, String> toLogFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        phases.forEach((name, entry) -> fields.put(name + "Ms", millis(entry.nanos())));
+        return fields;
+    }
+
+    static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,70 @@
+package com.buggybot.store.observability;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ServerTimingConfig - Per-request phase timing (Server-Timing response header)
+ *
+ * Enabled with store.server-timing.enabled=true (off by default).
+ * When disabled none of these beans exist, and the ServerTiming.time(...) calls
+ * in the services are a ThreadLocal lookup returning a no-op.
+ *
+ * Settings:
+ * - store.server-timing.slow-threshold (default 500ms) - log requests slower than this
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "store.server-timing.enabled", havingValue = "true")
+public class ServerTimingConfig implements WebMvcConfigurer {
+
+    /**
+     * Registered ahead of Spring Security's filter chain so auth time is included
+     */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+            @Value("${store.server-timing.slow-threshold:500ms}") Duration slowThreshold) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(slowThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    /**
+     * Adds every repository call to the "db" phase
+     */
+    @Bean
+    public RepositoryMethodInvocationListener serverTimingRepositoryListener() {
+        return invocation -> ServerTiming.record("db", invocation.getDuration(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * The controller is about to run: everything before it counts as "auth"
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                ServerTiming timing = ServerTiming.current();
+                if (timing != null) {
+                    timing.markSinceStart("auth");
+                }
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+}
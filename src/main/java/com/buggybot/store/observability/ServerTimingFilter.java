@@ -0,0 +1,73 @@
+package com.buggybot.store.observability;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * ServerTimingFilter - Starts the request timing and logs slow requests
+ *
+ * Runs before Spring Security, so the "auth" phase covers JWT decoding.
+ * The Server-Timing header itself is added by ServerTimingResponseAdvice
+ * right before the body is written (headers can't be changed afterwards).
+ *
+ * Requests slower than store.server-timing.slow-threshold are logged at WARN
+ * with every phase as a structured field, including serialization.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Server-Timing";
+
+    private static final Logger logger = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    private final long slowThresholdNanos;
+
+    public ServerTimingFilter(Duration slowThreshold) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ServerTiming timing = ServerTiming.bind();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ServerTiming.unbind();
+
+            // No body through Jackson (e.g. 401 from the security chain): header not set yet
+            if (!response.isCommitted() && !response.containsHeader(HEADER)) {
+                timing.markSinceStart("app");
+                response.setHeader(HEADER, timing.toHeaderValue());
+            }
+
+            long total = timing.elapsedNanos();
+            if (total >= slowThresholdNanos) {
+                logSlowRequest(request, response, timing, total);
+            }
+        }
+    }
+
+    private void logSlowRequest(HttpServletRequest request, HttpServletResponse response,
+                                ServerTiming timing, long totalNanos) {
+        LoggingEventBuilder event = logger.atWarn()
+                .addKeyValue("method", request.getMethod())
+                .addKeyValue("path", request.getRequestURI())
+                .addKeyValue("status", response.getStatus())
+                .addKeyValue("totalMs", ServerTiming.millis(totalNanos));
+        timing.toLogFields().forEach(event::addKeyValue);
+        long serialization = timing.serializationNanos();
+        if (serialization >= 0) {
+            event.addKeyValue("serMs", ServerTiming.millis(serialization));
+        }
+        event.log("Slow request");
+    }
+}
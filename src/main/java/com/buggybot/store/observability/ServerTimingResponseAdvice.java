@@ -0,0 +1,60 @@
+package com.buggybot.store.observability;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+/**
+ * ServerTimingResponseAdvice - Writes the Server-Timing header
+ *
+ * Called after the controller returned and right before Jackson writes the body:
+ * the last moment response headers can still be set.
+ *
+ * Serialization time can only be known after the body is written, so it is sent
+ * as an HTTP trailer (ser;dur=...) to clients that ask for trailers (TE: trailers).
+ * It is always part of the slow request log.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "store.server-timing.enabled", havingValue = "true")
+public class ServerTimingResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            return body;
+        }
+
+        timing.markSerializationStart();
+        response.getHeaders().set(ServerTimingFilter.HEADER, timing.toHeaderValue());
+
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && response instanceof ServletServerHttpResponse servletResponse) {
+            String te = servletRequest.getServletRequest().getHeader("TE");
+            if (te != null && te.contains("trailers")) {
+                HttpServletResponse raw = servletResponse.getServletResponse();
+                response.getHeaders().set("Trailer", ServerTimingFilter.HEADER);
+                raw.setTrailerFields(() -> Map.of(ServerTimingFilter.HEADER,
+                        "ser;dur=" + ServerTiming.millis(timing.serializationNanos())));
+            }
+        }
+        return body;
+    }
+}
@@ -0,0 +1,37 @@
+package com.buggybot.store.observability;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * StartupTimeLogger - Logs how long it took to become ready
+ *
+ * JVM uptime at ApplicationReadyEvent = time from process start until the app serves traffic.
+ * scripts/startup-benchmark.sh reads the "startupMillis" field from this line
+ * to compare the plain jar with the AOT/CDS launch profile.
+ *
+ * Runs before every other ApplicationReadyEvent listener (StartupWarmup in particular),
+ * so the number doesn't depend on listener order.
+ */
+@Component
+public class StartupTimeLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimeLogger.class);
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void logStartupTime(ApplicationReadyEvent event) {
+        logger.atInfo()
+            .addKeyValue("startupMillis", ManagementFactory.getRuntimeMXBean().getUptime())
+            .addKeyValue("contextMillis", event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : null)
+            .addKeyValue("aot", Boolean.getBoolean("spring.aot.enabled"))
+            .log("Application ready");
+    }
+}
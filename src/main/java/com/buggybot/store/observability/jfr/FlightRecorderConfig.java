@@ -0,0 +1,46 @@
+package com.buggybot.store.observability.jfr;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * FlightRecorderConfig - Continuous profiling with JDK Flight Recorder
+ *
+ * On by default (store.jfr.enabled=false turns it off). Settings:
+ * - store.jfr.max-age   (default 30m)    how much history is kept
+ * - store.jfr.max-size  (default 256MB)  disk limit of the ring buffer
+ * - store.jfr.dump-dir  (default <tmp>/store-jfr) where dumps are written
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "store.jfr.enabled", havingValue = "true", matchIfMissing = true)
+public class FlightRecorderConfig {
+
+    @Bean
+    public FlightRecorderService flightRecorderService(
+            @Value("${store.jfr.max-age:30m}") Duration maxAge,
+            @Value("${store.jfr.max-size:256MB}") DataSize maxSize,
+            @Value("${store.jfr.dump-dir:${java.io.tmpdir}/store-jfr}") String dumpDir) {
+        return new FlightRecorderService(maxAge, maxSize.toBytes(), Path.of(dumpDir));
+    }
+
+    @Bean
+    public JfrRepositoryListener jfrRepositoryListener() {
+        return new JfrRepositoryListener();
+    }
+
+    @Bean
+    public FlightRecorderEndpoints.Dump jfrDumpEndpoint(FlightRecorderService flightRecorderService) {
+        return new FlightRecorderEndpoints.Dump(flightRecorderService);
+    }
+
+    @Bean
+    public FlightRecorderEndpoints.Summary jfrSummaryEndpoint(FlightRecorderService flightRecorderService) {
+        return new FlightRecorderEndpoints.Summary(flightRecorderService);
+    }
+}
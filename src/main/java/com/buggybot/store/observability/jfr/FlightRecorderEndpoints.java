@@ -0,0 +1,62 @@
+package com.buggybot.store.observability.jfr;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Actuator endpoints on top of the continuous flight recording
+ *
+ * - GET /actuator/jfrdump?minutes=5           -> .jfr file of the last N minutes
+ *                                                (open with JDK Mission Control)
+ * - GET /actuator/jfrsummary?minutes=5&top=10 -> JSON: hot methods, allocation sites,
+ *                                                lock contention, repository latency
+ *
+ * Both need a token with the store:admin scope (SecurityConfig).
+ */
+public final class FlightRecorderEndpoints {
+
+    private FlightRecorderEndpoints() {
+    }
+
+    @Endpoint(id = "jfrdump")
+    public static class Dump {
+
+        private final FlightRecorderService recorder;
+
+        public Dump(FlightRecorderService recorder) {
+            this.recorder = recorder;
+        }
+
+        @ReadOperation(produces = "application/octet-stream")
+        public Resource dump(@OptionalParameter Integer minutes) throws IOException {
+            return new FileSystemResource(recorder.dumpLast(JfrSummarizer.window(minutes)));
+        }
+    }
+
+    @Endpoint(id = "jfrsummary")
+    public static class Summary {
+
+        private final FlightRecorderService recorder;
+
+        public Summary(FlightRecorderService recorder) {
+            this.recorder = recorder;
+        }
+
+        @ReadOperation
+        public JfrSummary summary(@OptionalParameter Integer minutes, @OptionalParameter Integer top)
+                throws IOException {
+            Duration window = JfrSummarizer.window(minutes);
+            Instant to = Instant.now();
+            // Own dump file: a concurrent jfrdump/jfrsummary can't replace it while we read
+            return recorder.readLast(window, dump ->
+                    new JfrSummarizer().summarize(dump, to.minus(window), to, top != null && top > 0 ? top : 10));
+        }
+    }
+}
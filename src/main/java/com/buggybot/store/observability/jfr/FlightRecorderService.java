@@ -0,0 +1,150 @@
+package com.buggybot.store.observability.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * FlightRecorderService - Continuous, low-overhead JDK Flight Recorder session
+ *
+ * What is JFR?
+ * - A profiler built into the JVM (CPU samples, allocations, locks, GC, I/O ...)
+ * - With the "default" settings its overhead is around 1%, so it can always run
+ *
+ * How we use it:
+ * - One recording starts with the application and runs until shutdown
+ * - It's a ring buffer: data older than maxAge (or beyond maxSize) is dropped
+ * - dumpLast(minutes) writes the recent part to a file on demand,
+ *   readLast(minutes, reader) hands it to a reader and deletes it again
+ * - Every call dumps into its own temp files, so concurrent requests never
+ *   read or overwrite each other's dump
+ *
+ * Settings:
+ * - store.jfr.max-age  (default 30m) - how far back a dump can go
+ * - store.jfr.max-size (default 256MB) - disk space for the ring buffer
+ */
+public class FlightRecorderService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderService.class);
+
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Path dumpDirectory;
+    private volatile Recording recording;
+
+    public FlightRecorderService(Duration maxAge, long maxSizeBytes, Path dumpDirectory) {
+        this.maxAge = maxAge;
+        this.maxSizeBytes = maxSizeBytes;
+        this.dumpDirectory = dumpDirectory;
+    }
+
+    @Override
+    public void start() {
+        if (!FlightRecorder.isAvailable()) {
+            logger.warn("Flight Recorder not available in this JVM - continuous recording disabled");
+            return;
+        }
+        try {
+            Recording continuous = new Recording(Configuration.getConfiguration("default"));
+            continuous.setName("store-continuous");
+            continuous.setToDisk(true);
+            continuous.setMaxAge(maxAge);
+            continuous.setMaxSize(maxSizeBytes);
+            // Our own event, see RepositoryCallEvent
+            continuous.enable(RepositoryCallEvent.NAME);
+            continuous.start();
+            recording = continuous;
+            Files.createDirectories(dumpDirectory);
+            logger.atInfo()
+                    .addKeyValue("maxAge", maxAge)
+                    .addKeyValue("maxSizeBytes", maxSizeBytes)
+                    .log("Continuous flight recording started");
+        } catch (IOException | ParseException e) {
+            logger.warn("Could not start continuous flight recording", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        Recording current = recording;
+        recording = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recording != null;
+    }
+
+    /**
+     * Reads a dump file, see readLast
+     */
+    @FunctionalInterface
+    public interface DumpReader<T> {
+        T read(Path dump) throws IOException;
+    }
+
+    /**
+     * Write the last N minutes of the recording to a .jfr file
+     *
+     * Only the newest dump is kept on disk - each call replaces the previous one.
+     * The replace is atomic: a download still streaming the previous dump keeps
+     * reading that (now unlinked) file.
+     *
+     * @return path of the dump, readable with JDK Mission Control or `jfr print`
+     */
+    public Path dumpLast(Duration window) throws IOException {
+        Path latest = dumpDirectory.resolve("store-last.jfr");
+        Files.move(dumpWindow(window), latest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return latest;
+    }
+
+    /**
+     * Dump the last N minutes to a file of this call alone, read it, delete it
+     */
+    public <T> T readLast(Duration window, DumpReader<T> reader) throws IOException {
+        Path dump = dumpWindow(window);
+        try {
+            return reader.read(dump);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private Path dumpWindow(Duration window) throws IOException {
+        Recording current = recording;
+        if (current == null) {
+            throw new IllegalStateException("Flight recording is not running");
+        }
+
+        Path full = Files.createTempFile(dumpDirectory, "store-full-", ".jfr");
+        Path windowed = Files.createTempFile(dumpDirectory, "store-last-", ".jfr");
+        try {
+            current.dump(full);
+            try (RecordingFile file = new RecordingFile(full)) {
+                Instant cutoff = Instant.now().minus(window);
+                file.write(windowed, event -> !event.getEndTime().isBefore(cutoff));
+            }
+            return windowed;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(windowed);
+            throw e;
+        } finally {
+            Files.deleteIfExists(full);
+        }
+    }
+}
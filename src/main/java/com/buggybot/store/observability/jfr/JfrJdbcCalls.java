@@ -0,0 +1,51 @@
+package com.buggybot.store.observability.jfr;
+
+/**
+ * JfrJdbcCalls - RepositoryCallEvents for the plain JDBC code paths
+ *
+ * JfrRepositoryListener only sees Spring Data repositories. The JdbcTemplate
+ * and COPY work (upsert, import, reconcile, rollups, facets, the shard fence
+ * read) runs through record() instead, so it shows up in the same
+ * Repository.method latency table of the recording.
+ *
+ * When the event isn't enabled in any recording this costs one allocation.
+ */
+public final class JfrJdbcCalls {
+
+    /**
+     * Database work that may throw a checked exception (SQLException for COPY)
+     */
+    @FunctionalInterface
+    public interface JdbcCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private JfrJdbcCalls() {
+    }
+
+    /**
+     * Run the call and emit one RepositoryCallEvent for it
+     *
+     * @param repository class doing the JDBC work, e.g. "StoreUpsertRepository"
+     * @param method     operation, e.g. "upsert"
+     */
+    public static <T, E extends Exception> T record(String repository, String method, JdbcCall<T, E> call) throws E {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return call.call();
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = call.call();
+            success = true;
+            return result;
+        } finally {
+            event.repository = repository;
+            event.method = method;
+            event.latency = System.nanoTime() - start;
+            event.success = success;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.buggybot.store.observability.jfr;
+
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationResult;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JfrRepositoryListener - Emits a RepositoryCallEvent per repository call
+ *
+ * Registered on all repositories by RepositoryListenerRegistrar.
+ * When the event isn't enabled in any recording this costs one allocation.
+ */
+public class JfrRepositoryListener implements RepositoryMethodInvocationListener {
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.repository = invocation.getRepositoryInterface().getSimpleName();
+        event.method = invocation.getMethod().getName();
+        event.latency = invocation.getDuration(TimeUnit.NANOSECONDS);
+        RepositoryMethodInvocationResult result = invocation.getResult();
+        event.success = result == null || result.getState() == RepositoryMethodInvocationResult.State.SUCCESS;
+        event.commit();
+    }
+}
@@ -0,0 +1,134 @@
+package com.buggybot.store.observability.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JfrSummarizer - Turns a recording into a short "where does the time go" report
+ *
+ * Reads the events one by one (never the whole file into memory) and keeps
+ * only aggregates per site.
+ */
+class JfrSummarizer {
+
+    private static final String APP_PACKAGE = "com.buggybot.store.";
+    private static final String OWN_PACKAGE = "com.buggybot.store.observability.";
+
+    private static final class Counter {
+        long count;
+        long total;
+        long errors;
+        long max;
+    }
+
+    private final Map<String, Counter> hotMethods = new HashMap<>();
+    private final Map<String, Counter> allocations = new HashMap<>();
+    private final Map<String, Counter> locks = new HashMap<>();
+    private final Map<String, Counter> repositories = new HashMap<>();
+
+    JfrSummary summarize(Path recording, Instant from, Instant to, int top) throws IOException {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                accept(file.readEvent());
+            }
+        }
+        return new JfrSummary(
+                from,
+                to,
+                topSites(hotMethods, top),
+                topSites(allocations, top),
+                topSites(locks, top),
+                topRepositoryCalls(top));
+    }
+
+    private void accept(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case "jdk.ExecutionSample" -> add(hotMethods, appSite(event), 0);
+            case "jdk.ObjectAllocationSample" -> add(allocations, appSite(event), event.getLong("weight"));
+            case "jdk.JavaMonitorEnter", "jdk.ThreadPark" ->
+                    add(locks, appSite(event), event.getDuration().toMillis());
+            case RepositoryCallEvent.NAME -> {
+                String method = event.getString("repository") + "." + event.getString("method");
+                long nanos = event.getDuration("latency").toNanos();
+                Counter counter = repositories.computeIfAbsent(method, k -> new Counter());
+                counter.count++;
+                counter.total += nanos;
+                counter.max = Math.max(counter.max, nanos);
+                if (!event.getBoolean("success")) {
+                    counter.errors++;
+                }
+            }
+            default -> { }
+        }
+    }
+
+    private static void add(Map<String, Counter> sites, String site, long amount) {
+        if (site == null) {
+            return;  // no application frame on the stack
+        }
+        Counter counter = sites.computeIfAbsent(site, k -> new Counter());
+        counter.count++;
+        counter.total += amount;
+    }
+
+    /**
+     * First frame in our code (skipping this package and Spring's generated proxies)
+     */
+    private static String appSite(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APP_PACKAGE) && !type.startsWith(OWN_PACKAGE) && !type.contains("$$")) {
+                return type.substring(APP_PACKAGE.length()) + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber();
+            }
+        }
+        return null;
+    }
+
+    private static List<JfrSummary.Site> topSites(Map<String, Counter> sites, int top) {
+        return sites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Counter> e) ->
+                        e.getValue().total > 0 ? e.getValue().total : e.getValue().count).reversed())
+                .limit(top)
+                .map(e -> new JfrSummary.Site(e.getKey(), e.getValue().count, e.getValue().total))
+                .toList();
+    }
+
+    private List<JfrSummary.RepositoryLatency> topRepositoryCalls(int top) {
+        return repositories.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Counter> e) -> e.getValue().total).reversed())
+                .limit(top)
+                .map(e -> {
+                    Counter c = e.getValue();
+                    return new JfrSummary.RepositoryLatency(
+                            e.getKey(),
+                            c.count,
+                            c.errors,
+                            c.total / (double) c.count / 1_000_000.0,
+                            c.max / 1_000_000.0);
+                })
+                .toList();
+    }
+
+    static Duration window(Integer minutes) {
+        return Duration.ofMinutes(minutes != null && minutes > 0 ? minutes : 5);
+    }
+}
@@ -0,0 +1,30 @@
+package com.buggybot.store.observability.jfr;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * JfrSummary - Response of GET /actuator/jfrsummary
+ *
+ * Every site is the first stack frame inside com.buggybot.store, so JDK,
+ * Spring and Hibernate internals are attributed to the application code
+ * that called them.
+ *
+ * @param hotMethods         CPU samples per site (count = samples)
+ * @param allocationSites    sampled allocations per site (total = estimated bytes)
+ * @param lockContention     monitor enter / park events per site (total = blocked milliseconds)
+ * @param repositoryLatency  repository calls per Repository.method (total = milliseconds)
+ */
+public record JfrSummary(
+        Instant from,
+        Instant to,
+        List<Site> hotMethods,
+        List<Site> allocationSites,
+        List<Site> lockContention,
+        List<RepositoryLatency> repositoryLatency
+) {
+
+    public record Site(String site, long count, long total) { }
+
+    public record RepositoryLatency(String method, long calls, long errors, double avgMillis, double maxMillis) { }
+}
@@ -0,0 +1,39 @@
+package com.buggybot.store.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * RepositoryCallEvent - JFR event for every repository call
+ *
+ * The JDK has no JDBC events, so this is how database latency ends up
+ * in the recording: one event per Spring Data method call (JfrRepositoryListener)
+ * and per plain JDBC operation (JfrJdbcCalls).
+ */
+@Name(RepositoryCallEvent.NAME)
+@Label("Repository Call")
+@Category({"Store", "Database"})
+@Description("Spring Data repository method or JDBC operation")
+@StackTrace(false)
+class RepositoryCallEvent extends Event {
+
+    static final String NAME = "com.buggybot.store.RepositoryCall";
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Success")
+    boolean success;
+}
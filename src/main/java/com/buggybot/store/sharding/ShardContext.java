@@ -0,0 +1,44 @@
+package com.buggybot.store.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * ShardContext - The shard the current thread talks to
+ *
+ * ShardRoutingDataSource reads this when a connection is requested.
+ * No shard bound = the primary database (users, shard overrides, ...).
+ *
+ * Note: the shard is picked when a transaction takes its connection, so bind
+ * the shard BEFORE the transaction starts (ShardRouter does that for you).
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return the bound shard, or null for the primary database
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run work with the given shard bound, restores the previous binding afterwards
+     */
+    public static <T> T call(int shard, Supplier<T> work) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
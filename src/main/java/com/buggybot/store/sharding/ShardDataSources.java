@@ -0,0 +1,41 @@
+package com.buggybot.store.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * ShardDataSources - The connection pools behind ShardRoutingDataSource
+ *
+ * Only exists when sharding is enabled (ShardingConfig).
+ * Closing it (context shutdown) closes every pool.
+ */
+public class ShardDataSources implements AutoCloseable {
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> shards;
+
+    public ShardDataSources(HikariDataSource primary, List<HikariDataSource> shards) {
+        this.primary = primary;
+        this.shards = List.copyOf(shards);
+    }
+
+    public DataSource primary() {
+        return primary;
+    }
+
+    public DataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
@@ -0,0 +1,50 @@
+package com.buggybot.store.sharding;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.UUID;
+
+/**
+ * Actuator endpoint for the store shards
+ *
+ * - GET  /actuator/shards                              -> shard count
+ * - GET  /actuator/shards/{userId}                     -> shard of a user
+ * - POST /actuator/shards/{userId}  {"target": 2}      -> move the user to shard 2
+ *
+ * Needs a token with the store:admin scope (SecurityConfig).
+ */
+@Endpoint(id = "shards")
+public class ShardEndpoint {
+
+    private final ShardRouter router;
+    private final ShardRebalancer rebalancer;
+
+    public record ShardStatus(int shards) {
+    }
+
+    public record UserShard(UUID userId, int shard) {
+    }
+
+    public ShardEndpoint(ShardRouter router, ShardRebalancer rebalancer) {
+        this.router = router;
+        this.rebalancer = rebalancer;
+    }
+
+    @ReadOperation
+    public ShardStatus status() {
+        return new ShardStatus(router.shardCount());
+    }
+
+    @ReadOperation
+    public UserShard userShard(@Selector UUID userId) {
+        return new UserShard(userId, router.shardFor(userId));
+    }
+
+    @WriteOperation
+    public ShardRebalancer.RebalanceReport rebalance(@Selector UUID userId, int target) {
+        return rebalancer.rebalance(userId, target);
+    }
+}
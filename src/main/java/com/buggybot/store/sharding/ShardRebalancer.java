@@ -0,0 +1,282 @@
+package com.buggybot.store.sharding;
+
+import com.buggybot.store.controller.store.cache.StorePageCache;
+import com.buggybot.store.controller.user.entity.User;
+import com.buggybot.store.controller.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ShardRebalancer - Moves a user (and all their stores) to another shard online
+ *
+ * Steps:
+ * 1. Copy   - copy all stores to the target in batches, writes keep going on the source
+ * 2. Freeze - take the user's exclusive advisory lock on the source shard: waits for
+ *             running writes and holds back new ones of every instance (reads keep going)
+ * 3. Delta  - copy again (upsert) and delete on the target what was deleted meanwhile
+ * 4. Fence  - write "user lives on the target" into user_shard_overrides of the target
+ *             and the source shard, then release the lock. Writes that were waiting
+ *             see the fence and run again on the target (see ShardRouter)
+ * 5. Flip   - write the override in the primary database, instances route there directly
+ *             after their next override refresh
+ * 6. Clean  - wait store.sharding.rebalance.clean-delay, then delete the stores
+ *             from the source in batches
+ *
+ * The freeze only lasts for the delta copy, so it is short even for big users.
+ * Instances that still route to the source until their next override refresh:
+ * - writes wait for the fence lock, see the fence row and run on the target
+ * - reads check the fence row before they start and read the target (ShardRouter.read)
+ * - reads that checked just before the fence was written still read the source,
+ *   the clean delay lets them finish before its copy is deleted
+ */
+public class ShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    // One keyset batch of a user's stores
+    public static final String COPY_BATCH_SQL = """
+            SELECT store_id, store_name, store_location, store_created_at
+            FROM stores WHERE user_id = ? AND store_id > ?
+            ORDER BY store_id LIMIT ?
+            """;
+
+    // One keyset batch of a user's store ids (on the target, to find what the source no longer has)
+    public static final String ID_BATCH_SQL = """
+            SELECT store_id FROM stores WHERE user_id = ? AND store_id > ?
+            ORDER BY store_id LIMIT ?
+            """;
+
+    // Up to ? stores of a user, removed from the old shard
+    public static final String DELETE_BATCH_SQL = """
+            DELETE FROM stores WHERE store_id IN
+              (SELECT store_id FROM stores WHERE user_id = ? LIMIT ?)
+            """;
+
+    private final ShardRouter router;
+    private final UserRepository userRepository;
+    private final StorePageCache pageCache;
+    private final int batchSize;
+    private final Duration freezeTimeout;
+    private final Duration cleanDelay;
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+
+    public record RebalanceReport(UUID userId, int fromShard, int toShard,
+                                  long copied, long delta, long removed, long millis) {
+    }
+
+    public ShardRebalancer(ShardRouter router, UserRepository userRepository, StorePageCache pageCache,
+                           int batchSize, Duration freezeTimeout, Duration cleanDelay) {
+        this.router = router;
+        this.userRepository = userRepository;
+        this.pageCache = pageCache;
+        this.batchSize = batchSize;
+        this.freezeTimeout = freezeTimeout;
+        this.cleanDelay = cleanDelay;
+    }
+
+    public RebalanceReport rebalance(UUID userId, int target) {
+        if (target < 0 || target >= router.shardCount()) {
+            throw new IllegalArgumentException("Shard must be between 0 and " + (router.shardCount() - 1));
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown user " + userId));
+        int source = router.shardFor(userId);
+        if (source == target) {
+            return new RebalanceReport(userId, source, target, 0, 0, 0, 0);
+        }
+        if (!running.add(userId)) {
+            throw new IllegalStateException("User " + userId + " is already being rebalanced");
+        }
+
+        long start = System.nanoTime();
+        try {
+            router.ensureReplicated(user, target);
+
+            // 1. Online copy
+            long copied = copyStores(source, target, userId, true);
+
+            // 2.-4. Freeze, delta, fence - one transaction on the source holds the lock
+            long delta;
+            try (Connection connection = router.shardDataSource(source).getConnection()) {
+                connection.setAutoCommit(false);
+                JdbcTemplate fence = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+                try {
+                    freeze(fence, userId);
+                    delta = copyStores(source, target, userId, true)
+                            + deleteMissingOnTarget(source, target, userId);
+                    writeFence(router.shardJdbc(target), userId, target);
+                    writeFence(fence, userId, target);
+                    connection.commit();
+                } catch (RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            }
+
+            // 5. Flip (after the commit: the primary may be the source shard itself)
+            router.moveUser(userId, target);
+            pageCache.invalidateUser(userId);
+
+            // 6. Remove the source copy once reads already running on it are done
+            waitForRunningReads();
+            long removed = deleteFromSource(source, userId);
+
+            RebalanceReport report = new RebalanceReport(userId, source, target, copied, delta, removed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            logger.atInfo()
+                    .addKeyValue("userId", userId)
+                    .addKeyValue("fromShard", source)
+                    .addKeyValue("toShard", target)
+                    .addKeyValue("copied", copied)
+                    .addKeyValue("delta", delta)
+                    .addKeyValue("millis", report.millis())
+                    .log("Rebalanced user");
+            return report;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Rebalance of user " + userId + " failed, nothing was moved", e);
+        } finally {
+            running.remove(userId);
+        }
+    }
+
+    /**
+     * Take the user's exclusive fence lock (released with the transaction)
+     * The lock queue is fair: once we wait, new writes of the user wait behind us.
+     */
+    private void freeze(JdbcTemplate fence, UUID userId) {
+        fence.execute("SET LOCAL lock_timeout = " + freezeTimeout.toMillis());
+        try {
+            fence.query("SELECT pg_advisory_xact_lock(?)", rs -> { }, ShardRouter.fenceKey(userId));
+        } catch (CannotAcquireLockException e) {
+            throw new IllegalStateException("Could not freeze writes of user " + userId
+                    + " within " + freezeTimeout + ", nothing was moved");
+        }
+    }
+
+    /**
+     * "The user lives on shard N" in one shard's user_shard_overrides
+     */
+    private static void writeFence(JdbcTemplate shard, UUID userId, int target) {
+        shard.update("""
+                INSERT INTO user_shard_overrides (user_id, shard, moved_at) VALUES (?, ?, now())
+                ON CONFLICT (user_id) DO UPDATE SET shard = EXCLUDED.shard, moved_at = EXCLUDED.moved_at
+                """, userId, target);
+    }
+
+    /**
+     * Copy all stores of a user in keyset batches (ordered by store_id)
+     *
+     * @param overwrite true: upsert (source is the truth), false: only add missing rows
+     */
+    private long copyStores(int source, int target, UUID userId, boolean overwrite) {
+        JdbcTemplate from = router.shardJdbc(source);
+        JdbcTemplate to = router.shardJdbc(target);
+        String insert = """
+                INSERT INTO stores (store_id, store_name, store_location, store_created_at, user_id)
+                VALUES (?, ?, ?, ?, ?)
+                ON CONFLICT (store_id) DO
+                """ + (overwrite
+                ? " UPDATE SET store_name = EXCLUDED.store_name, store_location = EXCLUDED.store_location, "
+                  + "store_created_at = EXCLUDED.store_created_at"
+                : " NOTHING");
+
+        long copied = 0;
+        UUID after = MIN_UUID;
+        while (true) {
+            List<Object[]> batch = from.query(COPY_BATCH_SQL,
+                    (rs, i) -> new Object[]{
+                            rs.getObject("store_id", UUID.class),
+                            rs.getString("store_name"),
+                            rs.getString("store_location"),
+                            rs.getObject("store_created_at", OffsetDateTime.class),
+                            userId},
+                    userId, after, batchSize);
+            if (batch.isEmpty()) break;
+            to.batchUpdate(insert, batch);
+            copied += batch.size();
+            after = (UUID) batch.get(batch.size() - 1)[0];
+            if (batch.size() < batchSize) break;
+        }
+        return copied;
+    }
+
+    /**
+     * Delete stores on the target that no longer exist on the source
+     * (deleted or re-keyed by PATCH during the online copy)
+     */
+    private long deleteMissingOnTarget(int source, int target, UUID userId) {
+        JdbcTemplate to = router.shardJdbc(target);
+        NamedParameterJdbcTemplate from = new NamedParameterJdbcTemplate(router.shardJdbc(source));
+
+        long deleted = 0;
+        UUID after = MIN_UUID;
+        while (true) {
+            List<UUID> ids = to.queryForList(ID_BATCH_SQL, UUID.class, userId, after, batchSize);
+            if (ids.isEmpty()) break;
+
+            Set<UUID> stillThere = new HashSet<>(from.queryForList(
+                    "SELECT store_id FROM stores WHERE user_id = :userId AND store_id IN (:ids)",
+                    Map.of("userId", userId, "ids", ids), UUID.class));
+            List<Object[]> gone = new ArrayList<>();
+            for (UUID id : ids) {
+                if (!stillThere.contains(id)) gone.add(new Object[]{id});
+            }
+            if (!gone.isEmpty()) {
+                to.batchUpdate("DELETE FROM stores WHERE store_id = ?", gone);
+                deleted += gone.size();
+            }
+            after = ids.get(ids.size() - 1);
+            if (ids.size() < batchSize) break;
+        }
+        return deleted;
+    }
+
+    /**
+     * Reads check the fence row before they start, so only the ones that started
+     * before the fence commit can still be on the source - give them cleanDelay
+     * Interrupted: clean right away, the move itself is already done.
+     */
+    private void waitForRunningReads() {
+        try {
+            Thread.sleep(cleanDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Delete the user's stores on the old shard, one short transaction per batch
+     * The user row stays: the source may be the primary database itself.
+     */
+    private long deleteFromSource(int source, UUID userId) {
+        JdbcTemplate from = router.shardJdbc(source);
+        long removed = 0;
+        int deleted;
+        do {
+            deleted = from.update(DELETE_BATCH_SQL, userId, batchSize);
+            removed += deleted;
+        } while (deleted == batchSize);
+        return removed;
+    }
+}
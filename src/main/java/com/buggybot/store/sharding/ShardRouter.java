@@ -0,0 +1,385 @@
+package com.buggybot.store.sharding;
+
+import com.buggybot.store.controller.user.entity.User;
+import com.buggybot.store.observability.jfr.JfrJdbcCalls;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * ShardRouter - Picks the shard of a user and runs store operations there
+ *
+ * Every store belongs to exactly one user and every store query is scoped to
+ * that user, so all stores of a user live on one shard:
+ *
+ *   shard = override(userId) ?: bucketShard[hash(userId) % 1024]
+ *
+ * - Buckets: a fixed number of virtual buckets, assigned to shards once
+ *   (table shard_buckets in the primary database, round robin over the shards
+ *   configured at the first start). Appending a shard changes no assignment,
+ *   so no user silently changes shard - the new shard fills through the rebalancer.
+ * - Overrides: users moved by ShardRebalancer (table user_shard_overrides in
+ *   the primary database, cached here and reloaded every store.sharding.override-refresh)
+ * - Users stay in the primary database. stores.user_id has a foreign key, so the
+ *   user row is copied to the shard (INSERT ... ON CONFLICT DO NOTHING) before
+ *   the first write there. That copy is only a foreign key target.
+ *
+ * Rebalance fence (works across all instances, not just this one):
+ * - Every write transaction on a shard first takes a shared advisory lock of the
+ *   user on that shard and reads the user's row in that shard's user_shard_overrides
+ * - The rebalancer holds the exclusive lock while it copies the last changes,
+ *   then writes "user lives on shard N" there before releasing it
+ * - A write that finds its user moved away rolls back and runs again on the new
+ *   shard - instances whose override cache is stale correct themselves
+ * - Reads take no lock but check the same row first and follow a move, so a
+ *   stale instance never reads the source copy the rebalancer is deleting
+ *
+ * Sharding disabled (default): a single "shard", everything runs inline on
+ * the one datasource - callers don't need to know. Nothing is ever moved,
+ * so there is no fence either: writes take no advisory lock.
+ */
+@Component
+public class ShardRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRouter.class);
+
+    // Number of virtual buckets - fixed forever, it is part of the routing
+    static final int BUCKETS = 1024;
+
+    // A write is redirected at most this often (one move per hop)
+    private static final int MAX_REDIRECTS = 3;
+
+    // The user's fence row on a shard
+    public static final String MOVED_TO_SQL = "SELECT shard FROM user_shard_overrides WHERE user_id = ?";
+
+    private final ShardDataSources dataSources;   // null = sharding disabled
+    private final TransactionTemplate shardTransaction;
+    private final JdbcTemplate jdbcTemplate;       // routed, joins the shard transaction
+    private final Map<UUID, Integer> overrides = new ConcurrentHashMap<>();
+    private final Cache<ShardUser, Boolean> replicated = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .build();
+    private int[] bucketShards;
+
+    private record ShardUser(int shard, UUID userId) {
+    }
+
+    /**
+     * Thrown inside a shard transaction whose user was moved to another shard (rolls it back)
+     */
+    private static final class UserMovedException extends RuntimeException {
+        private final int shard;
+
+        UserMovedException(int shard) {
+            super(null, null, false, false);
+            this.shard = shard;
+        }
+    }
+
+    public ShardRouter(ObjectProvider<ShardDataSources> dataSources, PlatformTransactionManager transactionManager,
+                       JdbcTemplate jdbcTemplate) {
+        this.dataSources = dataSources.getIfAvailable();
+        this.shardTransaction = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = jdbcTemplate;
+        if (this.dataSources != null) {
+            // A shard transaction must take a connection of its own shard, never join
+            // a transaction that already holds a primary connection
+            this.shardTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            this.bucketShards = loadBuckets();
+        }
+        reloadOverrides();
+    }
+
+    public boolean isEnabled() {
+        return dataSources != null;
+    }
+
+    public int shardCount() {
+        return isEnabled() ? dataSources.size() : 1;
+    }
+
+    /**
+     * The shard that holds the stores of a user
+     */
+    public int shardFor(UUID userId) {
+        if (!isEnabled()) return 0;
+        Integer override = overrides.get(userId);
+        return override != null ? override : bucketShards[bucket(userId)];
+    }
+
+    /**
+     * hash(userId) % BUCKETS
+     *
+     * Random (v4) UUIDs are already uniform, the fmix64 step also spreads
+     * time-ordered ids whose low bits barely change.
+     */
+    static int bucket(UUID userId) {
+        long h = userId.getMostSignificantBits() ^ userId.getLeastSignificantBits();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) Math.floorMod(h, (long) BUCKETS);
+    }
+
+    /**
+     * Read the bucket assignment, assign round robin on the very first start
+     * (ON CONFLICT: instances starting together agree on one assignment)
+     */
+    private int[] loadBuckets() {
+        JdbcTemplate primary = primaryJdbc();
+        primary.update("""
+                INSERT INTO shard_buckets (bucket, shard)
+                SELECT b, b % ? FROM generate_series(0, ? - 1) b
+                ON CONFLICT (bucket) DO NOTHING
+                """, shardCount(), BUCKETS);
+
+        int[] shards = new int[BUCKETS];
+        primary.query("SELECT bucket, shard FROM shard_buckets", rs -> {
+            int bucket = rs.getInt("bucket");
+            int shard = rs.getInt("shard");
+            if (bucket < BUCKETS) {
+                shards[bucket] = shard;
+            }
+            if (shard >= shardCount()) {
+                // A shard was removed or the list was reordered - its users would be lost
+                throw new IllegalStateException("shard_buckets assigns bucket " + bucket + " to shard " + shard
+                        + " but only " + shardCount() + " shards are configured");
+            }
+        });
+        return shards;
+    }
+
+    /**
+     * Run a read on the user's shard
+     * Each repository call inside takes its connection from that shard.
+     * One primary-key lookup in the shard's user_shard_overrides first: a user
+     * moved away by another instance is read on the new shard (see class doc).
+     */
+    public <T> T read(User user, Supplier<T> work) {
+        if (!isEnabled()) return work.get();
+        UUID userId = user.getUserId();
+        int shard = shardFor(userId);
+        for (int redirects = 0; ; redirects++) {
+            Integer movedTo = ShardContext.call(shard, () -> movedTo(userId));
+            if (movedTo == null || movedTo == shard) {
+                return ShardContext.call(shard, work);
+            }
+            if (redirects == MAX_REDIRECTS) {
+                throw new IllegalStateException("User " + userId + " keeps moving between shards, read not served");
+            }
+            logger.atInfo()
+                    .addKeyValue("userId", userId)
+                    .addKeyValue("fromShard", shard)
+                    .addKeyValue("toShard", movedTo)
+                    .log("Read redirected to the shard the user was moved to");
+            overrides.put(userId, movedTo);
+            shard = movedTo;
+        }
+    }
+
+    /**
+     * Run a write on the user's shard (in one transaction there)
+     */
+    public <T> T write(User user, Supplier<T> work) {
+        return inTransaction(user, status -> work.get());
+    }
+
+    /**
+     * Run work in one transaction on the user's shard (set-based deletes, purge batches)
+     * Sharding disabled: joins the caller's transaction like before.
+     */
+    public <T> T inTransaction(UUID userId, TransactionCallback<T> work) {
+        if (!isEnabled()) return shardTransaction.execute(work);
+        return fenced(userId, null, work);
+    }
+
+    /**
+     * Run a write in one transaction on the user's shard (bulk loads)
+     * The user row is copied to the shard first.
+     */
+    public <T> T inTransaction(User user, TransactionCallback<T> work) {
+        if (!isEnabled()) return shardTransaction.execute(work);
+        return fenced(user.getUserId(), user, work);
+    }
+
+    /**
+     * Shard transaction behind the rebalance fence, see the class doc
+     */
+    private <T> T fenced(UUID userId, User user, TransactionCallback<T> work) {
+        for (int redirects = 0; ; redirects++) {
+            int shard = shardFor(userId);
+            if (user != null) {
+                ensureReplicated(user, shard);
+            }
+            try {
+                return ShardContext.call(shard, () -> shardTransaction.execute(status -> {
+                    // Waits while the rebalancer copies this user's last changes off this shard.
+                    // Separate statement: the override is read with a snapshot taken after the wait.
+                    jdbcTemplate.query("SELECT pg_advisory_xact_lock_shared(?)", rs -> { }, fenceKey(userId));
+                    Integer movedTo = movedTo(userId);
+                    if (movedTo != null && movedTo != shard) {
+                        throw new UserMovedException(movedTo);
+                    }
+                    return work.doInTransaction(status);
+                }));
+            } catch (UserMovedException moved) {
+                if (redirects == MAX_REDIRECTS) {
+                    throw new IllegalStateException("User " + userId + " keeps moving between shards, write not applied");
+                }
+                logger.atInfo()
+                        .addKeyValue("userId", userId)
+                        .addKeyValue("fromShard", shard)
+                        .addKeyValue("toShard", moved.shard)
+                        .log("Write redirected to the shard the user was moved to");
+                overrides.put(userId, moved.shard);
+            }
+        }
+    }
+
+    /**
+     * The user's fence row on the current shard (ShardContext), null = never moved
+     */
+    private Integer movedTo(UUID userId) {
+        List<Integer> movedTo = JfrJdbcCalls.record("ShardRouter", "movedTo",
+                () -> jdbcTemplate.queryForList(MOVED_TO_SQL, Integer.class, userId));
+        return movedTo.isEmpty() ? null : movedTo.get(0);
+    }
+
+    /**
+     * Advisory lock key of a user's rebalance fence
+     */
+    static long fenceKey(UUID userId) {
+        return userId.getMostSignificantBits() ^ userId.getLeastSignificantBits();
+    }
+
+    /**
+     * Run work on every shard, one result per shard (admin/fan-out queries)
+     */
+    public <T> List<T> onEveryShard(Supplier<T> work) {
+        if (!isEnabled()) return List.of(work.get());
+        List<T> results = new ArrayList<>(shardCount());
+        for (int shard = 0; shard < shardCount(); shard++) {
+            results.add(ShardContext.call(shard, work));
+        }
+        return results;
+    }
+
+    /**
+     * Remove the copied user row from every shard that no longer has stores of the user
+     * (after the user was deleted in the primary database)
+     *
+     * Inside a transaction this waits for the commit - a shard can be the primary
+     * database itself, where the user row is still locked until then.
+     */
+    public void forgetUser(UUID userId) {
+        if (!isEnabled()) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeReplicas(userId);
+                }
+            });
+        } else {
+            removeReplicas(userId);
+        }
+    }
+
+    private void removeReplicas(UUID userId) {
+        for (int shard = 0; shard < shardCount(); shard++) {
+            shardJdbc(shard).update("""
+                    DELETE FROM users WHERE user_id = ?
+                      AND NOT EXISTS (SELECT 1 FROM stores WHERE user_id = ?)
+                    """, userId, userId);
+            replicated.invalidate(new ShardUser(shard, userId));
+        }
+        overrides.remove(userId);
+    }
+
+    /**
+     * Copy the user row to a shard (foreign key target for stores.user_id)
+     */
+    void ensureReplicated(User user, int shard) {
+        ShardUser key = new ShardUser(shard, user.getUserId());
+        if (replicated.getIfPresent(key) != null) return;
+
+        Instant now = Instant.now();
+        shardJdbc(shard).update("""
+                INSERT INTO users (user_id, auth0_id, email, name, created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?)
+                ON CONFLICT DO NOTHING
+                """,
+                user.getUserId(), user.getAuth0Id(), user.getEmail(), user.getName(),
+                Timestamp.from(Objects.requireNonNullElse(user.getCreatedAt(), now)),
+                Timestamp.from(Objects.requireNonNullElse(user.getUpdatedAt(), now)));
+        replicated.put(key, Boolean.TRUE);
+    }
+
+    DataSource shardDataSource(int shard) {
+        return dataSources.shard(shard);
+    }
+
+    JdbcTemplate shardJdbc(int shard) {
+        return new JdbcTemplate(dataSources.shard(shard));
+    }
+
+    JdbcTemplate primaryJdbc() {
+        return new JdbcTemplate(dataSources.primary());
+    }
+
+    /**
+     * Route a user to another shard from now on (rebalancer, after the copy)
+     */
+    void moveUser(UUID userId, int shard) {
+        primaryJdbc().update("""
+                INSERT INTO user_shard_overrides (user_id, shard, moved_at) VALUES (?, ?, now())
+                ON CONFLICT (user_id) DO UPDATE SET shard = EXCLUDED.shard, moved_at = EXCLUDED.moved_at
+                """, userId, shard);
+        overrides.put(userId, shard);
+    }
+
+    /**
+     * Pick up moves done by other instances
+     */
+    @Scheduled(fixedDelayString = "${store.sharding.override-refresh:30s}",
+               initialDelayString = "${store.sharding.override-refresh:30s}")
+    public void reloadOverrides() {
+        if (!isEnabled()) return;
+        try {
+            Map<UUID, Integer> latest = new ConcurrentHashMap<>();
+            primaryJdbc().query("SELECT user_id, shard FROM user_shard_overrides",
+                    rs -> {
+                        latest.put(rs.getObject("user_id", UUID.class), rs.getInt("shard"));
+                    });
+            overrides.keySet().retainAll(latest.keySet());
+            overrides.putAll(latest);
+        } catch (Exception e) {
+            // Keep routing with the overrides we have, next refresh tries again
+            logger.warn("Could not reload shard overrides", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.buggybot.store.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * ShardRoutingDataSource - Hands out connections of the shard in ShardContext
+ *
+ * - Shard bound  -> connection from that shard's pool
+ * - Nothing bound -> connection from the primary pool (default target)
+ *
+ * Lenient fallback is off: an unknown shard number is a bug and must fail
+ * instead of silently writing into the primary database.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource() {
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,133 @@
+package com.buggybot.store.sharding;
+
+import com.buggybot.store.controller.store.cache.StorePageCache;
+import com.buggybot.store.controller.user.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ShardingConfig - Stores sharded by user across several PostgreSQL databases
+ *
+ * Off by default. store.sharding.enabled=true plus store.sharding.shards[n].*
+ * (see ShardingProperties) replaces the single datasource with a
+ * ShardRoutingDataSource:
+ * - primary (spring.datasource.*): users, shard_buckets, user_shard_overrides, Flyway history
+ * - shards: stores (+ a copy of each owning user row for the foreign key)
+ *
+ * Every shard gets the same Flyway migrations as the primary on startup.
+ *
+ * Settings:
+ * - store.sharding.override-refresh     (default 30s) reload of moved users
+ * - store.sharding.rebalance.batch-size (default 1000)
+ * - store.sharding.rebalance.freeze-timeout (default 10s)
+ * - store.sharding.rebalance.clean-delay    (default 5s) wait before the source copy is deleted
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "store.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardDataSources shardDataSources(DataSourceProperties dataSourceProperties,
+                                             ShardingProperties sharding,
+                                             @Value("${store.reactive.enabled:false}") boolean reactiveEnabled) {
+        if (sharding.shards().isEmpty()) {
+            throw new IllegalStateException("store.sharding.enabled=true needs at least one store.sharding.shards[n].url");
+        }
+        if (reactiveEnabled) {
+            // The R2DBC pool only knows the primary database
+            throw new IllegalStateException("store.reactive.enabled can't be combined with store.sharding.enabled");
+        }
+
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+
+        List<HikariDataSource> shards = new ArrayList<>();
+        for (int i = 0; i < sharding.shards().size(); i++) {
+            ShardingProperties.Shard shard = sharding.shards().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.url())
+                    .username(shard.username())
+                    .password(shard.password())
+                    .build();
+            dataSource.setPoolName("shard-" + i);
+            if (shard.maxPoolSize() != null) {
+                dataSource.setMaximumPoolSize(shard.maxPoolSize());
+            }
+            migrate(dataSource);
+            shards.add(dataSource);
+        }
+        return new ShardDataSources(primary, shards);
+    }
+
+    /**
+     * Same schema on every shard (the primary is migrated by Spring Boot's Flyway)
+     */
+    private static void migrate(DataSource shard) {
+        Flyway.configure()
+                .dataSource(shard)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shardDataSources.size(); i++) {
+            targets.put(i, shardDataSources.shard(i));
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setDefaultTargetDataSource(shardDataSources.primary());
+        routing.setTargetDataSources(targets);
+        return routing;
+    }
+
+    /**
+     * Spring keeps a Hibernate session's connection until the session closes -
+     * with open-in-view that is the whole request, pinned to whichever database
+     * was used first. Releasing it after each transaction lets the next
+     * transaction pick the shard in ShardContext.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(ShardRouter router, UserRepository userRepository, StorePageCache pageCache,
+                                           @Value("${store.sharding.rebalance.batch-size:1000}") int batchSize,
+                                           @Value("${store.sharding.rebalance.freeze-timeout:10s}") Duration freezeTimeout,
+                                           @Value("${store.sharding.rebalance.clean-delay:5s}") Duration cleanDelay) {
+        return new ShardRebalancer(router, userRepository, pageCache, batchSize, freezeTimeout, cleanDelay);
+    }
+
+    @Bean
+    public ShardEndpoint shardEndpoint(ShardRouter router, ShardRebalancer shardRebalancer) {
+        return new ShardEndpoint(router, shardRebalancer);
+    }
+}
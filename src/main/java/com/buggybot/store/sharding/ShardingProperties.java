@@ -0,0 +1,38 @@
+package com.buggybot.store.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * ShardingProperties - The store shards (store.sharding.*)
+ *
+ * Example:
+ *   store.sharding.enabled=true
+ *   store.sharding.shards[0].url=jdbc:postgresql://shard-0:5432/store
+ *   store.sharding.shards[0].username=store
+ *   store.sharding.shards[0].password=...
+ *   store.sharding.shards[1].url=jdbc:postgresql://shard-1:5432/store
+ *   ...
+ *
+ * The primary database (spring.datasource.*) keeps the users and the shard
+ * overrides. It may also be listed as a shard itself.
+ *
+ * Careful: the shard NUMBER is part of the routing. Users hash into 1024 buckets,
+ * which are assigned to the shards once, at the first start (table shard_buckets).
+ * Appending a shard moves nobody - fill it by moving users with the rebalancer
+ * (/actuator/shards). Reordering or removing shards that still own buckets fails the startup.
+ */
+@ConfigurationProperties(prefix = "store.sharding")
+public record ShardingProperties(boolean enabled, List<Shard> shards) {
+
+    public ShardingProperties {
+        shards = shards == null ? List.of() : List.copyOf(shards);
+    }
+
+    /**
+     * @param maxPoolSize Hikari pool size of this shard (default 10)
+     */
+    public record Shard(String url, String username, String password, Integer maxPoolSize) {
+    }
+}
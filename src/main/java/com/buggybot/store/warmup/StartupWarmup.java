@@ -0,0 +1,396 @@
+package com.buggybot.store.warmup;
+
+import com.buggybot.store.controller.common.ApiResponse;
+import com.buggybot.store.controller.common.PaginatedResponse;
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.store.dto.StoreListQuery;
+import com.buggybot.store.controller.store.repository.StoreRepository;
+import com.buggybot.store.controller.store.repository.StoreSpecifications;
+import com.buggybot.store.controller.store.responseEntity.Store;
+import com.buggybot.store.controller.user.entity.User;
+import com.buggybot.store.controller.user.repository.UserRepository;
+import com.buggybot.store.limiter.GradientLimit;
+import com.buggybot.store.sharding.ShardDataSources;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * StartupWarmup - Warms the JVM and the pools before the pod takes traffic
+ *
+ * Why?
+ * - A fresh instance answers its first thousands of requests several times
+ *   slower than steady state: interpreted/C1 code, an empty Hikari pool,
+ *   Hibernate query plans built on first use, the JWT decoder created lazily
+ *   (Auth0 discovery + key set fetch on the first token)
+ * - Those requests hit real users right after every deploy and scale-out
+ *
+ * When does it run?
+ * - On ApplicationReadyEvent, synchronously. Spring Boot publishes
+ *   ReadinessState.ACCEPTING_TRAFFIC right after that event's listeners return,
+ *   so /actuator/health/readiness stays DOWN until the warmup is done
+ * - As the last listener: StartupTimeLogger runs first, so its startupMillis
+ *   never includes the warmup
+ *
+ * What it does (in rounds, until store.warmup.rounds or the time budget is used up):
+ * 1. pool        - opens connections up to every pool's minimum idle size (once)
+ * 2. jwt         - decodes a synthetic (unsigned) token: builds the decoder,
+ *                  fetches Auth0's keys, then fails verification as expected (once -
+ *                  its unknown kid makes the decoder refetch the key set every time)
+ * 3. repository  - the UserRepository / StoreRepository queries of the API. The first
+ *                  store.warmup.write-rounds also insert a synthetic user + stores
+ *                  (rolled back), the rest only read: inserts fire the stores triggers
+ *                  and write WAL on the primary, reads are enough to keep the JIT going
+ * 4. json        - Jackson round trip of a store page and a StoreDTO
+ * 5. http        - loopback requests through Tomcat, the security filter chain
+ *                  (401) and MVC (/api/auth/info). Only the first round sends the
+ *                  synthetic token, for the same reason as the jwt step
+ *
+ * The loopback requests pass the ConcurrencyLimitFilter like any other, so the
+ * GradientLimit is reset at the end: its latency baseline must come from real traffic.
+ *
+ * Report: one log line per step with the first (cold) and last (warm) round
+ * in microseconds - the difference is what the first real requests would have paid.
+ *
+ * Settings:
+ * - store.warmup.enabled (default true)
+ * - store.warmup.budget  (default 20s) total time, the step running at the deadline finishes
+ * - store.warmup.rounds  (default 200)
+ * - store.warmup.stores  (default 50) synthetic stores per write round
+ * - store.warmup.write-rounds (default 3) repository rounds that insert
+ */
+@Component
+@ConditionalOnProperty(name = "store.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    // Header {"alg":"RS256","kid":"warmup"} - a well formed token no key can verify
+    private static final String SYNTHETIC_TOKEN = base64("{\"alg\":\"RS256\",\"kid\":\"warmup\"}") + "."
+            + base64("{\"sub\":\"warmup\",\"exp\":4102444800}") + "."
+            + base64("signature");
+
+    private final DataSource dataSource;
+    private final ObjectProvider<ShardDataSources> shardDataSources;
+    private final UserRepository userRepository;
+    private final StoreRepository storeRepository;
+    private final ObjectMapper objectMapper;
+    private final JwtDecoder jwtDecoder;
+    private final ObjectProvider<GradientLimit> gradientLimit;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration budget;
+    private final int rounds;
+    private final int storesPerRound;
+    private final int writeRounds;
+
+    private int repositoryRounds;
+    private int httpRounds;
+
+    private HttpClient httpClient;
+
+    public StartupWarmup(DataSource dataSource,
+                         ObjectProvider<ShardDataSources> shardDataSources,
+                         UserRepository userRepository,
+                         StoreRepository storeRepository,
+                         ObjectMapper objectMapper,
+                         JwtDecoder jwtDecoder,
+                         ObjectProvider<GradientLimit> gradientLimit,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${store.warmup.budget:20s}") Duration budget,
+                         @Value("${store.warmup.rounds:200}") int rounds,
+                         @Value("${store.warmup.stores:50}") int storesPerRound,
+                         @Value("${store.warmup.write-rounds:3}") int writeRounds) {
+        this.dataSource = dataSource;
+        this.shardDataSources = shardDataSources;
+        this.userRepository = userRepository;
+        this.storeRepository = storeRepository;
+        this.objectMapper = objectMapper;
+        this.jwtDecoder = jwtDecoder;
+        this.gradientLimit = gradientLimit;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.budget = budget;
+        this.rounds = rounds;
+        this.storesPerRound = storesPerRound;
+        this.writeRounds = writeRounds;
+    }
+
+    /**
+     * Timing of one step: first (cold) round, last (warm) round
+     */
+    public record StepReport(String step, int rounds, long firstMicros, long lastMicros, String error) { }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp(ApplicationReadyEvent event) {
+        Instant deadline = Instant.now().plus(budget);
+        long started = System.nanoTime();
+
+        Map<String, Runnable> steps = new LinkedHashMap<>();
+        steps.put("repository", this::repositoryRound);
+        steps.put("json", this::jsonRound);
+        if (event.getApplicationContext() instanceof WebServerApplicationContext web && web.getWebServer() != null) {
+            int port = web.getWebServer().getPort();
+            httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+            steps.put("http", () -> httpRound(port));
+        }
+
+        List<StepReport> report = new ArrayList<>();
+        report.add(time("pool", this::fillPools));
+        report.add(time("jwt", this::jwtRound));
+
+        Map<String, long[]> timings = new LinkedHashMap<>(); // step -> {rounds, first, last}
+        Map<String, String> errors = new HashMap<>();
+        int round = 0;
+        while (round < rounds && Instant.now().isBefore(deadline)) {
+            for (Map.Entry<String, Runnable> step : steps.entrySet()) {
+                if (errors.containsKey(step.getKey())) {
+                    continue; // failed once, don't retry every round
+                }
+                StepReport result = time(step.getKey(), step.getValue());
+                if (result.error() != null) {
+                    errors.put(step.getKey(), result.error());
+                }
+                long[] timing = timings.computeIfAbsent(step.getKey(), k -> new long[] {0, result.firstMicros(), 0});
+                timing[0]++;
+                timing[2] = result.firstMicros();
+                if (!Instant.now().isBefore(deadline)) {
+                    break;
+                }
+            }
+            round++;
+        }
+        timings.forEach((step, t) -> report.add(new StepReport(step, (int) t[0], t[1], t[2], errors.get(step))));
+
+        // The loopback 401s were fast samples - they'd make real requests look like queueing
+        gradientLimit.ifAvailable(GradientLimit::reset);
+
+        for (StepReport step : report) {
+            logger.atInfo()
+                .addKeyValue("step", step.step())
+                .addKeyValue("rounds", step.rounds())
+                .addKeyValue("firstMicros", step.firstMicros())
+                .addKeyValue("lastMicros", step.lastMicros())
+                .addKeyValue("error", step.error())
+                .log("Warmup step");
+        }
+        logger.atInfo()
+            .addKeyValue("rounds", round)
+            .addKeyValue("warmupMillis", (System.nanoTime() - started) / 1_000_000)
+            .addKeyValue("budgetMillis", budget.toMillis())
+            .log("Warmup finished");
+    }
+
+    private StepReport time(String name, Runnable step) {
+        long start = System.nanoTime();
+        String error = null;
+        try {
+            step.run();
+        } catch (RuntimeException e) {
+            // The warmup must never keep the instance from becoming ready
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            logger.warn("Warmup step {} failed, skipping it: {}", name, error);
+        }
+        long micros = (System.nanoTime() - start) / 1_000;
+        return new StepReport(name, 1, micros, micros, error);
+    }
+
+    /**
+     * Open connections up to minimumIdle at once (Hikari otherwise fills the pool in the background,
+     * one connection after the other, while the first requests wait)
+     */
+    private void fillPools() {
+        List<DataSource> pools = new ArrayList<>();
+        ShardDataSources shards = shardDataSources.getIfAvailable();
+        if (shards != null) {
+            pools.add(shards.primary());
+            for (int i = 0; i < shards.size(); i++) {
+                pools.add(shards.shard(i));
+            }
+        } else {
+            pools.add(dataSource);
+        }
+
+        for (DataSource pool : pools) {
+            int connections = 1;
+            try {
+                if (pool.isWrapperFor(HikariDataSource.class)) {
+                    HikariDataSource hikari = pool.unwrap(HikariDataSource.class);
+                    connections = Math.max(1, Math.min(hikari.getMinimumIdle(), hikari.getMaximumPoolSize()));
+                }
+                List<Connection> held = new ArrayList<>(connections);
+                try {
+                    for (int i = 0; i < connections; i++) {
+                        held.add(pool.getConnection());
+                    }
+                } finally {
+                    for (Connection connection : held) {
+                        connection.close();
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not open " + connections + " connection(s)", e);
+            }
+        }
+    }
+
+    /**
+     * The API's queries, against synthetic rows (rolled back) for the first write rounds
+     * No shard is bound here, so with sharding enabled this runs on the primary
+     * (same schema, same statements).
+     */
+    private void repositoryRound() {
+        if (repositoryRounds++ < writeRounds) {
+            writeRound();
+        } else {
+            readRound();
+        }
+    }
+
+    private void writeRound() {
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+
+            String auth0Id = "warmup|" + UUID.randomUUID();
+            User user = userRepository.save(new User(auth0Id, "warmup@example.invalid", "Warmup"));
+            List<Store> stores = new ArrayList<>(storesPerRound);
+            for (int i = 0; i < storesPerRound; i++) {
+                Store store = new Store("Warmup " + i, "Location " + (i % 3), user);
+                store.setStoreId(UUID.randomUUID());
+                stores.add(store);
+            }
+            storeRepository.saveAll(stores);
+            storeRepository.flush();
+
+            userRepository.findByAuth0Id(auth0Id);
+            userRepository.existsByAuth0Id(auth0Id);
+            userRepository.findById(user.getUserId());
+
+            StoreListQuery query = StoreListQuery.defaults();
+            Page<Store> page = storeRepository.findAll(StoreSpecifications.forQuery(user, query),
+                    PageRequest.of(0, 10, query.toSort()));
+            storeRepository.findByUserAndStoreIdIn(user, List.of(stores.get(0).getStoreId()));
+            storeRepository.findById(stores.get(0).getStoreId());
+            storeRepository.countByUser(user);
+
+            serialize(page.getContent());
+        });
+    }
+
+    /**
+     * Same reads for a user that doesn't exist: same statements and plans, no rows, no writes
+     */
+    private void readRound() {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            UUID userId = UUID.randomUUID();
+            User user = userRepository.getReferenceById(userId);  // proxy, only its id is bound
+            String auth0Id = "warmup|" + userId;
+            userRepository.findByAuth0Id(auth0Id);
+            userRepository.existsByAuth0Id(auth0Id);
+            userRepository.findById(userId);
+
+            StoreListQuery query = StoreListQuery.defaults();
+            Page<Store> page = storeRepository.findAll(StoreSpecifications.forQuery(user, query),
+                    PageRequest.of(0, 10, query.toSort()));
+            storeRepository.findByUserAndStoreIdIn(user, List.of(UUID.randomUUID()));
+            storeRepository.findById(UUID.randomUUID());
+            storeRepository.countByUser(user);
+
+            serialize(page.getContent());
+        });
+    }
+
+    private void jsonRound() {
+        User user = new User("warmup|json", "warmup@example.invalid", "Warmup");
+        user.setUserId(UUID.randomUUID());
+        List<Store> stores = new ArrayList<>(storesPerRound);
+        for (int i = 0; i < storesPerRound; i++) {
+            Store store = new Store("Warmup " + i, "Location " + (i % 3), user);
+            store.setStoreId(UUID.randomUUID());
+            store.setStoreCreatedAt(Instant.now());
+            stores.add(store);
+        }
+        serialize(stores);
+
+        try {
+            StoreDTO dto = new StoreDTO(UUID.randomUUID(), "Warmup", "Location", Instant.now(), user.getUserId());
+            byte[] json = objectMapper.writeValueAsBytes(dto);
+            objectMapper.readValue(json, StoreDTO.class);
+            objectMapper.readValue("{\"storeName\":\"Warmup\"}", Map.class); // PATCH body
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void serialize(List<Store> stores) {
+        PaginatedResponse<Store> page = new PaginatedResponse<>(stores, 1, stores.size(), stores.size(), 1, true, true);
+        try {
+            objectMapper.writeValueAsBytes(new ApiResponse<>(true, null, page));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void jwtRound() {
+        try {
+            jwtDecoder.decode(SYNTHETIC_TOKEN);
+        } catch (BadJwtException expected) {
+            // Parsed and looked up the key set - verification is supposed to fail
+        }
+    }
+
+    private void httpRound(int port) {
+        try {
+            send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/info")).GET().build());
+            HttpRequest.Builder stores = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/store/all"));
+            if (httpRounds++ == 0) {
+                stores.header("Authorization", "Bearer " + SYNTHETIC_TOKEN);
+            }
+            send(stores.GET().build());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void send(HttpRequest request) throws IOException, InterruptedException {
+        httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static String base64(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
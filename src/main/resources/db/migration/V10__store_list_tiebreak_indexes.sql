@@ -0,0 +1,23 @@
+-- storeId tie-breaker for GET /api/store/all (see StoreListQuery.toSort)
+--
+-- Every listing now ends with ORDER BY ..., store_id so stores with equal sort
+-- values can't repeat or vanish between pages. The list indexes get store_id as
+-- their last column so the full order still comes straight from the index,
+-- then the V2 / V3 indexes they replace are dropped.
+-- Built CONCURRENTLY (see V10__store_list_tiebreak_indexes.sql.conf: no transaction).
+
+-- sort=storeCreatedAt [+ createdAfter/Before], user deletes, stores.user_id foreign key
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stores_user_created_id
+    ON stores (user_id, store_created_at, store_id);
+
+-- location filter + sort=storeCreatedAt, and sort=storeLocation
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stores_user_location_created_id
+    ON stores (user_id, store_location, store_created_at, store_id);
+
+-- sort=storeName
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stores_user_name_id
+    ON stores (user_id, store_name, store_id);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_stores_user_created;
+DROP INDEX CONCURRENTLY IF EXISTS idx_stores_user_location_created;
+DROP INDEX CONCURRENTLY IF EXISTS idx_stores_user_name;
@@ -0,0 +1,23 @@
+-- Baseline schema: users and their stores
+--
+-- Matches the tables Hibernate used to create from the entities
+-- (User, Store). Existing databases that were created that way are
+-- baselined at version 1 (see FlywayConfig), so this script only runs
+-- on empty databases.
+
+CREATE TABLE IF NOT EXISTS users (
+    user_id     UUID                        NOT NULL PRIMARY KEY,
+    auth0_id    VARCHAR(255)                NOT NULL UNIQUE,
+    email       VARCHAR(255),
+    name        VARCHAR(255),
+    created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS stores (
+    store_id         UUID                        NOT NULL PRIMARY KEY,
+    store_name       VARCHAR(255)                NOT NULL,
+    store_location   VARCHAR(255)                NOT NULL,
+    store_created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    user_id          UUID                        NOT NULL REFERENCES users (user_id)
+);
@@ -0,0 +1,15 @@
+-- Access-path indexes for the repository queries
+--
+-- Built CONCURRENTLY so existing tables stay writable while the index
+-- is created (see V2__store_access_indexes.sql.conf: no transaction).
+
+-- StoreRepository.findByUser / countByUser / deleteAllByUserId:
+--   WHERE user_id = ? [ORDER BY store_created_at]
+-- Also covers the stores.user_id foreign key (user deletes).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stores_user_created
+    ON stores (user_id, store_created_at);
+
+-- UserRepository.findByEmail: WHERE email = ?
+-- (findByAuth0Id / existsByAuth0Id use the UNIQUE constraint on auth0_id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email
+    ON users (email);
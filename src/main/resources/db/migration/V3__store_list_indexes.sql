@@ -0,0 +1,9 @@
+-- Indexes for sorting / filtering GET /api/store/all (see StoreListQuery)
+
+-- location filter + createdAt sort, and sort=storeLocation
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stores_user_location_created
+    ON stores (user_id, store_location, store_created_at);
+
+-- sort=storeName
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stores_user_name
+    ON stores (user_id, store_name);
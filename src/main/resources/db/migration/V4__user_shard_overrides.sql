@@ -0,0 +1,8 @@
+-- Users that were moved off their hash shard by the rebalancer (sharding/ShardRebalancer).
+-- Read from the primary database; every user without a row here is routed by hash(user_id).
+-- Also created on the shards (same migrations everywhere), where it stays empty.
+CREATE TABLE IF NOT EXISTS user_shard_overrides (
+    user_id  UUID PRIMARY KEY REFERENCES users (user_id) ON DELETE CASCADE,
+    shard    INTEGER NOT NULL,
+    moved_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
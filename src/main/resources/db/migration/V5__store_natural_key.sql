@@ -0,0 +1,34 @@
+-- Natural key of a store: one (name, location) per user
+-- PUT /api/store/upsert relies on it (INSERT ... ON CONFLICT (user_id, store_name, store_location)).
+-- From here on POST /api/store, PUT /api/store/{id}, PATCH and the import answer
+-- 409 Conflict for a second store with the same name and location.
+
+-- Existing duplicates (racing sync jobs) are NOT removed here - which copy to keep is
+-- the owner's call. The migration fails and lists them; resolve them (by hand or with
+-- scripts/dedupe-store-natural-key.sql) and deploy again.
+DO $$
+DECLARE
+    duplicates TEXT;
+BEGIN
+    SELECT string_agg(format('user %s: %L @ %L (%s stores)', user_id, store_name, store_location, n), E'\n')
+    INTO duplicates
+    FROM (SELECT user_id, store_name, store_location, count(*) AS n
+          FROM stores
+          GROUP BY user_id, store_name, store_location
+          HAVING count(*) > 1
+          ORDER BY n DESC
+          LIMIT 50) d;
+
+    IF duplicates IS NOT NULL THEN
+        RAISE EXCEPTION 'stores has duplicate (user, name, location) keys, the unique index can''t be built'
+            USING DETAIL = duplicates,
+                  HINT = 'Resolve them, e.g. with scripts/dedupe-store-natural-key.sql, then migrate again (first 50 shown)';
+    END IF;
+END
+$$;
+
+-- Built without blocking writes. A duplicate inserted between the check and the end
+-- of the build fails the migration and leaves an INVALID index behind:
+-- DROP INDEX uq_stores_user_name_location, then run the migration again.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uq_stores_user_name_location
+    ON stores (user_id, store_name, store_location);
@@ -0,0 +1,80 @@
+-- Number of stores per (user, location), serves GET /api/store/facets/location
+--
+-- Kept up to date by statement-level triggers on stores, so every write path counts:
+-- the JPA writes (create / replace / patch / delete), import, upsert, reconcile,
+-- user deletion and the shard rebalancer. One aggregated UPSERT per statement,
+-- a bulk statement touches each (user, location) row once.
+-- Rows that drop to 0 are removed, a user's rows are exactly their distinct locations.
+-- Drift (stores from before the triggers, manual SQL) is repaired by StoreRollupBackfill.
+--
+-- Created on every shard (same migrations everywhere), like stores itself.
+
+CREATE TABLE IF NOT EXISTS store_location_counts (
+    user_id        UUID         NOT NULL,
+    store_location VARCHAR(255) NOT NULL,
+    store_count    BIGINT       NOT NULL,
+    PRIMARY KEY (user_id, store_location)
+);
+
+-- Rows are locked in key order (ORDER BY) so that two bulk writes can't deadlock
+CREATE OR REPLACE FUNCTION store_location_counts_apply() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO store_location_counts AS c (user_id, store_location, store_count)
+        SELECT user_id, store_location, count(*)
+        FROM new_stores GROUP BY user_id, store_location ORDER BY user_id, store_location
+        ON CONFLICT (user_id, store_location) DO UPDATE SET store_count = c.store_count + EXCLUDED.store_count;
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'DELETE' THEN
+        UPDATE store_location_counts c SET store_count = c.store_count - d.n
+        FROM (SELECT user_id, store_location, count(*) AS n
+              FROM old_stores GROUP BY user_id, store_location ORDER BY user_id, store_location) d
+        WHERE c.user_id = d.user_id AND c.store_location = d.store_location;
+    ELSE
+        -- UPDATE: only rows whose user or location changed move between counts
+        INSERT INTO store_location_counts AS c (user_id, store_location, store_count)
+        SELECT user_id, store_location, sum(n)
+        FROM (SELECT user_id, store_location, 1 AS n FROM new_stores
+              UNION ALL
+              SELECT user_id, store_location, -1 AS n FROM old_stores) d
+        GROUP BY user_id, store_location
+        HAVING sum(n) <> 0
+        ORDER BY user_id, store_location
+        ON CONFLICT (user_id, store_location) DO UPDATE SET store_count = c.store_count + EXCLUDED.store_count;
+    END IF;
+
+    DELETE FROM store_location_counts c
+    USING (SELECT DISTINCT user_id, store_location FROM old_stores) o
+    WHERE c.user_id = o.user_id AND c.store_location = o.store_location AND c.store_count <= 0;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS stores_location_counts_insert ON stores;
+CREATE TRIGGER stores_location_counts_insert
+    AFTER INSERT ON stores REFERENCING NEW TABLE AS new_stores
+    FOR EACH STATEMENT EXECUTE FUNCTION store_location_counts_apply();
+
+DROP TRIGGER IF EXISTS stores_location_counts_update ON stores;
+CREATE TRIGGER stores_location_counts_update
+    AFTER UPDATE ON stores REFERENCING OLD TABLE AS old_stores NEW TABLE AS new_stores
+    FOR EACH STATEMENT EXECUTE FUNCTION store_location_counts_apply();
+
+DROP TRIGGER IF EXISTS stores_location_counts_delete ON stores;
+CREATE TRIGGER stores_location_counts_delete
+    AFTER DELETE ON stores REFERENCING OLD TABLE AS old_stores
+    FOR EACH STATEMENT EXECUTE FUNCTION store_location_counts_apply();
+
+-- Stores that existed before this migration are counted online after the deploy,
+-- not here: scanning stores in this transaction would hold back every write to it
+-- (CREATE TRIGGER locks the table until the commit). StoreRollupBackfill runs the
+-- backfills listed in pending_backfills at startup, in short per-user chunks.
+CREATE TABLE IF NOT EXISTS pending_backfills (
+    name         TEXT                     PRIMARY KEY,
+    requested_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+INSERT INTO pending_backfills (name) VALUES ('store_location_counts') ON CONFLICT DO NOTHING;
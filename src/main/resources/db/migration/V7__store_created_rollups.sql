@@ -0,0 +1,108 @@
+-- Stores created per user and hour / day / month (UTC buckets),
+-- serves GET /api/store/stats/created without touching stores
+--
+-- Kept up to date by statement-level triggers on stores, like store_location_counts (V6):
+-- every write path counts, a changed store_created_at moves the store between buckets.
+-- Each statement is first aggregated per (user, hour), day and month are summed from that.
+--
+-- No global rows: one row per bucket for all users would serialize every insert.
+-- Global numbers are summed over the users' rows (index on bucket_start).
+--
+-- Stores that existed before this migration are counted by the backfill job:
+-- POST /actuator/storerollups (StoreRollupBackfill), once after deploying.
+
+CREATE TABLE IF NOT EXISTS store_created_hourly (
+    user_id      UUID                     NOT NULL,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    store_count  BIGINT                   NOT NULL,
+    PRIMARY KEY (user_id, bucket_start)
+);
+
+CREATE TABLE IF NOT EXISTS store_created_daily (
+    user_id      UUID                     NOT NULL,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    store_count  BIGINT                   NOT NULL,
+    PRIMARY KEY (user_id, bucket_start)
+);
+
+CREATE TABLE IF NOT EXISTS store_created_monthly (
+    user_id      UUID                     NOT NULL,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    store_count  BIGINT                   NOT NULL,
+    PRIMARY KEY (user_id, bucket_start)
+);
+
+-- Global stats: index-only scans over a time range
+CREATE INDEX IF NOT EXISTS idx_store_created_hourly_bucket ON store_created_hourly (bucket_start) INCLUDE (store_count);
+CREATE INDEX IF NOT EXISTS idx_store_created_daily_bucket ON store_created_daily (bucket_start) INCLUDE (store_count);
+CREATE INDEX IF NOT EXISTS idx_store_created_monthly_bucket ON store_created_monthly (bucket_start) INCLUDE (store_count);
+
+-- Rows are locked in key order (ORDER BY) so that two bulk writes can't deadlock.
+-- Buckets that drop to 0 stay (filtered when reading), they are likely to be filled again.
+CREATE OR REPLACE FUNCTION store_created_rollups_apply() RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    users  UUID[];
+    hours  TIMESTAMPTZ[];
+    deltas BIGINT[];
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT array_agg(user_id), array_agg(hour), array_agg(n) INTO users, hours, deltas
+        FROM (SELECT user_id, date_trunc('hour', store_created_at, 'UTC') AS hour, count(*) AS n
+              FROM new_stores GROUP BY 1, 2) d;
+    ELSIF TG_OP = 'DELETE' THEN
+        SELECT array_agg(user_id), array_agg(hour), array_agg(n) INTO users, hours, deltas
+        FROM (SELECT user_id, date_trunc('hour', store_created_at, 'UTC') AS hour, -count(*) AS n
+              FROM old_stores GROUP BY 1, 2) d;
+    ELSE
+        SELECT array_agg(user_id), array_agg(hour), array_agg(n) INTO users, hours, deltas
+        FROM (SELECT user_id, hour, sum(n) AS n
+              FROM (SELECT user_id, date_trunc('hour', store_created_at, 'UTC') AS hour, 1 AS n FROM new_stores
+                    UNION ALL
+                    SELECT user_id, date_trunc('hour', store_created_at, 'UTC') AS hour, -1 AS n FROM old_stores) c
+              GROUP BY 1, 2
+              HAVING sum(n) <> 0) d;
+    END IF;
+
+    IF users IS NULL THEN
+        RETURN NULL;  -- nothing moved between buckets
+    END IF;
+
+    INSERT INTO store_created_hourly AS r (user_id, bucket_start, store_count)
+    SELECT user_id, hour, n
+    FROM unnest(users, hours, deltas) AS d(user_id, hour, n)
+    ORDER BY 1, 2
+    ON CONFLICT (user_id, bucket_start) DO UPDATE SET store_count = r.store_count + EXCLUDED.store_count;
+
+    INSERT INTO store_created_daily AS r (user_id, bucket_start, store_count)
+    SELECT user_id, date_trunc('day', hour, 'UTC'), sum(n)
+    FROM unnest(users, hours, deltas) AS d(user_id, hour, n)
+    GROUP BY 1, 2 HAVING sum(n) <> 0
+    ORDER BY 1, 2
+    ON CONFLICT (user_id, bucket_start) DO UPDATE SET store_count = r.store_count + EXCLUDED.store_count;
+
+    INSERT INTO store_created_monthly AS r (user_id, bucket_start, store_count)
+    SELECT user_id, date_trunc('month', hour, 'UTC'), sum(n)
+    FROM unnest(users, hours, deltas) AS d(user_id, hour, n)
+    GROUP BY 1, 2 HAVING sum(n) <> 0
+    ORDER BY 1, 2
+    ON CONFLICT (user_id, bucket_start) DO UPDATE SET store_count = r.store_count + EXCLUDED.store_count;
+
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS stores_created_rollups_insert ON stores;
+CREATE TRIGGER stores_created_rollups_insert
+    AFTER INSERT ON stores REFERENCING NEW TABLE AS new_stores
+    FOR EACH STATEMENT EXECUTE FUNCTION store_created_rollups_apply();
+
+DROP TRIGGER IF EXISTS stores_created_rollups_update ON stores;
+CREATE TRIGGER stores_created_rollups_update
+    AFTER UPDATE ON stores REFERENCING OLD TABLE AS old_stores NEW TABLE AS new_stores
+    FOR EACH STATEMENT EXECUTE FUNCTION store_created_rollups_apply();
+
+DROP TRIGGER IF EXISTS stores_created_rollups_delete ON stores;
+CREATE TRIGGER stores_created_rollups_delete
+    AFTER DELETE ON stores REFERENCING OLD TABLE AS old_stores
+    FOR EACH STATEMENT EXECUTE FUNCTION store_created_rollups_apply();
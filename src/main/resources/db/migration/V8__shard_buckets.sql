@@ -0,0 +1,8 @@
+-- Virtual bucket -> shard assignment (sharding/ShardRouter).
+-- Filled once, round robin over the shards configured at the first start with sharding
+-- enabled; adding shards later changes no row, so no user changes shard by accident.
+-- Also created on the shards (same migrations everywhere), where it stays empty.
+CREATE TABLE IF NOT EXISTS shard_buckets (
+    bucket INTEGER PRIMARY KEY,
+    shard  INTEGER NOT NULL
+);
@@ -0,0 +1,11 @@
+-- Initial count of the store creation rollups (V7) for the stores that existed before V7
+--
+-- Not counted here: a full scan of stores inside a migration holds back writes while
+-- the deploy runs. This only marks the backfill as due, StoreRollupBackfill runs it
+-- online at the next startup (like store_location_counts, see V6) - in per-user chunks,
+-- adding the difference to what the triggers counted since V7, writes keep going.
+-- Runs on every shard (same migrations everywhere), each marks its own backfill.
+--
+-- Later repairs: POST /actuator/storerollups (StoreRollupBackfill), online per user chunk.
+
+INSERT INTO pending_backfills (name) VALUES ('store_created_rollups') ON CONFLICT DO NOTHING;
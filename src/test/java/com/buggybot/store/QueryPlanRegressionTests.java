@@ -0,0 +1,301 @@
+package com.buggybot.store;
+
+import com.buggybot.store.controller.store.bulk.StoreReconcileService;
+import com.buggybot.store.controller.store.dto.StoreCreatedStatsQuery.Bucket;
+import com.buggybot.store.controller.store.repository.StoreLocationCountRepository;
+import com.buggybot.store.controller.store.repository.StoreRepository;
+import com.buggybot.store.controller.store.repository.StoreUpsertRepository;
+import com.buggybot.store.controller.store.stats.StoreCreatedStatsRepository;
+import com.buggybot.store.sharding.ShardRebalancer;
+import com.buggybot.store.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN for the SQL behind every StoreRepository / UserRepository query
+ * (and the plain JDBC queries of the sharding rebalancer)
+ * against a seeded PostgreSQL and fails if any of them plans a sequential scan.
+ *
+ * Derived and JPQL repository methods: the statements mirror what Hibernate generates for them.
+ * Native and plain JDBC SQL: the production SQL constants themselves, with bound
+ * parameters, so they can't drift. When you add a query, add it to queries() below.
+ */
+@Testcontainers
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryPlanRegressionTests {
+
+	@Container
+	@ServiceConnection
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private static final int USERS = 20_000;
+	private static final int STORES_PER_USER = 5;
+	// Each user's stores are created at some hour within the last two years
+	private static final int SEEDED_HOURS = 2 * 365 * 24;
+
+	// Bound to the seeded user's id
+	private static final Object USER_ID = new Object();
+
+	private static boolean seeded;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String userId;
+
+	@BeforeEach
+	void seed() {
+		if (!seeded) {
+			jdbcTemplate.update("""
+					INSERT INTO users (user_id, auth0_id, email, name, created_at, updated_at)
+					SELECT gen_random_uuid(), 'auth0|seed-' || g, 'seed' || g || '@example.com',
+					       'Seed ' || g, now(), now()
+					FROM generate_series(1, ?) g
+					""", USERS);
+			jdbcTemplate.update("""
+					INSERT INTO stores (store_id, store_name, store_location, store_created_at, user_id)
+					SELECT gen_random_uuid(), 'Store ' || s, 'Location ' || (s % 3),
+					       now() - make_interval(hours => (hashtext(u.auth0_id) & 2147483647) % ?, mins => s), u.user_id
+					FROM users u CROSS JOIN generate_series(1, ?) s
+					""", SEEDED_HOURS, STORES_PER_USER);
+			jdbcTemplate.execute("ANALYZE users");
+			jdbcTemplate.execute("ANALYZE stores");
+			jdbcTemplate.execute("ANALYZE store_location_counts");
+			// VACUUM too: the global stats are index-only scans, they need the visibility map
+			jdbcTemplate.execute("VACUUM ANALYZE store_created_hourly");
+			jdbcTemplate.execute("VACUUM ANALYZE store_created_daily");
+			jdbcTemplate.execute("VACUUM ANALYZE store_created_monthly");
+			seeded = true;
+		}
+		userId = jdbcTemplate.queryForObject(
+				"SELECT user_id::text FROM users WHERE auth0_id = 'auth0|seed-42'", String.class);
+	}
+
+	static Stream<Arguments> queries() {
+		return Stream.of(
+				// UserRepository
+				query("UserRepository.findById",
+						"SELECT * FROM users WHERE user_id = :userId"),
+				query("UserRepository.findByAuth0Id",
+						"SELECT * FROM users WHERE auth0_id = 'auth0|seed-42'"),
+				query("UserRepository.existsByAuth0Id",
+						"SELECT user_id FROM users WHERE auth0_id = 'auth0|seed-42' FETCH FIRST 1 ROWS ONLY"),
+				query("UserRepository.findByEmail",
+						"SELECT * FROM users WHERE email = 'seed42@example.com'"),
+				query("UserRepository.deleteRowById",
+						"DELETE FROM users WHERE user_id = :userId"),
+				query("UserRepository.findSummaries",
+						"SELECT u.user_id, u.auth0_id, u.email, u.name, u.created_at, u.updated_at, "
+								+ "count(s.store_id), max(s.store_created_at) "
+								+ "FROM users u LEFT JOIN stores s ON s.user_id = u.user_id "
+								+ "GROUP BY u.user_id, u.auth0_id, u.email, u.name, u.created_at, u.updated_at "
+								+ "ORDER BY u.user_id OFFSET 0 ROWS FETCH FIRST 20 ROWS ONLY"),
+
+				// StoreRepository
+				query("StoreRepository.findById",
+						"SELECT * FROM stores WHERE store_id = '00000000-0000-0000-0000-000000000000'::uuid"),
+				query("StoreRepository.findByUser",
+						"SELECT * FROM stores WHERE user_id = :userId"),
+				query("StoreRepository.findByUser(pageable)",
+						"SELECT * FROM stores WHERE user_id = :userId OFFSET 0 ROWS FETCH FIRST 10 ROWS ONLY"),
+				query("StoreRepository.findAll(spec) sort=storeCreatedAt,desc",
+						"SELECT * FROM stores WHERE user_id = :userId "
+								+ "ORDER BY store_created_at DESC, store_id DESC FETCH FIRST 10 ROWS ONLY"),
+				query("StoreRepository.findAll(spec) createdAfter/Before",
+						"SELECT * FROM stores WHERE user_id = :userId "
+								+ "AND store_created_at >= now() - interval '3 minutes' AND store_created_at < now() "
+								+ "ORDER BY store_created_at DESC, store_id DESC FETCH FIRST 10 ROWS ONLY"),
+				query("StoreRepository.findAll(spec) location + sort=storeCreatedAt",
+						"SELECT * FROM stores WHERE user_id = :userId AND store_location = 'Location 1' "
+								+ "ORDER BY store_created_at DESC, store_id DESC FETCH FIRST 10 ROWS ONLY"),
+				query("StoreRepository.findAll(spec) sort=storeLocation",
+						"SELECT * FROM stores WHERE user_id = :userId "
+								+ "ORDER BY store_location, store_created_at, store_id FETCH FIRST 10 ROWS ONLY"),
+				query("StoreRepository.findAll(spec) sort=storeName",
+						"SELECT * FROM stores WHERE user_id = :userId "
+								+ "ORDER BY store_name, store_id FETCH FIRST 10 ROWS ONLY"),
+				query("StoreRepository.count(spec) location",
+						"SELECT count(store_id) FROM stores WHERE user_id = :userId AND store_location = 'Location 1'"),
+				query("StoreRepository.findByUserAndStoreIdIn",
+						"SELECT * FROM stores WHERE user_id = :userId AND store_id IN "
+								+ "('00000000-0000-0000-0000-000000000001'::uuid, '00000000-0000-0000-0000-000000000002'::uuid)"),
+				query("StoreRepository.findFields fields=storeId,storeName",
+						"SELECT store_id, store_name FROM stores WHERE user_id = :userId "
+								+ "ORDER BY store_created_at DESC, store_id DESC OFFSET 0 ROWS FETCH FIRST 10 ROWS ONLY"),
+				query("StoreRepository.findOneFields",
+						"SELECT store_id, user_id FROM stores WHERE user_id = :userId "
+								+ "AND store_id = '00000000-0000-0000-0000-000000000000'::uuid FETCH FIRST 1 ROWS ONLY"),
+				query("StoreRepository.statsByUserIds",
+						"SELECT user_id, count(store_id), max(store_created_at) FROM stores "
+								+ "WHERE user_id IN (:userId, '00000000-0000-0000-0000-000000000001'::uuid) GROUP BY user_id"),
+				query("StoreRepository.countByUser",
+						"SELECT count(store_id) FROM stores WHERE user_id = :userId"),
+				query("StoreRepository.deleteAllByUserId",
+						"DELETE FROM stores WHERE user_id = :userId"),
+				query("StoreRepository.deleteBatchByUserId",
+						StoreRepository.DELETE_BATCH_SQL.replace(":batchSize", "5000")),
+
+				// Plain JDBC: the production statements, explained with bound parameters
+				query("StoreUpsertRepository.upsert", StoreUpsertRepository.UPSERT_SQL,
+						new UUID[]{new UUID(0, 1)}, new String[]{"Store 1"}, new String[]{"Location 1"},
+						new String[]{null}, new Boolean[]{false}, new Boolean[]{false}, USER_ID),
+				query("StoreLocationCountRepository.findTop", StoreLocationCountRepository.TOP_SQL, USER_ID, 10),
+				query("StoreCreatedStatsRepository.findForUser bucket=hour", userStats(Bucket.HOUR),
+						USER_ID, "hour", ago(Duration.ofDays(2)), ago(Duration.ZERO)),
+				query("StoreCreatedStatsRepository.findForUser bucket=day", userStats(Bucket.DAY),
+						USER_ID, "day", ago(Duration.ofDays(30)), ago(Duration.ZERO)),
+				query("StoreCreatedStatsRepository.findForUser bucket=month", userStats(Bucket.MONTH),
+						USER_ID, "month", ago(Duration.ofDays(365)), ago(Duration.ZERO)),
+				query("StoreCreatedStatsRepository.findGlobal bucket=hour", globalStats(Bucket.HOUR),
+						globalRange(Bucket.HOUR)),
+				query("StoreCreatedStatsRepository.findGlobal bucket=day", globalStats(Bucket.DAY),
+						globalRange(Bucket.DAY)),
+				query("StoreCreatedStatsRepository.findGlobal bucket=month", globalStats(Bucket.MONTH),
+						globalRange(Bucket.MONTH)),
+				query("StoreReconcileService delete", StoreReconcileService.DELETE_SQL, USER_ID),
+				query("StoreReconcileService update", StoreReconcileService.UPDATE_SQL, USER_ID),
+				query("StoreReconcileService insert", StoreReconcileService.INSERT_SQL, USER_ID, USER_ID),
+				query("ShardRouter fence row", ShardRouter.MOVED_TO_SQL, USER_ID),
+				query("ShardRebalancer copy batch", ShardRebalancer.COPY_BATCH_SQL,
+						USER_ID, new UUID(0, 0), 1000),
+				query("ShardRebalancer id batch", ShardRebalancer.ID_BATCH_SQL,
+						USER_ID, new UUID(0, 0), 1000),
+				query("ShardRebalancer delete batch", ShardRebalancer.DELETE_BATCH_SQL, USER_ID, 1000)
+		);
+	}
+
+	/**
+	 * A few seeded weeks / months out of the two years: the global stats must read
+	 * them through the bucket index, on a range that actually has rows
+	 */
+	@ParameterizedTest
+	@EnumSource(Bucket.class)
+	void globalStatsUseTheBucketIndexOnASeededRange(Bucket bucket) {
+		String sql = globalStats(bucket);
+		Object[] range = globalRange(bucket);
+
+		List<Long> counts = jdbcTemplate.query(sql, (rs, i) -> rs.getLong("store_count"), range);
+		assertThat(counts).isNotEmpty();
+
+		List<String> plan = explain(sql, range);
+		assertThat(plan)
+				.as("%s plan:%n%s", bucket, String.join("\n", plan))
+				.anyMatch(line -> line.contains("Index") && line.contains("idx_" + StoreCreatedStatsRepository.table(bucket) + "_bucket"))
+				.noneMatch(line -> line.contains("Seq Scan"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("queries")
+	void queryDoesNotSequentialScan(String name, String sql, Object[] params) {
+		List<String> plan = explain(sql.replace(":userId", "'" + userId + "'::uuid"), params);
+
+		// The reconcile staging table holds one CSV chunk, scanning it whole is the plan
+		assertThat(plan)
+				.as("%s plan:%n%s", name, String.join("\n", plan))
+				.noneMatch(line -> line.contains("Seq Scan") && !line.contains("on store_reconcile"));
+	}
+
+	/**
+	 * EXPLAIN with bound parameters; statements on the reconcile staging table
+	 * get it created first, in a transaction that is rolled back
+	 */
+	private List<String> explain(String sql, Object[] params) {
+		return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+			boolean staging = sql.contains("store_reconcile");
+			if (staging) {
+				connection.setAutoCommit(false);
+				try (Statement statement = connection.createStatement()) {
+					statement.execute(StoreReconcileService.CREATE_STAGING_SQL);
+				}
+			}
+			try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+				for (int i = 0; i < params.length; i++) {
+					statement.setObject(i + 1, bind(connection, params[i]));
+				}
+				List<String> plan = new ArrayList<>();
+				try (ResultSet rs = statement.executeQuery()) {
+					while (rs.next()) {
+						plan.add(rs.getString(1));
+					}
+				}
+				return plan;
+			} finally {
+				if (staging) {
+					connection.rollback();
+					connection.setAutoCommit(true);
+				}
+			}
+		});
+	}
+
+	private Object bind(Connection connection, Object param) throws SQLException {
+		if (param == USER_ID) return UUID.fromString(userId);
+		if (param instanceof UUID[] values) return connection.createArrayOf("uuid", values);
+		if (param instanceof String[] values) return connection.createArrayOf("text", values);
+		if (param instanceof Boolean[] values) return connection.createArrayOf("boolean", values);
+		return param;
+	}
+
+	/**
+	 * @param params values of the ? placeholders, USER_ID for the seeded user
+	 */
+	private static Arguments query(String name, String sql, Object... params) {
+		return Arguments.of(name, sql, params);
+	}
+
+	private static String userStats(Bucket bucket) {
+		return StoreCreatedStatsRepository.USER_SQL.formatted(StoreCreatedStatsRepository.table(bucket));
+	}
+
+	private static String globalStats(Bucket bucket) {
+		return StoreCreatedStatsRepository.GLOBAL_SQL.formatted(StoreCreatedStatsRepository.table(bucket));
+	}
+
+	private static Timestamp ago(Duration duration) {
+		return Timestamp.from(Instant.now().minus(duration));
+	}
+
+	/**
+	 * Parameters of findGlobal for a slice of the seeded two years, about a year back
+	 */
+	private static Object[] globalRange(Bucket bucket) {
+		Duration length = switch (bucket) {
+			case HOUR -> Duration.ofDays(1);
+			case DAY -> Duration.ofDays(30);
+			case MONTH -> Duration.ofDays(62);
+		};
+		Duration from = Duration.ofDays(365);
+		return new Object[]{bucket.unit(), ago(from), ago(from.minus(length))};
+	}
+}
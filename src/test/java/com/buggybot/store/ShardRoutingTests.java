@@ -0,0 +1,207 @@
+package com.buggybot.store;
+
+import com.buggybot.store.controller.store.StoreServiceImpl;
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.user.entity.User;
+import com.buggybot.store.controller.user.repository.UserRepository;
+import com.buggybot.store.controller.user.service.UserService;
+import com.buggybot.store.sharding.ShardRebalancer;
+import com.buggybot.store.sharding.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sharding against three real databases: a primary (users) and two store shards.
+ */
+@Testcontainers
+@SpringBootTest(properties = {
+		"auth0.audience=https://store.test",
+		"spring.security.oauth2.resourceserver.jwt.issuer-uri=https://store.test/",
+		"store.jfr.enabled=false",
+		"store.warmup.enabled=false",
+		"store.sharding.enabled=true",
+		"store.sharding.rebalance.clean-delay=0s"
+})
+class ShardRoutingTests {
+
+	@Container
+	static final PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Container
+	static final PostgreSQLContainer<?> shard0 = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Container
+	static final PostgreSQLContainer<?> shard1 = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private static final List<PostgreSQLContainer<?>> SHARDS = List.of(shard0, shard1);
+
+	@DynamicPropertySource
+	static void databases(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", primary::getJdbcUrl);
+		registry.add("spring.datasource.username", primary::getUsername);
+		registry.add("spring.datasource.password", primary::getPassword);
+		for (int i = 0; i < SHARDS.size(); i++) {
+			PostgreSQLContainer<?> shard = SHARDS.get(i);
+			registry.add("store.sharding.shards[" + i + "].url", shard::getJdbcUrl);
+			registry.add("store.sharding.shards[" + i + "].username", shard::getUsername);
+			registry.add("store.sharding.shards[" + i + "].password", shard::getPassword);
+		}
+	}
+
+	@Autowired
+	private StoreServiceImpl storeService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ShardRouter shardRouter;
+
+	@Autowired
+	private ShardRebalancer shardRebalancer;
+
+	@Test
+	void storesLandOnTheShardOfTheirUser() {
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			User user = newUser("routing-" + i);
+			users.add(user);
+			storeService.createStore(new StoreDTO(null, "Store " + i, "Location " + i, null, null), user);
+		}
+
+		for (User user : users) {
+			int shard = shardRouter.shardFor(user.getUserId());
+			assertThat(storesOf(shard, user.getUserId())).isEqualTo(1);
+			assertThat(storesOf(1 - shard, user.getUserId())).isZero();
+			assertThat(storeService.getStoresPaginated(1, 10, user).totalElements()).isEqualTo(1);
+		}
+		assertThat(users).extracting(user -> shardRouter.shardFor(user.getUserId())).contains(0, 1);
+		assertThat(jdbc(primary).queryForObject("SELECT count(*) FROM stores", Long.class)).isZero();
+	}
+
+	@Test
+	void rebalanceMovesAllStoresOfAUser() {
+		User user = newUser("rebalance");
+		List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			ids.add(storeService.createStore(new StoreDTO(null, "Store " + i, "Somewhere", null, null), user).getStoreId());
+		}
+		int source = shardRouter.shardFor(user.getUserId());
+		int target = 1 - source;
+
+		ShardRebalancer.RebalanceReport report = shardRebalancer.rebalance(user.getUserId(), target);
+
+		assertThat(report.copied()).isEqualTo(50);
+		assertThat(report.removed()).isEqualTo(50);
+		assertThat(shardRouter.shardFor(user.getUserId())).isEqualTo(target);
+		assertThat(storesOf(target, user.getUserId())).isEqualTo(50);
+		assertThat(storesOf(source, user.getUserId())).isZero();
+		assertThat(storeService.getStoreById(ids.get(7), user)).isPresent();
+		assertThat(jdbc(primary).queryForObject(
+				"SELECT shard FROM user_shard_overrides WHERE user_id = ?", Integer.class, user.getUserId()))
+				.isEqualTo(target);
+
+		// Writes keep working on the new shard
+		storeService.createStore(new StoreDTO(null, "After move", "Somewhere", null, null), user);
+		assertThat(storesOf(target, user.getUserId())).isEqualTo(51);
+	}
+
+	@Test
+	void instancesThatMissedTheMoveAreSentOnByTheFence() {
+		User user = newUser("fence");
+		storeService.createStore(new StoreDTO(null, "Before", "Somewhere", null, null), user);
+		int source = shardRouter.shardFor(user.getUserId());
+		int target = 1 - source;
+		shardRebalancer.rebalance(user.getUserId(), target);
+
+		// An instance that hasn't seen the override yet still routes to the source
+		jdbc(primary).update("DELETE FROM user_shard_overrides WHERE user_id = ?", user.getUserId());
+		shardRouter.reloadOverrides();
+		assertThat(shardRouter.shardFor(user.getUserId())).isEqualTo(source);
+
+		storeService.createStore(new StoreDTO(null, "After", "Somewhere", null, null), user);
+
+		assertThat(storesOf(target, user.getUserId())).isEqualTo(2);
+		assertThat(storesOf(source, user.getUserId())).isZero();
+		assertThat(shardRouter.shardFor(user.getUserId())).isEqualTo(target);
+	}
+
+	@Test
+	void instancesThatMissedTheMoveReadFromTheNewShard() {
+		User user = newUser("stale-read");
+		UUID id = storeService.createStore(new StoreDTO(null, "Moved", "Somewhere", null, null), user).getStoreId();
+		int source = shardRouter.shardFor(user.getUserId());
+		int target = 1 - source;
+		shardRebalancer.rebalance(user.getUserId(), target);
+		assertThat(storesOf(source, user.getUserId())).isZero();
+
+		missTheMove(user, source);
+		assertThat(storeService.getStoreById(id, user)).isPresent();
+		assertThat(shardRouter.shardFor(user.getUserId())).isEqualTo(target);
+
+		missTheMove(user, source);
+		assertThat(storeService.getStoresPaginated(1, 10, user).totalElements()).isEqualTo(1);
+		assertThat(shardRouter.shardFor(user.getUserId())).isEqualTo(target);
+	}
+
+	@Test
+	void bucketAssignmentIsStored() {
+		assertThat(jdbc(primary).queryForObject("SELECT count(*) FROM shard_buckets", Long.class)).isEqualTo(1024);
+		assertThat(jdbc(primary).queryForList("SELECT DISTINCT shard FROM shard_buckets ORDER BY shard", Integer.class))
+				.containsExactly(0, 1);
+	}
+
+	@Test
+	void deletingAUserCleansItsShard() {
+		User user = newUser("delete");
+		storeService.createStore(new StoreDTO(null, "Doomed", "Nowhere", null, null), user);
+		int shard = shardRouter.shardFor(user.getUserId());
+
+		userService.deleteUser(user.getUserId());
+
+		assertThat(storesOf(shard, user.getUserId())).isZero();
+		assertThat(userRepository.findById(user.getUserId())).isEmpty();
+		assertThat(jdbc(SHARDS.get(shard)).queryForObject(
+				"SELECT count(*) FROM users WHERE user_id = ?", Long.class, user.getUserId())).isZero();
+	}
+
+	/**
+	 * Make this instance route the user like one that hasn't seen the override yet
+	 */
+	private void missTheMove(User user, int source) {
+		jdbc(primary).update("DELETE FROM user_shard_overrides WHERE user_id = ?", user.getUserId());
+		shardRouter.reloadOverrides();
+		assertThat(shardRouter.shardFor(user.getUserId())).isEqualTo(source);
+	}
+
+	private User newUser(String name) {
+		return userRepository.save(new User("auth0|" + name + "-" + UUID.randomUUID(), name + "@example.com", name));
+	}
+
+	private long storesOf(int shard, UUID userId) {
+		return jdbc(SHARDS.get(shard)).queryForObject(
+				"SELECT count(*) FROM stores WHERE user_id = ?", Long.class, userId);
+	}
+
+	private static JdbcTemplate jdbc(PostgreSQLContainer<?> database) {
+		return new JdbcTemplate(new DriverManagerDataSource(
+				database.getJdbcUrl(), database.getUsername(), database.getPassword()));
+	}
+}
@@ -0,0 +1,195 @@
+package com.buggybot.store.controller.store;
+
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.store.dto.StoreUpsertBatchResponse;
+import com.buggybot.store.controller.store.dto.StoreUpsertResult;
+import com.buggybot.store.controller.store.repository.StoreUpsertRepository;
+import com.buggybot.store.controller.user.entity.User;
+import com.buggybot.store.controller.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The unnest + ON CONFLICT upsert against a real PostgreSQL:
+ * created vs updated comes from xmax = 0 in RETURNING.
+ */
+@Testcontainers
+@SpringBootTest(properties = {
+		"auth0.audience=https://store.test",
+		"spring.security.oauth2.resourceserver.jwt.issuer-uri=https://store.test/",
+		"store.jfr.enabled=false",
+		"store.warmup.enabled=false"
+})
+class StoreUpsertTests {
+
+	@Container
+	@ServiceConnection
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private static final Instant CREATED = Instant.parse("2024-01-01T00:00:00Z");
+	private static final Instant LATER = Instant.parse("2024-06-01T12:30:00Z");
+
+	@Autowired
+	private StoreServiceImpl storeService;
+
+	@Autowired
+	private StoreUpsertRepository upsertRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User user;
+
+	@BeforeEach
+	void newUser() {
+		user = userRepository.save(new User("auth0|upsert-" + UUID.randomUUID(), "upsert@example.com", "upsert"));
+	}
+
+	@Test
+	void newKeysAreCreatedExistingOnesUpdated() {
+		StoreUpsertBatchResponse first = storeService.upsertStores(List.of(
+				record(null, "A", "One", CREATED),
+				record(null, "B", "Two", CREATED)), user);
+
+		assertThat(first.created()).isEqualTo(2);
+		assertThat(first.updated()).isZero();
+		assertThat(first.stores()).allMatch(StoreUpsertResult::created);
+		UUID a = idOf("A");
+
+		StoreUpsertBatchResponse second = storeService.upsertStores(List.of(
+				record(null, "A", "One", LATER),
+				record(null, "C", "Three", null)), user);
+
+		assertThat(second.created()).isEqualTo(1);
+		assertThat(second.updated()).isEqualTo(1);
+		assertThat(result(second, "A").created()).isFalse();
+		assertThat(result(second, "A").store().storeId()).isEqualTo(a);
+		assertThat(result(second, "A").store().storeCreatedAt()).isEqualTo(LATER);
+		assertThat(result(second, "C").created()).isTrue();
+		assertThat(count()).isEqualTo(3);
+		assertThat(createdAtOf("A")).isEqualTo(LATER);
+	}
+
+	@Test
+	void recordWithoutCreatedAtKeepsTheStoredOne() {
+		storeService.upsertStores(List.of(record(null, "A", "One", CREATED)), user);
+
+		StoreUpsertBatchResponse response = storeService.upsertStores(List.of(record(null, "A", "One", null)), user);
+
+		assertThat(response.updated()).isEqualTo(1);
+		assertThat(result(response, "A").store().storeCreatedAt()).isEqualTo(CREATED);
+		assertThat(createdAtOf("A")).isEqualTo(CREATED);
+	}
+
+	@Test
+	void recordWithItsOwnIdIsCreatedWithThatIdAndUpdatedByIt() {
+		UUID id = UUID.randomUUID();
+
+		assertThat(storeService.upsertStores(List.of(record(id, "A", "One", CREATED)), user).created()).isEqualTo(1);
+		assertThat(idOf("A")).isEqualTo(id);
+
+		StoreUpsertBatchResponse again = storeService.upsertStores(List.of(record(id, "A", "One", LATER)), user);
+		assertThat(again.updated()).isEqualTo(1);
+		assertThat(createdAtOf("A")).isEqualTo(LATER);
+	}
+
+	@Test
+	void duplicateKeysInOneBatchAreMergedLastOneWins() {
+		StoreUpsertBatchResponse response = storeService.upsertStores(List.of(
+				record(null, "A", "One", CREATED),
+				record(null, "B", "Two", CREATED),
+				record(null, "A", "One", LATER)), user);
+
+		assertThat(response.created()).isEqualTo(2);
+		assertThat(response.updated()).isZero();
+		assertThat(response.stores()).hasSize(2);
+		assertThat(result(response, "A").store().storeCreatedAt()).isEqualTo(LATER);
+		assertThat(count()).isEqualTo(2);
+		assertThat(createdAtOf("A")).isEqualTo(LATER);
+	}
+
+	@Test
+	void duplicateKeysReachingTheStatementFail() {
+		// Why upsertStores merges first: one statement can't update the same row twice
+		assertThatThrownBy(() -> upsertRepository.upsert(user.getUserId(), List.of(
+				record(null, "A", "One", CREATED),
+				record(null, "A", "One", LATER))))
+				.isInstanceOf(DataAccessException.class)
+				.hasMessageContaining("cannot affect row a second time");
+		assertThat(count()).isZero();
+	}
+
+	@Test
+	void mismatchingStoreIdRejectsTheWholeBatch() {
+		storeService.upsertStores(List.of(record(null, "A", "One", CREATED)), user);
+		UUID existing = idOf("A");
+
+		assertThatThrownBy(() -> storeService.upsertStores(List.of(
+				record(null, "B", "Two", CREATED),
+				record(UUID.randomUUID(), "A", "One", LATER)), user))
+				.isInstanceOf(StoreUpsertRepository.StoreIdMismatchException.class)
+				.hasMessageContaining("'A' at 'One'");
+
+		// Rolled back: B was not inserted, A is untouched
+		assertThat(count()).isEqualTo(1);
+		assertThat(idOf("A")).isEqualTo(existing);
+		assertThat(createdAtOf("A")).isEqualTo(CREATED);
+	}
+
+	@Test
+	void sameKeyOfAnotherUserIsAnotherStore() {
+		User other = userRepository.save(new User("auth0|upsert-" + UUID.randomUUID(), "other@example.com", "other"));
+		storeService.upsertStores(List.of(record(null, "A", "One", CREATED)), other);
+
+		StoreUpsertBatchResponse response = storeService.upsertStores(List.of(record(null, "A", "One", LATER)), user);
+
+		assertThat(response.created()).isEqualTo(1);
+		assertThat(createdAtOf("A")).isEqualTo(LATER);
+	}
+
+	private static StoreDTO record(UUID storeId, String name, String location, Instant createdAt) {
+		return new StoreDTO(storeId, name, location, createdAt, null);
+	}
+
+	private static StoreUpsertResult result(StoreUpsertBatchResponse response, String name) {
+		return response.stores().stream()
+				.filter(result -> result.store().storeName().equals(name))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private int count() {
+		return jdbcTemplate.queryForObject("SELECT count(*) FROM stores WHERE user_id = ?", Integer.class,
+				user.getUserId());
+	}
+
+	private UUID idOf(String name) {
+		return jdbcTemplate.queryForObject("SELECT store_id FROM stores WHERE user_id = ? AND store_name = ?",
+				UUID.class, user.getUserId(), name);
+	}
+
+	private Instant createdAtOf(String name) {
+		return jdbcTemplate.queryForObject(
+				"SELECT store_created_at FROM stores WHERE user_id = ? AND store_name = ?",
+				OffsetDateTime.class, user.getUserId(), name).toInstant();
+	}
+}
@@ -0,0 +1,113 @@
+package com.buggybot.store.controller.store.bulk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StoreCsvReaderTests {
+
+	private static final Set<String> COLUMNS = StoreImportService.COLUMNS;
+
+	@Test
+	void plainFieldsAndEmptyOnes() throws IOException {
+		StoreCsvReader csv = reader("a,b,c\nd,,\n");
+
+		assertThat(csv.next()).containsExactly("a", "b", "c");
+		assertThat(csv.next()).containsExactly("d", "", "");
+		assertThat(csv.next()).isNull();
+	}
+
+	@Test
+	void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+		StoreCsvReader csv = reader("\"Shop, Inc.\",\"The \"\"Best\"\" one\",\"two\nlines\"\nnext,row,here\n");
+
+		assertThat(csv.next()).containsExactly("Shop, Inc.", "The \"Best\" one", "two\nlines");
+		assertThat(csv.recordLine()).isEqualTo(1);
+		assertThat(csv.next()).containsExactly("next", "row", "here");
+		assertThat(csv.recordLine()).isEqualTo(3);
+	}
+
+	@Test
+	void quoteInsideAnUnquotedFieldIsKept() throws IOException {
+		assertThat(reader("5\" pipe,x\n").next()).containsExactly("5\" pipe", "x");
+	}
+
+	@Test
+	void crlfLineEndings() throws IOException {
+		StoreCsvReader csv = reader("a,b\r\n\"c\r\nd\",e\r\n");
+
+		assertThat(csv.next()).containsExactly("a", "b");
+		assertThat(csv.next()).containsExactly("c\r\nd", "e");  // kept as sent inside quotes
+		assertThat(csv.recordLine()).isEqualTo(2);
+		assertThat(csv.next()).isNull();
+	}
+
+	@Test
+	void lastLineWithoutLineBreak() throws IOException {
+		StoreCsvReader csv = reader("a,b\nc,d");
+
+		assertThat(csv.next()).containsExactly("a", "b");
+		assertThat(csv.next()).containsExactly("c", "d");
+		assertThat(csv.next()).isNull();
+	}
+
+	@Test
+	void unterminatedQuoteFails() throws IOException {
+		StoreCsvReader csv = reader("ok,row\n\"never closed,x\n");
+		csv.next();
+
+		assertThatThrownBy(csv::next)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Line 2: unterminated quoted field");
+	}
+
+	@Test
+	void recordsLongerThanTheLimitFail() {
+		String huge = "\"" + "x".repeat(StoreCsvReader.MAX_RECORD_CHARS) + "\"\n";
+
+		assertThatThrownBy(() -> reader(huge).next())
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("longer than " + StoreCsvReader.MAX_RECORD_CHARS);
+	}
+
+	@Test
+	void headerWithBomSpacesAndAnyOrder() throws IOException {
+		Map<String, Integer> columns = reader("\uFEFFstoreLocation , storeName,storeId\n")
+				.readHeader(COLUMNS, StoreImportService.STORE_NAME, StoreImportService.STORE_LOCATION);
+
+		assertThat(columns).containsExactlyInAnyOrderEntriesOf(Map.of(
+				StoreImportService.STORE_LOCATION, 0,
+				StoreImportService.STORE_NAME, 1,
+				StoreImportService.STORE_ID, 2));
+	}
+
+	@Test
+	void invalidHeaders() {
+		assertThatThrownBy(() -> header(""))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("expected a header line");
+		assertThatThrownBy(() -> header("storeName,storeLocation,owner\n"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageStartingWith("Unknown column 'owner'");
+		assertThatThrownBy(() -> header("storeName,storeLocation,storeName\n"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Duplicate column 'storeName'");
+		assertThatThrownBy(() -> header("storeName,storeId\n"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Header must contain storeName and storeLocation");
+	}
+
+	private static Map<String, Integer> header(String csv) throws IOException {
+		return reader(csv).readHeader(COLUMNS, StoreImportService.STORE_NAME, StoreImportService.STORE_LOCATION);
+	}
+
+	private static StoreCsvReader reader(String csv) {
+		return new StoreCsvReader(new StringReader(csv));
+	}
+}
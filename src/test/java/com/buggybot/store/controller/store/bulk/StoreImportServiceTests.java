@@ -0,0 +1,189 @@
+package com.buggybot.store.controller.store.bulk;
+
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.store.dto.StoreImportReport;
+import com.buggybot.store.controller.store.dto.StoreImportReport.RejectedLine;
+import com.buggybot.store.controller.user.entity.User;
+import com.buggybot.store.controller.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CSV import against a real PostgreSQL (COPY loader), plus both loaders on their own.
+ */
+@Testcontainers
+@SpringBootTest(properties = {
+		"auth0.audience=https://store.test",
+		"spring.security.oauth2.resourceserver.jwt.issuer-uri=https://store.test/",
+		"store.jfr.enabled=false",
+		"store.warmup.enabled=false",
+		"store.import.chunk-size=2",
+		"store.import.max-reported-rejects=3"
+})
+class StoreImportServiceTests {
+
+	@Container
+	@ServiceConnection
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private static final Instant CREATED = Instant.parse("2024-01-01T00:00:00Z");
+
+	@Autowired
+	private StoreImportService importService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private User user;
+
+	@BeforeEach
+	void newUser() {
+		user = userRepository.save(new User("auth0|import-" + UUID.randomUUID(), "import@example.com", "import"));
+	}
+
+	@Test
+	void validRowsAreImportedAndRejectsReported() throws IOException {
+		UUID id = UUID.randomUUID();
+		StoreImportReport report = importCsv("""
+				storeName,storeLocation,storeId,storeCreatedAt
+				Good,"Somewhere, Else",%s,2024-01-01T00:00:00Z
+				,No name,,
+				"Two
+				lines",Here,,
+				Bad id,Here,not-a-uuid,
+				""".formatted(id));
+
+		assertThat(report.imported()).isEqualTo(2);
+		assertThat(report.rejected()).isEqualTo(2);
+		assertThat(report.truncated()).isFalse();
+		assertThat(report.rejectedLines()).containsExactly(
+				new RejectedLine(3, "storeName is required"),
+				new RejectedLine(6, "Invalid storeId 'not-a-uuid'"));
+
+		assertThat(stores()).contains(new StoreDTO(id, "Good", "Somewhere, Else", CREATED, user.getUserId()));
+		assertThat(stores()).extracting(StoreDTO::storeName).containsExactlyInAnyOrder("Good", "Two\nlines");
+	}
+
+	@Test
+	void rejectListIsCapped() throws IOException {
+		StoreImportReport report = importCsv("""
+				storeName,storeLocation,storeCreatedAt
+				,a,
+				,b,
+				Bad date,c,yesterday
+				Too,few
+				Fine,d,
+				""");
+
+		assertThat(report.imported()).isEqualTo(1);
+		assertThat(report.rejected()).isEqualTo(4);
+		assertThat(report.truncated()).isTrue();
+		assertThat(report.rejectedLines()).extracting(RejectedLine::line).containsExactly(2L, 3L, 4L);
+		assertThat(report.rejectedLines().get(2).reason()).startsWith("Invalid storeCreatedAt 'yesterday'");
+	}
+
+	@Test
+	void tooLongValuesAreRejectedPerRow() throws IOException {
+		String tooLong = "x".repeat(StoreImportService.MAX_LENGTH + 1);
+		StoreImportReport report = importCsv("""
+				storeName,storeLocation
+				%s,Here
+				Fine,%s
+				Fits,%s
+				""".formatted(tooLong, tooLong, tooLong.substring(1)));
+
+		assertThat(report.imported()).isEqualTo(1);
+		assertThat(report.rejectedLines()).containsExactly(
+				new RejectedLine(2, "storeName is longer than 255"),
+				new RejectedLine(3, "storeLocation is longer than 255"));
+		assertThat(stores()).extracting(StoreDTO::storeName).containsExactly("Fits");
+	}
+
+	@Test
+	void badHeaderImportsNothing() {
+		assertThatThrownBy(() -> importCsv("storeName,city\nShop,Here\n"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageStartingWith("Unknown column 'city'");
+		assertThat(stores()).isEmpty();
+	}
+
+	@Test
+	void duplicateStoreIdImportsNothing() throws IOException {
+		UUID id = UUID.randomUUID();
+		importCsv("storeId,storeName,storeLocation\n" + id + ",First,Here\n");
+
+		assertThatThrownBy(() -> importCsv("""
+				storeId,storeName,storeLocation
+				,Other 1,Here
+				,Other 2,Here
+				%s,Again,Here
+				""".formatted(id)))
+				.isInstanceOf(DuplicateKeyException.class);
+		assertThat(stores()).extracting(StoreDTO::storeName).containsExactly("First");
+	}
+
+	@Test
+	void loadersWriteValuesUnchanged() throws SQLException {
+		List<StoreDTO> rows = List.of(
+				new StoreDTO(UUID.randomUUID(), "Quote \"and\" comma, here", "Line\nbreak", CREATED, null),
+				new StoreDTO(UUID.randomUUID(), "Back\\slash\ttab", "Ünïcödé ✓", CREATED, null),
+				new StoreDTO(UUID.randomUUID(), "\\N", "NULL", CREATED, null));
+
+		for (StoreBulkLoader loader : List.of(new PostgresCopyStoreLoader(), new JdbcBatchStoreLoader())) {
+			newUser();
+			try (Connection connection = dataSource.getConnection()) {
+				assertThat(loader.supports(connection)).isTrue();
+				assertThat(loader.load(connection, user.getUserId(), rows)).isEqualTo(rows.size());
+			}
+			assertThat(stores())
+					.as(loader.getClass().getSimpleName())
+					.containsExactlyInAnyOrderElementsOf(rows.stream()
+							.map(row -> new StoreDTO(row.storeId(), row.storeName(), row.storeLocation(),
+									row.storeCreatedAt(), user.getUserId()))
+							.toList());
+		}
+	}
+
+	private StoreImportReport importCsv(String csv) throws IOException {
+		return importService.importCsv(new StringReader(csv), user);
+	}
+
+	private List<StoreDTO> stores() {
+		return jdbcTemplate.query("""
+				SELECT store_id, store_name, store_location, store_created_at, user_id
+				FROM stores WHERE user_id = ?
+				""", (rs, i) -> new StoreDTO(
+				rs.getObject("store_id", UUID.class),
+				rs.getString("store_name"),
+				rs.getString("store_location"),
+				rs.getObject("store_created_at", OffsetDateTime.class).toInstant(),
+				rs.getObject("user_id", UUID.class)), user.getUserId());
+	}
+}
@@ -0,0 +1,162 @@
+package com.buggybot.store.controller.store.bulk;
+
+import com.buggybot.store.controller.store.dto.StoreReconcileReport;
+import com.buggybot.store.controller.user.entity.User;
+import com.buggybot.store.controller.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reconcile against a real PostgreSQL: the diff is computed by the database.
+ */
+@Testcontainers
+@SpringBootTest(properties = {
+		"auth0.audience=https://store.test",
+		"spring.security.oauth2.resourceserver.jwt.issuer-uri=https://store.test/",
+		"store.jfr.enabled=false",
+		"store.warmup.enabled=false",
+		"store.reconcile.chunk-size=2"
+})
+class StoreReconcileServiceTests {
+
+	@Container
+	@ServiceConnection
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private static final Instant CREATED = Instant.parse("2024-01-01T00:00:00Z");
+
+	@Autowired
+	private StoreReconcileService reconcileService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User user;
+
+	@BeforeEach
+	void newUser() {
+		user = userRepository.save(new User("auth0|reconcile-" + UUID.randomUUID(), "reconcile@example.com", "reconcile"));
+	}
+
+	@Test
+	void appliesTheMinimalDiff() throws IOException {
+		UUID kept = insert("Kept", "Here");
+		UUID moved = insert("Moved", "Here");
+		insert("Gone", "Here");
+
+		StoreReconcileReport report = reconcile("""
+				storeName,storeLocation,storeCreatedAt
+				Kept,Here,
+				Moved,Here,2023-06-01T00:00:00Z
+				New,There,
+				""", false);
+
+		assertThat(report).isEqualTo(new StoreReconcileReport(3, 1, 1, 1, 1));
+		assertThat(stores()).containsExactly("Kept|Here", "Moved|Here", "New|There");
+		// Matched stores keep their id
+		assertThat(idOf("Kept")).isEqualTo(kept);
+		assertThat(idOf("Moved")).isEqualTo(moved);
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT store_created_at FROM stores WHERE store_id = ?", OffsetDateTime.class, moved).toInstant())
+				.isEqualTo(Instant.parse("2023-06-01T00:00:00Z"));
+	}
+
+	@Test
+	void sameSetTwiceChangesNothing() throws IOException {
+		String set = """
+				storeName,storeLocation
+				A,One
+				B,Two
+				C,Three
+				""";
+		reconcile(set, false);
+
+		assertThat(reconcile(set, false)).isEqualTo(new StoreReconcileReport(3, 0, 0, 0, 3));
+	}
+
+	@Test
+	void namesAreMatchedExactlyAsStored() throws IOException {
+		UUID padded = insert(" Padded ", "Here");
+
+		StoreReconcileReport report = reconcile("""
+				storeName,storeLocation
+				" Padded ",Here
+				""", false);
+
+		assertThat(report.unchanged()).isEqualTo(1);
+		assertThat(report.deleted()).isZero();
+		assertThat(idOf(" Padded ")).isEqualTo(padded);
+	}
+
+	@Test
+	void headerOnlyIsRejectedUnlessConfirmed() throws IOException {
+		insert("Precious", "Here");
+
+		assertThatThrownBy(() -> reconcile("storeName,storeLocation\n", false))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("confirmEmpty");
+		assertThat(stores()).containsExactly("Precious|Here");
+
+		assertThat(reconcile("storeName,storeLocation\n", true).deleted()).isEqualTo(1);
+		assertThat(stores()).isEmpty();
+	}
+
+	@Test
+	void badRowChangesNothing() throws IOException {
+		insert("Existing", "Here");
+
+		assertThatThrownBy(() -> reconcile("""
+				storeName,storeLocation
+				Fine,Here
+				   ,Blank name
+				""", false))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Line 3");
+		assertThat(stores()).containsExactly("Existing|Here");
+	}
+
+	private StoreReconcileReport reconcile(String csv, boolean allowEmpty) throws IOException {
+		return reconcileService.reconcile(new StringReader(csv), user, allowEmpty);
+	}
+
+	private UUID insert(String name, String location) {
+		UUID id = UUID.randomUUID();
+		jdbcTemplate.update("""
+				INSERT INTO stores (store_id, store_name, store_location, store_created_at, user_id)
+				VALUES (?, ?, ?, ?, ?)
+				""", id, name, location, Timestamp.from(CREATED), user.getUserId());
+		return id;
+	}
+
+	private UUID idOf(String name) {
+		return jdbcTemplate.queryForObject(
+				"SELECT store_id FROM stores WHERE user_id = ? AND store_name = ?", UUID.class, user.getUserId(), name);
+	}
+
+	private List<String> stores() {
+		return jdbcTemplate.queryForList("""
+				SELECT store_name || '|' || store_location FROM stores WHERE user_id = ? ORDER BY store_name
+				""", String.class, user.getUserId());
+	}
+}
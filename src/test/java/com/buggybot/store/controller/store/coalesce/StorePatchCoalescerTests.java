@@ -0,0 +1,155 @@
+package com.buggybot.store.controller.store.coalesce;
+
+import com.buggybot.store.controller.store.StoreServiceImpl;
+import com.buggybot.store.controller.store.responseEntity.Store;
+import com.buggybot.store.controller.user.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class StorePatchCoalescerTests {
+
+	private static final Duration LONG_WINDOW = Duration.ofSeconds(5);
+
+	private final StoreServiceImpl storeService = mock(StoreServiceImpl.class);
+	private final User user = user();
+	private final UUID storeId = UUID.randomUUID();
+	private final Store store = new Store("Merged", "Here", user);
+	private StorePatchCoalescer coalescer;
+
+	@AfterEach
+	void shutDown() {
+		if (coalescer != null) {
+			coalescer.flushAll();
+		}
+	}
+
+	@Test
+	void patchesInOneWindowBecomeOneUpdate() throws Exception {
+		coalescer = coalescer(Duration.ofMillis(500));
+		when(storeService.patchStore(any(), anyMap(), any())).thenReturn(Optional.of(store));
+
+		CompletableFuture<Optional<Store>> first = patchAsync(Map.of("storeName", "A", "storeLocation", "X"));
+		Thread.sleep(50);
+		CompletableFuture<Optional<Store>> second = patchAsync(Map.of("storeName", "B"));
+
+		assertThat(first.get()).contains(store);
+		assertThat(second.get()).contains(store);
+		// Later patch wins per field, untouched fields are kept
+		verify(storeService).patchStore(storeId, Map.of("storeName", "B", "storeLocation", "X"), user);
+		verifyNoMoreInteractions(storeService);
+	}
+
+	@Test
+	void invalidValueFailsOnlyItsOwnRequest() throws Exception {
+		coalescer = coalescer(Duration.ofMillis(200));
+		when(storeService.patchStore(any(), anyMap(), any())).thenReturn(Optional.of(store));
+
+		CompletableFuture<Optional<Store>> good = patchAsync(Map.of("storeName", "A"));
+		assertThatThrownBy(() -> coalescer.patch(storeId, Map.of("storeCreatedAt", "yesterday"), user))
+				.isInstanceOf(DateTimeParseException.class);
+
+		assertThat(good.get()).contains(store);
+		verify(storeService).patchStore(storeId, Map.of("storeName", "A"), user);
+	}
+
+	@Test
+	void storeIdChangeWaitsForTheOpenBatchThenRunsAlone() throws Exception {
+		coalescer = coalescer(LONG_WINDOW);
+		when(storeService.patchStore(any(), anyMap(), any())).thenReturn(Optional.of(store));
+		String newId = UUID.randomUUID().toString();
+
+		CompletableFuture<Optional<Store>> rename = patchAsync(Map.of("storeName", "A"));
+		Thread.sleep(50);
+		coalescer.patch(storeId, Map.of("storeId", newId), user);
+
+		// Flushed by the storeId change, long before the window ends
+		assertThat(rename).succeedsWithin(Duration.ofSeconds(1)).isEqualTo(Optional.of(store));
+		InOrder order = inOrder(storeService);
+		order.verify(storeService).patchStore(storeId, Map.of("storeName", "A"), user);
+		order.verify(storeService).patchStore(storeId, Map.of("storeId", newId), user);
+		verifyNoMoreInteractions(storeService);
+	}
+
+	@Test
+	void flushErrorReachesEveryCaller() throws Exception {
+		coalescer = coalescer(Duration.ofMillis(500));
+		when(storeService.patchStore(any(), anyMap(), any()))
+				.thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+		CompletableFuture<Optional<Store>> first = patchAsync(Map.of("storeName", "A"));
+		Thread.sleep(50);
+		CompletableFuture<Optional<Store>> second = patchAsync(Map.of("storeLocation", "X"));
+
+		for (CompletableFuture<Optional<Store>> caller : List.of(first, second)) {
+			assertThat(caller).failsWithin(Duration.ofSeconds(2))
+					.withThrowableOfType(ExecutionException.class)
+					.withCauseInstanceOf(DataIntegrityViolationException.class);
+		}
+		verify(storeService, times(1)).patchStore(any(), anyMap(), any());
+	}
+
+	@Test
+	void shutdownFlushesOpenBatches() throws Exception {
+		coalescer = coalescer(LONG_WINDOW);
+		when(storeService.patchStore(any(), anyMap(), any())).thenReturn(Optional.of(store));
+
+		CompletableFuture<Optional<Store>> pending = patchAsync(Map.of("storeName", "A"));
+		Thread.sleep(50);
+		coalescer.flushAll();
+
+		assertThat(pending).succeedsWithin(Duration.ofSeconds(1)).isEqualTo(Optional.of(store));
+	}
+
+	@Test
+	void patchesAfterShutdownRunDirectly() {
+		coalescer = coalescer(LONG_WINDOW);
+		when(storeService.patchStore(any(), anyMap(), any())).thenReturn(Optional.of(store));
+		coalescer.flushAll();
+
+		assertThat(coalescer.patch(storeId, Map.of("storeName", "A"), user)).contains(store);
+		verify(storeService).patchStore(storeId, Map.of("storeName", "A"), user);
+	}
+
+	@Test
+	void disabledPassesStraightThrough() {
+		coalescer = new StorePatchCoalescer(storeService, new SimpleMeterRegistry(), false,
+				LONG_WINDOW, 1, Duration.ofSeconds(10));
+		when(storeService.patchStore(any(), anyMap(), any())).thenReturn(Optional.of(store));
+
+		assertThat(coalescer.patch(storeId, Map.of("storeName", "A"), user)).contains(store);
+		verify(storeService).patchStore(storeId, Map.of("storeName", "A"), user);
+	}
+
+	private StorePatchCoalescer coalescer(Duration window) {
+		return new StorePatchCoalescer(storeService, new SimpleMeterRegistry(), true,
+				window, 2, Duration.ofSeconds(10));
+	}
+
+	private CompletableFuture<Optional<Store>> patchAsync(Map<String, Object> updates) {
+		return CompletableFuture.supplyAsync(() -> coalescer.patch(storeId, updates, user));
+	}
+
+	private static User user() {
+		User user = new User("auth0|coalesce-" + UUID.randomUUID(), "coalesce@example.com", "coalesce");
+		user.setUserId(UUID.randomUUID());
+		return user;
+	}
+}
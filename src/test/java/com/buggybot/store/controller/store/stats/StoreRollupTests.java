@@ -0,0 +1,228 @@
+package com.buggybot.store.controller.store.stats;
+
+import com.buggybot.store.controller.user.entity.User;
+import com.buggybot.store.controller.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * The rollup triggers (V6, V7) and StoreRollupBackfill against a real PostgreSQL:
+ * the hourly / daily / monthly rollups and the location counts always match stores.
+ */
+@Testcontainers
+@SpringBootTest(properties = {
+		"auth0.audience=https://store.test",
+		"spring.security.oauth2.resourceserver.jwt.issuer-uri=https://store.test/",
+		"store.jfr.enabled=false",
+		"store.warmup.enabled=false",
+		"store.rollups.backfill-chunk=2"
+})
+class StoreRollupTests {
+
+	@Container
+	@ServiceConnection
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	private static final Instant JAN_1 = Instant.parse("2024-01-01T00:10:00Z");
+	private static final Instant JAN_1_LATER = Instant.parse("2024-01-01T00:50:00Z");
+	private static final Instant JAN_2 = Instant.parse("2024-01-02T08:00:00Z");
+	private static final Instant MAR_5 = Instant.parse("2024-03-05T10:30:00Z");
+
+	@Autowired
+	private StoreRollupBackfill backfill;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User user;
+
+	@BeforeEach
+	void newUser() throws InterruptedException {
+		// The migrations left pending_backfills rows: let the startup backfill finish first
+		await(() -> !backfill.isRunning()
+				&& jdbcTemplate.queryForObject("SELECT count(*) FROM pending_backfills", Integer.class) == 0);
+		user = userRepository.save(new User("auth0|rollup-" + UUID.randomUUID(), "rollup@example.com", "rollup"));
+	}
+
+	@Test
+	void insertsAreCountedPerBucketAndLocation() {
+		// One statement with several rows, then a single row
+		jdbcTemplate.update("""
+				INSERT INTO stores (store_id, store_name, store_location, store_created_at, user_id)
+				VALUES (?, 'A', 'Here', ?, ?), (?, 'B', 'Here', ?, ?), (?, 'C', 'There', ?, ?)
+				""",
+				UUID.randomUUID(), Timestamp.from(JAN_1), user.getUserId(),
+				UUID.randomUUID(), Timestamp.from(JAN_1_LATER), user.getUserId(),
+				UUID.randomUUID(), Timestamp.from(JAN_2), user.getUserId());
+		insert("D", "Here", MAR_5);
+
+		assertThat(rollup("store_created_hourly")).containsExactly(
+				entry(hour(JAN_1), 2L), entry(hour(JAN_2), 1L), entry(hour(MAR_5), 1L));
+		assertThat(rollup("store_created_daily")).containsExactly(
+				entry(day(JAN_1), 2L), entry(day(JAN_2), 1L), entry(day(MAR_5), 1L));
+		assertThat(rollup("store_created_monthly")).containsExactly(
+				entry(month(JAN_1), 3L), entry(month(MAR_5), 1L));
+		assertThat(locations()).containsExactly(entry("Here", 3L), entry("There", 1L));
+	}
+
+	@Test
+	void updatesMoveStoresBetweenBucketsAndLocations() {
+		UUID a = insert("A", "Here", JAN_1);
+		UUID b = insert("B", "Here", JAN_1);
+
+		jdbcTemplate.update("UPDATE stores SET store_created_at = ? WHERE store_id = ?", Timestamp.from(MAR_5), a);
+		jdbcTemplate.update("UPDATE stores SET store_location = 'There' WHERE store_id = ?", b);
+		// Neither createdAt nor location changes: nothing moves
+		jdbcTemplate.update("UPDATE stores SET store_name = 'Renamed' WHERE store_id = ?", b);
+
+		assertThat(rollup("store_created_hourly")).containsExactly(entry(hour(JAN_1), 1L), entry(hour(MAR_5), 1L));
+		assertThat(rollup("store_created_daily")).containsExactly(entry(day(JAN_1), 1L), entry(day(MAR_5), 1L));
+		assertThat(rollup("store_created_monthly")).containsExactly(entry(month(JAN_1), 1L), entry(month(MAR_5), 1L));
+		assertThat(locations()).containsExactly(entry("Here", 1L), entry("There", 1L));
+
+		// Bulk update of both: b leaves its hour, a stays where it is
+		jdbcTemplate.update("UPDATE stores SET store_created_at = ?, store_location = 'Here' WHERE user_id = ?",
+				Timestamp.from(MAR_5), user.getUserId());
+
+		assertThat(rollup("store_created_hourly")).containsExactly(entry(hour(MAR_5), 2L));
+		assertThat(rollup("store_created_daily")).containsExactly(entry(day(MAR_5), 2L));
+		assertThat(rollup("store_created_monthly")).containsExactly(entry(month(MAR_5), 2L));
+		assertThat(locations()).containsExactly(entry("Here", 2L));
+	}
+
+	@Test
+	void deletesAreSubtractedAndEmptyLocationsRemoved() {
+		UUID a = insert("A", "Here", JAN_1);
+		insert("B", "Here", JAN_2);
+		insert("C", "There", JAN_2);
+
+		jdbcTemplate.update("DELETE FROM stores WHERE store_id = ?", a);
+
+		assertThat(rollup("store_created_hourly")).containsExactly(entry(hour(JAN_2), 2L));
+		assertThat(rollup("store_created_monthly")).containsExactly(entry(month(JAN_2), 2L));
+		assertThat(locations()).containsExactly(entry("Here", 1L), entry("There", 1L));
+
+		jdbcTemplate.update("DELETE FROM stores WHERE user_id = ?", user.getUserId());
+
+		assertThat(rollup("store_created_hourly")).isEmpty();
+		assertThat(rollup("store_created_daily")).isEmpty();
+		assertThat(rollup("store_created_monthly")).isEmpty();
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT count(*) FROM store_location_counts WHERE user_id = ?", Integer.class, user.getUserId()))
+				.isZero();
+	}
+
+	@Test
+	void backfillCorrectsDriftAndThenFindsNothing() throws InterruptedException {
+		insert("A", "Here", JAN_1);
+		insert("B", "Here", JAN_1_LATER);
+		// A store from before the triggers, and rollups changed by hand
+		jdbcTemplate.execute("ALTER TABLE stores DISABLE TRIGGER USER");
+		try {
+			insert("C", "There", MAR_5);
+		} finally {
+			jdbcTemplate.execute("ALTER TABLE stores ENABLE TRIGGER USER");
+		}
+		jdbcTemplate.update("UPDATE store_created_hourly SET store_count = 9 WHERE user_id = ?", user.getUserId());
+		jdbcTemplate.update("UPDATE store_location_counts SET store_count = 7 WHERE user_id = ?", user.getUserId());
+
+		StoreRollupBackfill.BackfillReport report = runBackfill();
+
+		// C: hour, day, month and location; the hour of A and B; the location of A and B
+		assertThat(report.correctedRows()).isEqualTo(6);
+		assertThat(rollup("store_created_hourly")).containsExactly(entry(hour(JAN_1), 2L), entry(hour(MAR_5), 1L));
+		assertThat(rollup("store_created_daily")).containsExactly(entry(day(JAN_1), 2L), entry(day(MAR_5), 1L));
+		assertThat(rollup("store_created_monthly")).containsExactly(entry(month(JAN_1), 2L), entry(month(MAR_5), 1L));
+		assertThat(locations()).containsExactly(entry("Here", 2L), entry("There", 1L));
+
+		assertThat(runBackfill().correctedRows()).isZero();
+	}
+
+	/**
+	 * backfill() runs on the async executor: wait for its report
+	 */
+	private StoreRollupBackfill.BackfillReport runBackfill() throws InterruptedException {
+		StoreRollupBackfill.BackfillReport previous = backfill.lastReport();
+		backfill.backfill();
+		await(() -> backfill.lastReport() != previous && !backfill.isRunning());
+		return backfill.lastReport();
+	}
+
+	private UUID insert(String name, String location, Instant createdAt) {
+		UUID id = UUID.randomUUID();
+		jdbcTemplate.update("""
+				INSERT INTO stores (store_id, store_name, store_location, store_created_at, user_id)
+				VALUES (?, ?, ?, ?, ?)
+				""", id, name, location, Timestamp.from(createdAt), user.getUserId());
+		return id;
+	}
+
+	/**
+	 * Buckets of the user with stores (buckets that dropped to 0 stay in the table)
+	 */
+	private Map<Instant, Long> rollup(String table) {
+		Map<Instant, Long> buckets = new TreeMap<>();
+		jdbcTemplate.query("SELECT bucket_start, store_count FROM " + table
+						+ " WHERE user_id = ? AND store_count <> 0",
+				rs -> {
+					buckets.put(rs.getObject("bucket_start", OffsetDateTime.class).toInstant(), rs.getLong("store_count"));
+				}, user.getUserId());
+		return buckets;
+	}
+
+	private Map<String, Long> locations() {
+		Map<String, Long> counts = new TreeMap<>();
+		jdbcTemplate.query("SELECT store_location, store_count FROM store_location_counts WHERE user_id = ?",
+				rs -> {
+					counts.put(rs.getString("store_location"), rs.getLong("store_count"));
+				}, user.getUserId());
+		return counts;
+	}
+
+	private static Instant hour(Instant instant) {
+		return instant.truncatedTo(ChronoUnit.HOURS);
+	}
+
+	private static Instant day(Instant instant) {
+		return instant.truncatedTo(ChronoUnit.DAYS);
+	}
+
+	private static Instant month(Instant instant) {
+		return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC)
+				.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).toInstant();
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TIMEOUT.toNanos();
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("condition not met within %s", TIMEOUT).isLessThan(deadline);
+			Thread.sleep(50);
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package com.buggybot.store.invalidation;
+
+import com.buggybot.store.controller.common.PaginatedResponse;
+import com.buggybot.store.controller.store.cache.StorePageCache;
+import com.buggybot.store.controller.store.dto.StoreListQuery;
+import com.buggybot.store.controller.store.responseEntity.Store;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two instances ("nodes") on one real PostgreSQL, each with its own bus,
+ * LISTEN thread and page cache - wired by hand like InvalidationConfig does.
+ */
+@Testcontainers
+class InvalidationBusTests {
+
+	@Container
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	private Node a;
+	private Node b;
+
+	@BeforeEach
+	void startNodes() throws InterruptedException {
+		a = new Node();
+		b = new Node();
+		awaitListening(a, b);
+		awaitListening(b, a);
+	}
+
+	@AfterEach
+	void stopNodes() {
+		a.listener.stop();
+		b.listener.stop();
+	}
+
+	@Test
+	void writeOnOneNodeEvictsTheOtherNodesPages() throws InterruptedException {
+		UUID userId = UUID.randomUUID();
+		AtomicInteger loads = new AtomicInteger();
+		a.page(userId, loads);
+		a.page(userId, loads);
+		assertThat(loads).hasValue(1);
+
+		b.transaction.executeWithoutResult(status -> b.pageCache.invalidateUser(userId));
+
+		await(() -> {
+			a.page(userId, loads);
+			return loads.get() == 2;
+		});
+	}
+
+	@Test
+	void rolledBackWriteEvictsNothing() throws InterruptedException {
+		UUID rolledBack = UUID.randomUUID();
+		UUID committed = UUID.randomUUID();
+		AtomicInteger loads = new AtomicInteger();
+		a.page(rolledBack, loads);
+
+		b.transaction.executeWithoutResult(status -> {
+			b.pageCache.invalidateUser(rolledBack);
+			status.setRollbackOnly();
+		});
+		b.transaction.executeWithoutResult(status -> b.pageCache.invalidateUser(committed));
+
+		// NOTIFYs arrive in commit order: once the later one is here, the first one never comes
+		await(() -> a.received.contains(Invalidation.allStoresOf(committed)));
+		assertThat(a.received).doesNotContain(Invalidation.allStoresOf(rolledBack));
+		assertThat(b.received).doesNotContain(Invalidation.allStoresOf(rolledBack));
+		a.page(rolledBack, loads);
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void ownWritesAreEvictedOnceAfterCommit() throws InterruptedException {
+		UUID userId = UUID.randomUUID();
+		UUID marker = UUID.randomUUID();
+
+		a.transaction.executeWithoutResult(status -> {
+			a.pageCache.invalidateUser(userId);
+			a.pageCache.invalidateUser(userId);  // coalesced
+			assertThat(a.received).isEmpty();     // not before the commit
+		});
+		assertThat(a.received).containsExactly(Invalidation.allStoresOf(userId));
+
+		// a's own NOTIFY came back to its listener before b's marker - and was skipped
+		b.bus.publish(Invalidation.allStoresOf(marker));
+		await(() -> a.received.contains(Invalidation.allStoresOf(marker)));
+		assertThat(a.received).containsExactly(Invalidation.allStoresOf(userId), Invalidation.allStoresOf(marker));
+		await(() -> b.received.contains(Invalidation.allStoresOf(userId)));
+	}
+
+	@Test
+	void burstIsPackedIntoPayloadsBelowTheLimit() throws InterruptedException {
+		List<UUID> users = new CopyOnWriteArrayList<>();
+		b.transaction.executeWithoutResult(status -> {
+			// ~80 bytes each: several NOTIFYs of at most MAX_PAYLOAD_BYTES
+			for (int i = 0; i < 300; i++) {
+				UUID userId = UUID.randomUUID();
+				users.add(userId);
+				b.bus.publish(Invalidation.store(UUID.randomUUID(), userId));
+			}
+		});
+
+		await(() -> a.received.size() == users.size());
+		assertThat(a.received).extracting(Invalidation::userId).containsExactlyElementsOf(users);
+	}
+
+	/**
+	 * LISTEN runs on a background thread: probe until the other node hears us,
+	 * then wait for one last probe - every earlier one arrives before it
+	 */
+	private static void awaitListening(Node sender, Node receiver) throws InterruptedException {
+		UUID probe = UUID.randomUUID();
+		await(() -> {
+			sender.bus.publish(Invalidation.user(probe));
+			return receiver.received.contains(Invalidation.user(probe));
+		});
+		UUID last = UUID.randomUUID();
+		sender.bus.publish(Invalidation.user(last));
+		await(() -> receiver.received.contains(Invalidation.user(last)));
+		sender.received.clear();
+		receiver.received.clear();
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TIMEOUT.toNanos();
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("condition not met within %s", TIMEOUT).isLessThan(deadline);
+			Thread.sleep(50);
+		}
+	}
+
+	private static class Node {
+
+		final DataSource dataSource = new DriverManagerDataSource(
+				postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+		final InvalidationBus bus = new InvalidationBus(new JdbcTemplate(dataSource), true);
+		final InvalidationListener listener = new InvalidationListener(
+				List.of(dataSource), bus, Duration.ofMillis(100), Duration.ofSeconds(1));
+		final StorePageCache pageCache = new StorePageCache(100, Duration.ofMinutes(5), 1, Duration.ofSeconds(10), bus);
+		final TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		final List<Invalidation> received = new CopyOnWriteArrayList<>();
+
+		Node() {
+			bus.subscribe(received::add);
+			listener.start();
+		}
+
+		void page(UUID userId, AtomicInteger loads) {
+			pageCache.get(userId, 1, 10, StoreListQuery.defaults(), () -> {
+				loads.incrementAndGet();
+				return new PaginatedResponse<Store>(List.of(), 1, 10, 0, 0, true, true);
+			});
+		}
+	}
+}
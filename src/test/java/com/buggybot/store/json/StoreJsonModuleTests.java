@@ -0,0 +1,98 @@
+package com.buggybot.store.json;
+
+import com.buggybot.store.controller.common.ApiResponse;
+import com.buggybot.store.controller.common.PaginatedResponse;
+import com.buggybot.store.controller.store.dto.StoreDTO;
+import com.buggybot.store.controller.store.responseEntity.Store;
+import com.buggybot.store.controller.user.dto.UserDTO;
+import com.buggybot.store.controller.user.entity.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The hand-written serializers against Jackson's defaults (Spring Boot settings):
+ * the JSON must be the same, except Store writes "userId" instead of "user".
+ */
+class StoreJsonModuleTests {
+
+	private static final Instant NANOS = Instant.parse("2024-05-01T10:15:30.123456789Z");
+	private static final Instant WHOLE_MINUTE = Instant.parse("2024-05-01T10:15:00Z");
+
+	private final ObjectMapper plain = boot().build();
+	private final ObjectMapper module = boot().modulesToInstall(new StoreJsonModule()).build();
+
+	@Test
+	void storeDtoMatchesTheDefault() throws JsonProcessingException {
+		for (StoreDTO store : stores()) {
+			assertSameJson(store);
+		}
+	}
+
+	@Test
+	void userDtoMatchesTheDefault() throws JsonProcessingException {
+		assertSameJson(new UserDTO(UUID.randomUUID(), "auth0|json", "json@example.com", "Json \"quoted\"",
+				NANOS, WHOLE_MINUTE));
+		assertSameJson(new UserDTO(UUID.randomUUID(), null, "json@example.com", null, null, null));
+	}
+
+	@Test
+	void paginatedResponseMatchesTheDefault() throws JsonProcessingException {
+		assertSameJson(new PaginatedResponse<>(stores(), 2, 3, 7, 3, false, false));
+		assertSameJson(new PaginatedResponse<>(List.of(), 1, 10, 0, 0, true, true));
+		assertSameJson(new PaginatedResponse<>(null, 1, 10, 0, 0, true, true));
+		assertSameJson(new PaginatedResponse<>(Arrays.asList(stores().get(0), null), 1, 10, 1, 1, true, true));
+	}
+
+	@Test
+	void apiResponseMatchesTheDefault() throws JsonProcessingException {
+		assertSameJson(new ApiResponse<>(true, null, null));
+		assertSameJson(new ApiResponse<>(false, "Failed", null));
+		assertSameJson(new ApiResponse<>(true, "Found", stores().get(0)));
+		assertSameJson(new ApiResponse<>(true, null, new PaginatedResponse<>(stores(), 1, 10, 3, 1, true, true)));
+		assertSameJson(new ApiResponse<>(true, null, List.of("not", "a", "module", "type")));
+	}
+
+	@Test
+	void storeWritesUserIdInsteadOfTheUser() throws JsonProcessingException {
+		User user = new User("auth0|json", "json@example.com", "Json");
+		user.setUserId(UUID.randomUUID());
+		Store store = new Store("Shop", "Here", user);
+		store.setStoreId(UUID.randomUUID());
+		store.setStoreCreatedAt(NANOS);
+
+		StoreDTO asDto = new StoreDTO(store.getStoreId(), "Shop", "Here", NANOS, user.getUserId());
+		assertThat(module.readTree(module.writeValueAsString(store)))
+				.isEqualTo(plain.readTree(plain.writeValueAsString(asDto)));
+	}
+
+	private void assertSameJson(Object value) throws JsonProcessingException {
+		String expected = plain.writeValueAsString(value);
+		String actual = module.writeValueAsString(value);
+		assertThat(module.readTree(actual)).as(actual).isEqualTo(plain.readTree(expected));
+	}
+
+	private static List<StoreDTO> stores() {
+		return List.of(
+				new StoreDTO(UUID.randomUUID(), "Shop", "Somewhere, \"Else\"\n", NANOS, UUID.randomUUID()),
+				new StoreDTO(UUID.randomUUID(), "Ünïcödé ✓", "Here", WHOLE_MINUTE, null),
+				new StoreDTO(null, null, null, null, null));
+	}
+
+	/**
+	 * ObjectMapper settings of Spring Boot's JacksonAutoConfiguration that matter here
+	 */
+	private static Jackson2ObjectMapperBuilder boot() {
+		return Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	}
+}
@@ -0,0 +1,105 @@
+package com.buggybot.store.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GradientLimitTests {
+
+	private static final long MS = 1_000_000;
+
+	private final GradientLimit limit = new GradientLimit(20, 5, 200, 1.5, 0.2, 600);
+
+	@Test
+	void growsWhileLoadedAndLatencyStaysNormal() {
+		limit.onSample(10 * MS, 20, false);
+		assertThat(limit.getLimit()).isGreaterThan(20);
+
+		for (int i = 0; i < 1_000; i++) {
+			limit.onSample(10 * MS, limit.getLimit(), false);
+		}
+		assertThat(limit.getLimit()).isEqualTo(200);
+	}
+
+	@Test
+	void idleSamplesTeachNothing() {
+		for (int i = 0; i < 1_000; i++) {
+			limit.onSample(MS, 1, false);
+		}
+		assertThat(limit.getLimit()).isEqualTo(20);
+
+		// Had the 1ms idle samples become the baseline, 10ms under load would look like queueing
+		limit.onSample(10 * MS, 20, false);
+		assertThat(limit.getLimit()).isGreaterThan(20);
+	}
+
+	@Test
+	void shrinksWhenLatencyRises() {
+		for (int i = 0; i < 10; i++) {
+			limit.onSample(10 * MS, limit.getLimit(), false);
+		}
+		int healthy = limit.getLimit();
+
+		for (int i = 0; i < 10; i++) {
+			limit.onSample(100 * MS, limit.getLimit(), false);
+		}
+		assertThat(limit.getLimit()).isLessThan(healthy);
+	}
+
+	@Test
+	void outlierSampleDoesNotCollapseTheLimit() {
+		for (int i = 0; i < 20; i++) {
+			limit.onSample(10 * MS, limit.getLimit(), false);
+		}
+		int healthy = limit.getLimit();
+
+		// e.g. a 30s CSV import that still went through the limiter
+		limit.onSample(30_000 * MS, limit.getLimit(), false);
+		assertThat(limit.getLimit()).isGreaterThanOrEqualTo((int) (healthy * 0.9));
+
+		limit.onSample(10 * MS, limit.getLimit(), false);
+		limit.onSample(10 * MS, limit.getLimit(), false);
+		assertThat(limit.getLimit()).isGreaterThan(healthy * 9 / 10);
+
+		// The baseline is still ~10ms: real queueing (3x slower) is seen right away
+		int beforeQueueing = limit.getLimit();
+		limit.onSample(30 * MS, limit.getLimit(), false);
+		assertThat(limit.getLimit()).isLessThan(beforeQueueing);
+	}
+
+	@Test
+	void backsOffOnDropsDownToTheMinimum() {
+		limit.onSample(10 * MS, 1, true);
+		assertThat(limit.getLimit()).isEqualTo(18);
+
+		for (int i = 0; i < 100; i++) {
+			limit.onSample(10 * MS, 1, true);
+		}
+		assertThat(limit.getLimit()).isEqualTo(5);
+	}
+
+	@Test
+	void initialLimitIsClamped() {
+		assertThat(new GradientLimit(1_000, 5, 200, 1.5, 0.2, 600).getLimit()).isEqualTo(200);
+		assertThat(new GradientLimit(1, 5, 200, 1.5, 0.2, 600).getLimit()).isEqualTo(5);
+		assertThatThrownBy(() -> new GradientLimit(20, 0, 200, 1.5, 0.2, 600))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new GradientLimit(20, 50, 10, 1.5, 0.2, 600))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void resetForgetsLimitAndBaseline() {
+		for (int i = 0; i < 100; i++) {
+			limit.onSample(MS, limit.getLimit(), false);
+		}
+		assertThat(limit.getLimit()).isGreaterThan(20);
+
+		limit.reset();
+		assertThat(limit.getLimit()).isEqualTo(20);
+		// New baseline from the first sample after the reset: 10ms is normal now
+		limit.onSample(10 * MS, 20, false);
+		assertThat(limit.getLimit()).isGreaterThan(20);
+	}
+}
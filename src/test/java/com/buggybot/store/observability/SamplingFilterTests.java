@@ -0,0 +1,76 @@
+package com.buggybot.store.observability;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+import org.slf4j.event.KeyValuePair;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SamplingFilterTests {
+
+	private final LoggerContext context = new LoggerContext();
+
+	@Test
+	void fluentApiEventsAreSampledAtTheConfiguredRate() {
+		Random random = new Random(42);
+		SamplingFilter filter = new SamplingFilter(random::nextDouble);
+		filter.setRates("com.buggybot.store.controller=0.1");
+
+		int kept = 0;
+		for (int i = 0; i < 100_000; i++) {
+			LoggingEvent event = event("com.buggybot.store.controller.store.StoreController", Level.INFO);
+			event.addKeyValuePair(new KeyValuePair("userId", "u-" + i));
+			if (filter.decide(event) == FilterReply.NEUTRAL) {
+				kept++;
+			}
+		}
+
+		assertThat(kept).isBetween(9_500, 10_500);
+	}
+
+	@Test
+	void longestPrefixWins() {
+		SamplingFilter filter = new SamplingFilter(() -> 0.5);
+		filter.setRates("com.buggybot.store.controller=0.1, com.buggybot.store.controller.user=0.9");
+
+		assertThat(filter.decide(event("com.buggybot.store.controller.user.UserController", Level.INFO)))
+				.isEqualTo(FilterReply.NEUTRAL);
+		assertThat(filter.decide(event("com.buggybot.store.controller.store.StoreController", Level.INFO)))
+				.isEqualTo(FilterReply.DENY);
+	}
+
+	@Test
+	void unmarkedEventsAlwaysPass() {
+		SamplingFilter filter = new SamplingFilter(() -> 0.99);
+		filter.setRates("com.buggybot.store.controller=0.0");
+
+		LoggingEvent audit = new LoggingEvent(SamplingFilterTests.class.getName(),
+				context.getLogger("com.buggybot.store.controller.user.service.UserPurgeJob"), Level.INFO, "Purged user", null, null);
+		assertThat(filter.decide(audit)).isEqualTo(FilterReply.NEUTRAL);
+	}
+
+	@Test
+	void warningsErrorsAndUnmatchedLoggersAlwaysPass() {
+		SamplingFilter filter = new SamplingFilter(() -> 0.99);
+		filter.setRates("com.buggybot.store.controller=0.0");
+
+		assertThat(filter.decide(event("com.buggybot.store.controller.X", Level.WARN))).isEqualTo(FilterReply.NEUTRAL);
+		assertThat(filter.decide(event("com.buggybot.store.controller.X", Level.ERROR))).isEqualTo(FilterReply.NEUTRAL);
+		assertThat(filter.decide(event("com.buggybot.store.sharding.ShardRouter", Level.INFO))).isEqualTo(FilterReply.NEUTRAL);
+		assertThat(filter.decide(event("com.buggybot.store.controller.X", Level.INFO))).isEqualTo(FilterReply.DENY);
+	}
+
+	/**
+	 * A per-request event: marked SAMPLED like the controllers mark them
+	 */
+	private LoggingEvent event(String logger, Level level) {
+		LoggingEvent event = new LoggingEvent(SamplingFilterTests.class.getName(), context.getLogger(logger), level, "message", null, null);
+		event.addMarker(SamplingFilter.SAMPLED);
+		return event;
+	}
+}